@@ -0,0 +1,23 @@
+package com.fiap.azure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "azure.cache")
+public class AzureCacheConfig {
+
+    // Tempo em que a entrada é considerada atual
+    private long subscriptionsTtl = 300000L;
+    private long groupsTtl = 120000L;
+    private long resourcesTtl = 120000L;
+
+    // Após o TTL, o valor antigo ainda é servido por esse tempo enquanto atualiza em background
+    private long staleWindow = 600000L;
+
+    // Limite de entradas (LRU) por nível
+    private int maxSubscriptionGroupEntries = 500;
+    private int maxResourceEntries = 10000;
+}
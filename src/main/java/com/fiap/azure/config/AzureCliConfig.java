@@ -4,6 +4,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import lombok.Data;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Configuration
@@ -11,6 +13,50 @@ import java.io.File;
 public class AzureCliConfig {
 private String path;
 private long timeout = 30000L;
+// Comandos que alteram recursos (ex.: group delete sem --no-wait levam minutos): prazo próprio, 0 = sem limite
+private long mutationTimeout = 3600000L;
+
+// Limite global de chamadas simultâneas ao Azure (processos az ou requisições ARM) e pool do fan-out
+private int maxConcurrentCommands = 8;
+// Vagas à parte para comandos que alteram recursos e para o acompanhamento das deleções
+private int backgroundMaxConcurrentCommands = 16;
+private int schedulerThreads = 16;
+// Threads virtuais quando a JVM suporta (Java 21+); senão, pool de plataforma
+private boolean virtualThreads = true;
+// Tempo máximo de um fan-out (ex.: todos os grupos de uma assinatura)
+private long fanOutTimeout = 120000L;
+// Chamadas de leitura idênticas e simultâneas compartilham um único processo az
+private boolean coalesceReads = true;
+
+// Repetição de falhas transitórias/429: espera exponencial com jitter, respeitando o Retry-After
+private int maxRetries = 3;
+private long retryBaseDelay = 1000L;
+private long retryMaxDelay = 30000L;
+// Token bucket por assinatura (requisições/s); a taxa cai pela metade a cada 429. 0 = desligado
+private double subscriptionRateLimit = 10.0;
+private double subscriptionRateMin = 0.5;
+private int subscriptionBurst = 20;
+// Bulkhead: processos az simultâneos por assinatura (0 = só o limite global)
+private int subscriptionMaxConcurrentCommands = 4;
+// Circuit breaker por assinatura: falhas seguidas para abrir (0 = desligado) e tempo aberto
+private int breakerFailureThreshold = 5;
+private long breakerOpenDuration = 60000L;
+// Chamada cancelada depois desse tempo conta como falha (assinatura que trava em vez de falhar)
+private long breakerSlowCallThreshold = 15000L;
+// Sessão do az: renovada essa margem antes do vencimento do token; sem vencimento informado, vale o TTL
+private long authRefreshMargin = 300000L;
+private long authFallbackTtl = 600000L;
+
+// Pool de workers persistentes (evita subir o interpretador Python a cada comando)
+private boolean workerEnabled = false;
+private int workerPoolSize = 2;
+private int workerMaxCommands = 200;
+private long workerAcquireTimeout = 2000L;
+private long workerHealthCheckInterval = 60000L;
+private String workerPython = "python3";
+// Comando completo do worker; vazio = workerPython + script embutido (az_worker.py)
+private List<String> workerCommand = new ArrayList<>();
+
 public AzureCliConfig() {
     this.path = detectAzureCliPath();
 }
@@ -0,0 +1,48 @@
+package com.fiap.azure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "azure.deletion")
+public class AzureDeletionConfig {
+
+    // Deleções simultâneas no total e por assinatura
+    private int globalConcurrency = 16;
+    private int perSubscriptionConcurrency = 4;
+
+    // Envia "az group delete --no-wait" e acompanha a conclusão por polling
+    private boolean noWait = true;
+    private long pollInterval = 15000L;
+    private long pollTimeout = 3600000L;
+
+    // Por quanto tempo o status final fica visível, limite de entradas e intervalo da limpeza
+    private long statusCompletedRetention = 30000L;
+    private long statusFailedRetention = 600000L;
+    private int statusMaxEntries = 10000;
+    private long statusSweepInterval = 1000L;
+
+    // Stream SSE de status: eventos guardados para reconexão, limite de clientes e keep-alive
+    private int eventBufferSize = 1000;
+    private int eventMaxSubscribers = 200;
+    private long eventStreamTimeout = 1800000L;
+    private long eventHeartbeatInterval = 15000L;
+
+    // Journal local (append-only) de intenções e resultados, reaplicado na inicialização
+    private boolean journalEnabled = true;
+    private String journalPath = "data/deletion-journal.log";
+    private int journalCompactThreshold = 50000;
+
+    // Jobs de deleção finalizados ficam consultáveis por este tempo, até o limite de jobs
+    private long jobRetention = 3600000L;
+    private int jobMaxEntries = 5000;
+
+    // Arquivo das políticas de exclusão nomeadas (vazio = só em memória)
+    private String exclusionPoliciesPath = "";
+
+    // Planos de deleção (dry-run): validade e duração assumida por grupo sem histórico
+    private long planRetention = 900000L;
+    private long planDefaultGroupDuration = 300000L;
+}
@@ -0,0 +1,44 @@
+package com.fiap.azure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "azure.inventory")
+public class AzureInventoryConfig {
+
+    public static final String MODE_CLI = "cli";
+    public static final String MODE_GRAPH = "graph";
+
+    // Quem faz as chamadas: "cli" (processos az) ou "rest" (API do ARM via HTTP/2, token do az)
+    private String backend = "cli";
+    private String armEndpoint = "https://management.azure.com";
+    private long armTimeout = 30000L;
+
+    // "cli": az group list + az resource list por grupo
+    // "graph": consultas paginadas no Azure Resource Graph (az graph query)
+    private String mode = MODE_CLI;
+
+    // Registros por página no Resource Graph (máximo aceito pela API: 1000)
+    private int graphPageSize = 1000;
+
+    // Máximo de assinaturas por consulta no Resource Graph
+    private int graphSubscriptionBatchSize = 1000;
+
+    // Verificação de grupos por assinatura (modo cli): paralelismo e prazo por assinatura
+    private int probeConcurrency = 8;
+    private long probeTimeout = 20000L;
+
+    // Paginação da lista de grupos no dashboard (GET /api/subscriptions/{id}/groups)
+    private int groupPageSize = 50;
+    private int groupMaxPageSize = 500;
+
+    // Exportação (GET /api/inventory/export): grupos consultados à frente da escrita
+    private int exportPrefetch = 8;
+
+    public boolean isGraphMode() {
+        return MODE_GRAPH.equalsIgnoreCase(mode);
+    }
+}
@@ -0,0 +1,32 @@
+package com.fiap.azure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "azure.snapshot")
+public class AzureSnapshotConfig {
+
+    // Mantém o inventário em memória, atualizado em background; desligado = consulta a cada requisição
+    private boolean enabled = true;
+
+    // Intervalo entre ciclos do atualizador e quantas assinaturas atualizar por ciclo (escalonamento)
+    private long tickInterval = 5000L;
+    private int subscriptionsPerTick = 2;
+
+    // Idade máxima da lista de assinaturas e dos grupos de cada assinatura
+    private long subscriptionListInterval = 300000L;
+    private long subscriptionInterval = 120000L;
+
+    // A cada intervalo, recarrega os recursos de todos os grupos (não só dos alterados)
+    private long fullRefreshInterval = 1800000L;
+
+    // Guarda grupos e recursos em colunas (tipo/região/estado codificados, ids remontados sob demanda);
+    // false = mantém os objetos como vieram do Azure
+    private boolean compact = true;
+
+    // Não consulta o Azure enquanto houver deleções na fila ou em andamento
+    private boolean pauseDuringDeletions = true;
+}
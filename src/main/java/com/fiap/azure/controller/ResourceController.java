@@ -1,24 +1,40 @@
 package com.fiap.azure.controller;
 
-import com.fiap.azure.dto.ResourceGroupDTO;
 import com.fiap.azure.dto.SubscriptionDTO;
 import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
 import com.fiap.azure.model.ResourceGroup;
 import com.fiap.azure.model.Subscription;
+import com.fiap.azure.service.AzureAuthService;
 import com.fiap.azure.service.AzureCliService;
+import com.fiap.azure.service.DeletionEventService;
+import com.fiap.azure.service.DeletionJobService;
+import com.fiap.azure.service.DeletionPlanService;
+import com.fiap.azure.service.DeletionSchedulerService;
 import com.fiap.azure.service.DeletionStatusService;
+import com.fiap.azure.service.ExclusionPolicyService;
+import com.fiap.azure.service.InventoryCacheService;
+import com.fiap.azure.service.InventoryExportService;
+import com.fiap.azure.service.InventorySnapshotService;
+import com.fiap.azure.service.ResourceGroupPageService;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.GroupNameMatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -29,11 +45,27 @@ public class ResourceController {
 
     private final AzureCliService azureCliService;
     private final DeletionStatusService deletionStatusService;
+    private final DeletionSchedulerService deletionSchedulerService;
+    private final DeletionEventService deletionEventService;
+    private final DeletionJobService deletionJobService;
+    private final ExclusionPolicyService exclusionPolicyService;
+    private final DeletionPlanService deletionPlanService;
+    private final InventoryCacheService inventoryCacheService;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final ResourceGroupPageService resourceGroupPageService;
+    private final InventoryExportService inventoryExportService;
+    private final AzureCommandExecutor commandExecutor;
+    private final AzureAuthService authService;
 
     @GetMapping
     public String dashboard(Model model, @RequestParam(required = false) String subscriptionId) {
         try {
-            List<Subscription> subscriptions = azureCliService.listSubscriptionsWithResources();
+            List<Subscription> subscriptions = inventorySnapshotService.findSubscriptions();
+            // Inventário ainda carregando em background: renderiza a casca e a página se recarrega
+            model.addAttribute("inventoryLoading", subscriptions == null);
+            if (subscriptions == null) {
+                subscriptions = List.of();
+            }
             List<SubscriptionDTO> subscriptionDTOs = subscriptions.stream()
                     .map(this::toSubscriptionDTO)
                     .collect(Collectors.toList());
@@ -52,27 +84,12 @@ public class ResourceController {
             model.addAttribute("currentSubscriptionId", subscriptionId);
             model.addAttribute("currentSubscriptionName", currentSubscriptionName);
 
-            List<ResourceGroup> resourceGroups = new ArrayList<>();
-            if (subscriptionId != null && !subscriptionId.isEmpty()) {
-                log.info("Carregando recursos da assinatura: {}", subscriptionId);
-                try {
-                    resourceGroups = azureCliService.listResourcesBySubscription(subscriptionId);
-                } catch (AzureCliException e) {
-                    log.warn("Erro ao carregar recursos: {}", e.getMessage());
-                    model.addAttribute("warning", "Erro ao carregar recursos: " + e.getMessage());
-                }
-            }
-
-            List<ResourceGroupDTO> resourceGroupDTOs = resourceGroups.stream()
-                    .map(this::toResourceGroupDTO)
-                    .collect(Collectors.toList());
-
-            model.addAttribute("resourceGroups", resourceGroupDTOs);
-            model.addAttribute("totalGroups", resourceGroupDTOs.size());
-            model.addAttribute("deletingGroups", deletionStatusService.getDeletingGroups());
+            // Só a casca da página: os grupos chegam em páginas por /api/subscriptions/{id}/groups
+            Long snapshotAge = inventorySnapshotService.getAgeMs(
+                    subscriptionId != null && !subscriptionId.isEmpty() ? subscriptionId : null);
+            model.addAttribute("snapshotAgeSeconds", snapshotAge != null ? snapshotAge / 1000 : null);
 
-            log.info("Dashboard carregado com {} assinaturas e {} grupos", 
-                    subscriptionDTOs.size(), resourceGroupDTOs.size());
+            log.info("Dashboard carregado com {} assinaturas", subscriptionDTOs.size());
 
         } catch (AzureCliException e) {
             log.error("Erro ao carregar dashboard", e);
@@ -82,28 +99,82 @@ public class ResourceController {
         return "index";
     }
 
+    @GetMapping("/api/subscriptions/{subscriptionId}/groups")
+    @ResponseBody
+    public ResponseEntity<?> listResourceGroups(@PathVariable String subscriptionId,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(defaultValue = "name") String sort,
+                                                @RequestParam(defaultValue = "asc") String order,
+                                                @RequestParam(required = false) String q,
+                                                @RequestParam(required = false) String location) {
+        try {
+            return ResponseEntity.ok(resourceGroupPageService.page(subscriptionId, cursor, limit, sort, order, q,
+                    location));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (AzureCliException e) {
+            log.warn("Erro ao carregar grupos da assinatura {}: {}", subscriptionId, e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/subscriptions/{subscriptionId}/groups/{groupName}/resources")
+    @ResponseBody
+    public ResponseEntity<?> listGroupResources(@PathVariable String subscriptionId, @PathVariable String groupName) {
+        try {
+            List<Resource> resources = resourceGroupPageService.resources(subscriptionId, groupName);
+            if (resources == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "Grupo não encontrado: " + groupName));
+            }
+            return ResponseEntity.ok(resources);
+        } catch (AzureCliException e) {
+            log.warn("Erro ao carregar recursos do grupo {}: {}", groupName, e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/inventory/export")
+    public ResponseEntity<?> exportInventory(@RequestParam(defaultValue = InventoryExportService.NDJSON) String format,
+                                             @RequestParam(defaultValue = "false") boolean gzip,
+                                             @RequestParam(required = false) List<String> subscriptionId) {
+        String normalized = format.toLowerCase(Locale.ROOT);
+        if (!InventoryExportService.FORMATS.contains(normalized)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Formato inválido: " + format
+                    + " (use " + InventoryExportService.NDJSON + " ou " + InventoryExportService.CSV + ")"));
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                inventoryExportService.export(out, normalized, gzip, subscriptionId);
+            } catch (AzureCliException e) {
+                log.error("Erro ao exportar inventário: {}", e.getMessage());
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        String fileName = "inventario." + normalized + (gzip ? ".gz" : "");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, (gzip ? "attachment" : "inline") + "; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.contentType(MediaType.parseMediaType("application/gzip"));
+        } else {
+            response.contentType(MediaType.parseMediaType(InventoryExportService.NDJSON.equals(normalized)
+                    ? "application/x-ndjson;charset=UTF-8" : "text/csv;charset=UTF-8"));
+        }
+        return response.body(body);
+    }
+
     @PostMapping("/api/delete-group")
     @ResponseBody
     public ResponseEntity<?> deleteResourceGroup(@RequestParam String groupName, @RequestParam String subscriptionId) {
-        String taskId = UUID.randomUUID().toString();
-        
-        deletionStatusService.markAsDeleting(groupName, subscriptionId);
+        String taskId = deletionJobService.create("Deletar grupo " + groupName).getId();
         
-        CompletableFuture.runAsync(() -> {
-            try {
-                azureCliService.deleteResourceGroup(groupName, subscriptionId);
-                deletionStatusService.markAsCompleted(groupName, true, "Deletado com sucesso");
-                log.info("✅ Grupo deletado em background: {}", groupName);
-            } catch (Exception e) {
-                deletionStatusService.markAsCompleted(groupName, false, e.getMessage());
-                log.error("❌ Erro ao deletar grupo em background: {}", groupName, e);
-            }
-        });
+        deletionSchedulerService.submit(taskId, subscriptionId, List.of(groupName));
         
         log.info("🚀 Deleção iniciada em background: {}", groupName);
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "taskId", taskId,
+            "jobId", taskId,
             "groupName", groupName,
             "message", "Deleção iniciada em segundo plano"
         ));
@@ -112,29 +183,15 @@ public class ResourceController {
     @PostMapping("/api/delete-groups")
     @ResponseBody
     public ResponseEntity<?> deleteResourceGroups(@RequestBody DeleteGroupsRequest request) {
-        String taskId = UUID.randomUUID().toString();
+        String taskId = deletionJobService.create("Deletar " + request.getGroupNames().size() + " grupo(s)").getId();
         
-        for (String groupName : request.getGroupNames()) {
-            deletionStatusService.markAsDeleting(groupName, request.getSubscriptionId());
-        }
-        
-        CompletableFuture.runAsync(() -> {
-            for (String groupName : request.getGroupNames()) {
-                try {
-                    azureCliService.deleteResourceGroup(groupName, request.getSubscriptionId());
-                    deletionStatusService.markAsCompleted(groupName, true, "Deletado com sucesso");
-                    log.info("✅ Grupo deletado: {}", groupName);
-                } catch (Exception e) {
-                    deletionStatusService.markAsCompleted(groupName, false, e.getMessage());
-                    log.error("❌ Erro ao deletar: {}", groupName, e);
-                }
-            }
-        });
+        deletionSchedulerService.submit(taskId, request.getSubscriptionId(), request.getGroupNames());
         
         log.info("🚀 Deleção de {} grupos iniciada em background", request.getGroupNames().size());
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "taskId", taskId,
+            "jobId", taskId,
             "count", request.getGroupNames().size(),
             "message", "Deleção iniciada em segundo plano"
         ));
@@ -143,31 +200,18 @@ public class ResourceController {
     @PostMapping("/api/delete-all-subscription")
     @ResponseBody
     public ResponseEntity<?> deleteAllResourceGroupsSubscription(@RequestParam String subscriptionId) {
-        String taskId = UUID.randomUUID().toString();
+        String taskId = deletionJobService.create("Deletar todos os grupos da assinatura " + subscriptionId).getId();
         
-        CompletableFuture.runAsync(() -> {
-            try {
-                List<ResourceGroup> groups = azureCliService.listResourcesBySubscription(subscriptionId);
-                for (ResourceGroup group : groups) {
-                    deletionStatusService.markAsDeleting(group.getName(), subscriptionId);
-                }
-                for (ResourceGroup group : groups) {
-                    try {
-                        azureCliService.deleteResourceGroup(group.getName(), subscriptionId);
-                        deletionStatusService.markAsCompleted(group.getName(), true, "Deletado");
-                    } catch (Exception e) {
-                        deletionStatusService.markAsCompleted(group.getName(), false, e.getMessage());
-                    }
-                }
-                log.info("✅ Todos os grupos da assinatura {} deletados", subscriptionId);
-            } catch (Exception e) {
-                log.error("❌ Erro ao deletar grupos da assinatura", e);
-            }
-        });
+        // Listagem nova, não a do cache: grupos criados depois também entram na deleção
+        deletionSchedulerService.submitListed(taskId, subscriptionId, () ->
+                azureCliService.refreshResourceGroups(subscriptionId).stream()
+                        .map(ResourceGroup::getName)
+                        .collect(Collectors.toList()));
         
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "taskId", taskId,
+            "jobId", taskId,
             "message", "Deleção de todos os grupos iniciada em segundo plano"
         ));
     }
@@ -175,93 +219,215 @@ public class ResourceController {
     @PostMapping("/api/delete-all-all")
     @ResponseBody
     public ResponseEntity<?> deleteAllResourceGroupsAllSubscriptions(@RequestBody DeleteAllRequest request) {
-        String taskId = UUID.randomUUID().toString();
-        
         List<String> excludePatterns = request.getExcludePatterns() != null ? request.getExcludePatterns() : new ArrayList<>();
-        String matchMode = request.getMatchMode() != null ? request.getMatchMode() : "exact";
+        String matchMode = request.getMatchMode() != null ? request.getMatchMode() : GroupNameMatcher.EXACT;
         
-        log.info("🚀 Iniciando deleção de todas as assinaturas. Exclusões: {} (modo: {})", excludePatterns, matchMode);
+        // Padrões compilados uma vez para a requisição inteira
+        GroupNameMatcher exclusions;
+        try {
+            exclusions = exclusionPolicyService.matcherFor(request.getPolicyName(), excludePatterns, matchMode);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
         
-        CompletableFuture.runAsync(() -> {
-            int totalDeleted = 0;
-            int totalSkipped = 0;
-            
-            for (String subId : request.getSubscriptionIds()) {
-                try {
-                    List<ResourceGroup> groups = azureCliService.listResourcesBySubscription(subId);
-                    
-                    for (ResourceGroup group : groups) {
-                        if (shouldExcludeGroup(group.getName(), excludePatterns, matchMode)) {
-                            log.info("🛡️ Grupo PRESERVADO (filtro): {}", group.getName());
-                            totalSkipped++;
-                            continue;
-                        }
-                        deletionStatusService.markAsDeleting(group.getName(), subId);
-                    }
-                    
-                    for (ResourceGroup group : groups) {
-                        if (shouldExcludeGroup(group.getName(), excludePatterns, matchMode)) {
-                            continue;
-                        }
-                        try {
-                            azureCliService.deleteResourceGroup(group.getName(), subId);
-                            deletionStatusService.markAsCompleted(group.getName(), true, "Deletado");
-                            totalDeleted++;
-                        } catch (Exception e) {
-                            deletionStatusService.markAsCompleted(group.getName(), false, e.getMessage());
-                        }
+        String taskId = deletionJobService.create("Deletar todos os grupos de "
+                + request.getSubscriptionIds().size() + " assinatura(s)").getId();
+        
+        log.info("🚀 Iniciando deleção de todas as assinaturas. Exclusões: {} (modo: {}, política: {})",
+                excludePatterns, matchMode, request.getPolicyName());
+        
+        for (String subId : request.getSubscriptionIds()) {
+            deletionSchedulerService.submitListed(taskId, subId, () -> {
+                List<String> toDelete = new ArrayList<>();
+                for (ResourceGroup group : azureCliService.refreshResourceGroups(subId)) {
+                    if (exclusions.matches(group.getName())) {
+                        log.info("🛡️ Grupo PRESERVADO (filtro): {}", group.getName());
+                        continue;
                     }
-                } catch (Exception e) {
-                    log.warn("Erro na assinatura {}: {}", subId, e.getMessage());
+                    toDelete.add(group.getName());
                 }
-            }
-            log.info("✅ Deleção concluída. Deletados: {}, Preservados: {}", totalDeleted, totalSkipped);
-        });
+                return toDelete;
+            });
+        }
         
         return ResponseEntity.ok(Map.of(
             "status", "started",
             "taskId", taskId,
-            "excludeCount", excludePatterns.size(),
+            "jobId", taskId,
+            "excludeCount", exclusions.getPatternCount(),
             "message", "Deleção iniciada em segundo plano"
         ));
     }
 
-    private boolean shouldExcludeGroup(String groupName, List<String> patterns, String matchMode) {
-        if (patterns == null || patterns.isEmpty()) {
-            return false;
+    /**
+     * Dry-run do "deletar tudo": o que seria deletado e preservado, a partir do inventário em memória.
+     */
+    @PostMapping("/api/delete-plan")
+    @ResponseBody
+    public ResponseEntity<?> createDeletionPlan(@RequestBody DeleteAllRequest request) {
+        try {
+            DeletionPlanService.Plan plan = deletionPlanService.createPlan(request.getSubscriptionIds(),
+                    request.getExcludePatterns(),
+                    request.getMatchMode() != null ? request.getMatchMode() : GroupNameMatcher.EXACT,
+                    request.getPolicyName());
+            return ResponseEntity.ok(plan.toView());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
-        
-        String lowerGroupName = groupName.toLowerCase();
-        
-        for (String pattern : patterns) {
-            String lowerPattern = pattern.toLowerCase().trim();
-            if (lowerPattern.isEmpty()) continue;
-            
-            switch (matchMode) {
-                case "exact":
-                    if (lowerGroupName.equals(lowerPattern)) return true;
-                    break;
-                case "contains":
-                    if (lowerGroupName.contains(lowerPattern)) return true;
-                    break;
-                case "startsWith":
-                    if (lowerGroupName.startsWith(lowerPattern)) return true;
-                    break;
-            }
+    }
+
+    @GetMapping("/api/delete-plan/{planId}")
+    @ResponseBody
+    public ResponseEntity<?> getDeletionPlan(@PathVariable String planId) {
+        DeletionPlanService.Plan plan = deletionPlanService.get(planId);
+        if (plan == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Plano não encontrado ou vencido: " + planId));
+        }
+        return ResponseEntity.ok(plan.toView());
+    }
+
+    @PostMapping("/api/delete-plan/{planId}/execute")
+    @ResponseBody
+    public ResponseEntity<?> executeDeletionPlan(@PathVariable String planId) {
+        try {
+            String jobId = deletionPlanService.execute(planId);
+            return ResponseEntity.ok(Map.of(
+                "status", "started",
+                "taskId", jobId,
+                "jobId", jobId,
+                "message", "Deleção do plano iniciada em segundo plano"
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/api/exclusion-policies")
+    @ResponseBody
+    public ResponseEntity<?> listExclusionPolicies() {
+        return ResponseEntity.ok(exclusionPolicyService.list());
+    }
+
+    @PutMapping("/api/exclusion-policies/{name}")
+    @ResponseBody
+    public ResponseEntity<?> saveExclusionPolicy(@PathVariable String name,
+                                                 @RequestBody List<ExclusionPolicyService.ExclusionRule> rules) {
+        try {
+            return ResponseEntity.ok(exclusionPolicyService.save(name, rules));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/api/exclusion-policies/{name}")
+    @ResponseBody
+    public ResponseEntity<?> deleteExclusionPolicy(@PathVariable String name) {
+        if (!exclusionPolicyService.delete(name)) {
+            return ResponseEntity.status(404).body(Map.of("error", "Política não encontrada: " + name));
+        }
+        return ResponseEntity.ok(Map.of("status", "deleted", "name", name));
+    }
+
+    @GetMapping("/api/deletion-queue")
+    @ResponseBody
+    public ResponseEntity<?> getDeletionQueue() {
+        return ResponseEntity.ok(deletionSchedulerService.getStats());
+    }
+
+    @GetMapping("/api/jobs")
+    @ResponseBody
+    public ResponseEntity<?> listJobs() {
+        return ResponseEntity.ok(deletionJobService.list());
+    }
+
+    @GetMapping("/api/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        DeletionJobService.Job job = deletionJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Job não encontrado: " + jobId));
+        }
+        return ResponseEntity.ok(job.toView(true));
+    }
+
+    @DeleteMapping("/api/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<?> cancelJob(@PathVariable String jobId) {
+        DeletionJobService.Job job = deletionJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Job não encontrado: " + jobId));
+        }
+        if (!deletionSchedulerService.cancel(jobId)) {
+            return ResponseEntity.status(409).body(Map.of("error", "Job já finalizado: " + jobId));
+        }
+        return ResponseEntity.ok(job.toView(false));
+    }
+
+    @PostMapping("/api/snapshot/refresh")
+    @ResponseBody
+    public ResponseEntity<?> refreshSnapshot(@RequestParam(required = false) String subscriptionId) {
+        try {
+            inventorySnapshotService.refreshNow(subscriptionId);
+            return ResponseEntity.ok(Map.of("status", "refreshed"));
+        } catch (AzureCliException e) {
+            log.warn("Erro ao atualizar inventário: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
         }
-        return false;
+    }
+
+    @GetMapping("/api/snapshot")
+    @ResponseBody
+    public ResponseEntity<?> getSnapshotStatus() {
+        return ResponseEntity.ok(inventorySnapshotService.getStatus());
+    }
+
+    @GetMapping("/api/cache/stats")
+    @ResponseBody
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(inventoryCacheService.getStats());
+    }
+
+    @GetMapping("/api/cli/stats")
+    @ResponseBody
+    public ResponseEntity<?> getCliStats() {
+        return ResponseEntity.ok(commandExecutor.getStats());
+    }
+
+    @GetMapping("/api/auth/status")
+    @ResponseBody
+    public ResponseEntity<?> getAuthStatus() {
+        return ResponseEntity.ok(authService.getStatus());
     }
 
     @GetMapping("/api/deletion-status")
     @ResponseBody
-    public ResponseEntity<?> getDeletionStatus() {
-        return ResponseEntity.ok(deletionStatusService.getAllStatus());
+    public ResponseEntity<?> getDeletionStatus(@RequestParam(required = false) String subscriptionId) {
+        return ResponseEntity.ok(deletionStatusService.getAllStatus(subscriptionId));
+    }
+
+    /**
+     * Transições de status em tempo real; /api/deletion-status continua como fallback.
+     */
+    @GetMapping(value = "/api/deletion-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamDeletionEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) String subscriptionId) {
+        return deletionEventService.subscribe(lastEventId, subscriptionId,
+                () -> deletionStatusService.getAllStatus(subscriptionId));
     }
 
     @GetMapping("/api/deletion-status/{groupName}")
     @ResponseBody
-    public ResponseEntity<?> getDeletionStatus(@PathVariable String groupName) {
-        return ResponseEntity.ok(deletionStatusService.getStatus(groupName));
+    public ResponseEntity<?> getDeletionStatus(@PathVariable String groupName,
+                                               @RequestParam(required = false) String subscriptionId) {
+        // Sem assinatura, o mesmo nome pode aparecer em várias: devolve todas as ocorrências
+        if (subscriptionId == null || subscriptionId.isEmpty()) {
+            return ResponseEntity.ok(deletionStatusService.findByGroupName(groupName));
+        }
+        return ResponseEntity.ok(deletionStatusService.getStatus(subscriptionId, groupName));
     }
 
     private SubscriptionDTO toSubscriptionDTO(Subscription subscription) {
@@ -270,19 +436,8 @@ public class ResourceController {
                 .name(subscription.getName())
                 .displayName(subscription.getDisplayName())
                 .state(subscription.getState())
-                .build();
-    }
-
-    private ResourceGroupDTO toResourceGroupDTO(ResourceGroup resourceGroup) {
-        return ResourceGroupDTO.builder()
-                .id(resourceGroup.getId())
-                .name(resourceGroup.getName())
-                .location(resourceGroup.getLocation())
-                .provisioningState(resourceGroup.getProvisioningState())
-                .resourceCount(resourceGroup.getResources() != null ? 
-                        resourceGroup.getResources().size() : 0)
-                .resources(resourceGroup.getResources() != null ? 
-                        resourceGroup.getResources() : new ArrayList<>())
+                .probeStatus(subscription.getProbeStatus())
+                .circuitState(commandExecutor.getCircuitState(subscription.getId()))
                 .build();
     }
 
@@ -305,6 +460,7 @@ public class ResourceController {
         private List<String> subscriptionIds;
         private List<String> excludePatterns;
         private String matchMode;
+        private String policyName;
 
         public List<String> getSubscriptionIds() { return subscriptionIds; }
         public void setSubscriptionIds(List<String> subscriptionIds) { this.subscriptionIds = subscriptionIds; }
@@ -314,5 +470,8 @@ public class ResourceController {
 
         public String getMatchMode() { return matchMode; }
         public void setMatchMode(String matchMode) { this.matchMode = matchMode; }
+
+        public String getPolicyName() { return policyName; }
+        public void setPolicyName(String policyName) { this.policyName = policyName; }
     }
 }
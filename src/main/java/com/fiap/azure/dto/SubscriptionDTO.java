@@ -14,4 +14,6 @@ public class SubscriptionDTO {
     private String name;
     private String displayName;
     private String state;
+    private String probeStatus;
+    private String circuitState;
 }
@@ -1,11 +1,38 @@
 package com.fiap.azure.exception;
 
 public class AzureCliException extends Exception {
+
+    private final AzureErrorType type;
+    // Espera sugerida pelo Azure (Retry-After), quando informada
+    private final Long retryAfterMs;
+
     public AzureCliException(String message) {
+        this(message, AzureErrorType.UNKNOWN, null);
+    }
+
+    public AzureCliException(String message, AzureErrorType type, Long retryAfterMs) {
         super(message);
+        this.type = type;
+        this.retryAfterMs = retryAfterMs;
     }
 
     public AzureCliException(String message, Throwable cause) {
         super(message, cause);
+        // Ao embrulhar outra falha da CLI, mantém a classificação original
+        if (cause instanceof AzureCliException cliException) {
+            this.type = cliException.type;
+            this.retryAfterMs = cliException.retryAfterMs;
+        } else {
+            this.type = AzureErrorType.UNKNOWN;
+            this.retryAfterMs = null;
+        }
+    }
+
+    public AzureErrorType getType() {
+        return type;
+    }
+
+    public Long getRetryAfterMs() {
+        return retryAfterMs;
     }
 }
@@ -0,0 +1,19 @@
+package com.fiap.azure.exception;
+
+/**
+ * Classificação de uma falha da Azure CLI a partir do stderr, usada para
+ * decidir se o comando é repetido e com qual espera.
+ */
+public enum AzureErrorType {
+    // 429 / TooManyRequests: o ARM recusou a requisição sem processá-la
+    THROTTLED,
+    // Token expirado ou sessão ausente: repetir não resolve, precisa de az login
+    AUTH_EXPIRED,
+    NOT_FOUND,
+    // 5xx, conexão encerrada, gateway: costuma passar na tentativa seguinte
+    TRANSIENT,
+    TIMEOUT,
+    // Recusada sem executar: circuit breaker da assinatura aberto
+    CIRCUIT_OPEN,
+    UNKNOWN
+}
@@ -8,8 +8,24 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Subscription {
+    public static final String PROBE_OK = "OK";
+    public static final String PROBE_UNKNOWN = "UNKNOWN";
+
     private String id;
     private String name;
     private String state;
     private String displayName;
+    // UNKNOWN quando não foi possível verificar os grupos a tempo
+    private String probeStatus = PROBE_OK;
+
+    public Subscription(String id, String name, String state, String displayName) {
+        this.id = id;
+        this.name = name;
+        this.state = state;
+        this.displayName = displayName;
+    }
+
+    public boolean isProbeUnknown() {
+        return PROBE_UNKNOWN.equals(probeStatus);
+    }
 }
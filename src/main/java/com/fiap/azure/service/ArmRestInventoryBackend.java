@@ -0,0 +1,294 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureErrorClassifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inventário pela API REST do ARM, sem subir processos: um único HttpClient
+ * (HTTP/2, conexões reaproveitadas e multiplexadas) e o token de acesso da
+ * sessão do az, obtido uma vez pelo {@link AzureAuthService} e renovado por ele.
+ * Cada requisição passa pelo {@link AzureCallGate}, como os comandos do CLI:
+ * token bucket, circuit breaker, bulkhead e vagas são os mesmos. 401 descarta
+ * o token e repete uma vez; 429, timeouts e falhas transitórias são repetidos
+ * pelo gate.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "azure.inventory", name = "backend", havingValue = AzureInventoryBackend.BACKEND_REST)
+public class ArmRestInventoryBackend implements AzureInventoryBackend {
+
+    private static final String SUBSCRIPTIONS_API_VERSION = "2022-12-01";
+    private static final String RESOURCES_API_VERSION = "2021-04-01";
+    // Intervalo de consulta de uma deleção em andamento quando o ARM não manda Retry-After
+    private static final long DEFAULT_POLL_INTERVAL_MS = 5000L;
+
+    private final AzureAuthService authService;
+    private final ObjectMapper objectMapper;
+    private final AzureInventoryConfig inventoryConfig;
+    private final AzureCallGate callGate;
+    private final HttpClient httpClient;
+
+    public ArmRestInventoryBackend(AzureAuthService authService, ObjectMapper objectMapper,
+                                   AzureInventoryConfig inventoryConfig,
+                                   AzureCallGate callGate) {
+        this.authService = authService;
+        this.objectMapper = objectMapper;
+        this.inventoryConfig = inventoryConfig;
+        this.callGate = callGate;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(inventoryConfig.getArmTimeout()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public List<Subscription> listSubscriptions() throws AzureCliException {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (JsonNode item : getAllPages(AzureCallGate.DEFAULT_SUBSCRIPTION,
+                url("/subscriptions", SUBSCRIPTIONS_API_VERSION))) {
+            String displayName = text(item, "displayName");
+            subscriptions.add(new Subscription(text(item, "subscriptionId"), displayName,
+                    text(item, "state"), displayName));
+        }
+        return subscriptions;
+    }
+
+    @Override
+    public List<ResourceGroup> listResourceGroups(String subscriptionId) throws AzureCliException {
+        String id = subscriptionId != null ? subscriptionId : defaultSubscription();
+        List<ResourceGroup> groups = new ArrayList<>();
+        for (JsonNode item : getAllPages(id, url("/subscriptions/" + encode(id) + "/resourcegroups",
+                RESOURCES_API_VERSION))) {
+            JsonNode properties = item.get("properties");
+            String provisioningState = properties != null ? text(properties, "provisioningState") : null;
+            groups.add(new ResourceGroup(orDefault(text(item, "id"), "unknown"), orDefault(text(item, "name"), "N/A"),
+                    orDefault(text(item, "location"), "Unknown"), orDefault(provisioningState, "Unknown"),
+                    new ArrayList<>()));
+        }
+        return groups;
+    }
+
+    @Override
+    public List<Resource> listResources(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        List<Resource> resources = new ArrayList<>();
+        for (JsonNode item : getAllPages(subscriptionId,
+                url(groupPath(subscriptionId, resourceGroupName) + "/resources", RESOURCES_API_VERSION))) {
+            resources.add(new Resource(orDefault(text(item, "id"), "unknown"), orDefault(text(item, "name"), "N/A"),
+                    orDefault(text(item, "type"), "Unknown"), orDefault(text(item, "location"), "N/A"),
+                    resourceGroupName));
+        }
+        return resources;
+    }
+
+    @Override
+    public Map<String, Integer> countResourcesByGroup(String subscriptionId) throws AzureCliException {
+        Map<String, Integer> counts = new HashMap<>();
+        for (JsonNode item : getAllPages(subscriptionId,
+                url("/subscriptions/" + encode(subscriptionId) + "/resources", RESOURCES_API_VERSION))) {
+            String group = groupOf(text(item, "id"));
+            if (group != null) {
+                counts.merge(group.toLowerCase(Locale.ROOT), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    // "/subscriptions/{id}/resourceGroups/{grupo}/providers/..." -> grupo
+    private static String groupOf(String resourceId) {
+        if (resourceId == null) {
+            return null;
+        }
+        String[] segments = resourceId.split("/");
+        for (int i = 0; i < segments.length - 1; i++) {
+            if ("resourceGroups".equalsIgnoreCase(segments[i])) {
+                return segments[i + 1];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void deleteResourceGroup(String subscriptionId, String resourceGroupName, boolean wait)
+            throws AzureCliException {
+        HttpResponse<byte[]> response = send(subscriptionId, "DELETE",
+                url(groupPath(subscriptionId, resourceGroupName), RESOURCES_API_VERSION));
+        // 202 + Location: a deleção segue no Azure; com wait, consulta até terminar (vagas de segundo plano)
+        String location = response.headers().firstValue("Location").orElse(null);
+        while (wait && response.statusCode() == 202 && location != null) {
+            Long retryAfter = retryAfterMs(response);
+            sleep(retryAfter != null ? retryAfter : DEFAULT_POLL_INTERVAL_MS,
+                    "Interrompido aguardando deleção do grupo " + resourceGroupName);
+            String operation = location;
+            response = AzureCallGate.inBackgroundLane(() -> send(subscriptionId, "GET", operation));
+            location = response.headers().firstValue("Location").orElse(location);
+        }
+    }
+
+    @Override
+    public boolean resourceGroupExists(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        try {
+            send(subscriptionId, "HEAD", url(groupPath(subscriptionId, resourceGroupName), RESOURCES_API_VERSION));
+            return true;
+        } catch (AzureCliException e) {
+            if (e.getType() == AzureErrorType.NOT_FOUND) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    // Junta o "value" de todas as páginas seguindo o nextLink
+    private List<JsonNode> getAllPages(String subscriptionId, String firstUrl) throws AzureCliException {
+        List<JsonNode> items = new ArrayList<>();
+        String next = firstUrl;
+        while (next != null) {
+            HttpResponse<byte[]> response = send(subscriptionId, "GET", next);
+            JsonNode page;
+            try {
+                page = objectMapper.readTree(response.body());
+            } catch (IOException e) {
+                throw new AzureCliException("Resposta inválida do ARM em " + next, e);
+            }
+            JsonNode value = page.get("value");
+            if (value != null && value.isArray()) {
+                value.forEach(items::add);
+            }
+            next = text(page, "nextLink");
+        }
+        return items;
+    }
+
+    /**
+     * Envia a requisição pelo gate da assinatura. Erros saem classificados como
+     * os do az (THROTTLED, AUTH_EXPIRED, NOT_FOUND, TRANSIENT, TIMEOUT).
+     */
+    private HttpResponse<byte[]> send(String subscriptionId, String method, String url) throws AzureCliException {
+        return callGate.call(subscriptionId, !"DELETE".equals(method), method + " " + url,
+                ArmRestInventoryBackend::isRetryable, attempt -> sendOnce(method, url, attempt));
+    }
+
+    // DELETE de grupo é idempotente no ARM: repetir depois de timeout também é seguro
+    private static boolean isRetryable(AzureCliException error) {
+        return error.getType() == AzureErrorType.THROTTLED
+                || error.getType() == AzureErrorType.TRANSIENT
+                || error.getType() == AzureErrorType.TIMEOUT;
+    }
+
+    private HttpResponse<byte[]> sendOnce(String method, String url, int attempt) throws AzureCliException {
+        boolean tokenRenewed = false;
+        while (true) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(inventoryConfig.getArmTimeout()))
+                    .header("Authorization", "Bearer " + authService.getAccessToken())
+                    .header("Accept", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            AzureCliException error;
+            HttpResponse<byte[]> response = null;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                error = response.statusCode() < 400 ? null : AzureErrorClassifier.httpFailure(response.statusCode(),
+                        new String(response.body(), StandardCharsets.UTF_8), retryAfterMs(response));
+            } catch (HttpTimeoutException e) {
+                error = new AzureCliException("ARM excedeu o tempo limite (" + inventoryConfig.getArmTimeout()
+                        + "ms): " + method + " " + url, AzureErrorType.TIMEOUT, null);
+            } catch (IOException e) {
+                error = new AzureCliException("Falha de conexão com o ARM: " + e.getMessage(),
+                        AzureErrorType.TRANSIENT, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AzureCliException("Interrompido aguardando resposta do ARM", e);
+            }
+            if (error == null) {
+                return response;
+            }
+            // 404 numa repetição de DELETE quer dizer que a tentativa anterior já removeu o grupo
+            if ("DELETE".equals(method) && attempt > 0 && error.getType() == AzureErrorType.NOT_FOUND) {
+                return response;
+            }
+            if (error.getType() == AzureErrorType.AUTH_EXPIRED) {
+                // Token revogado ou vencido antes do previsto: pega outro uma vez
+                authService.resetAuthentication();
+                if (!tokenRenewed) {
+                    tokenRenewed = true;
+                    continue;
+                }
+            }
+            throw error;
+        }
+    }
+
+    private static void sleep(long millis, String message) throws AzureCliException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureCliException(message, e);
+        }
+    }
+
+    private static Long retryAfterMs(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .filter(value -> value.matches("\\d{1,5}"))
+                .map(seconds -> Long.parseLong(seconds) * 1000L)
+                .orElse(null);
+    }
+
+    private String defaultSubscription() throws AzureCliException {
+        authService.getAccessToken();
+        String id = authService.getDefaultSubscriptionId();
+        if (id == null) {
+            throw new AzureCliException("Sessão do az sem assinatura padrão; informe a assinatura");
+        }
+        return id;
+    }
+
+    private String url(String path, String apiVersion) {
+        String base = inventoryConfig.getArmEndpoint();
+        return (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + path + "?api-version=" + apiVersion;
+    }
+
+    private static String groupPath(String subscriptionId, String resourceGroupName) {
+        return "/subscriptions/" + encode(subscriptionId) + "/resourceGroups/" + encode(resourceGroupName);
+    }
+
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
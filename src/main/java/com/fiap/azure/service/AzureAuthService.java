@@ -1,30 +1,85 @@
 package com.fiap.azure.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureCliConfig;
 import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
 import com.fiap.azure.util.AzureCommandExecutor;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sessão do az CLI validada com {@code az account get-access-token}: vale até
+ * o vencimento do token (menos a margem de renovação), é renovada em segundo
+ * plano antes de vencer e descartada quando qualquer comando falha com sessão
+ * expirada. Chamadas simultâneas sem sessão válida esperam uma única validação.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AzureAuthService {
 
+    // "expiresOn" das versões antigas do az: horário local, sem fuso
+    private static final DateTimeFormatter EXPIRES_ON = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[.SSSSSS]");
+
     private final AzureCommandExecutor commandExecutor;
-    private static boolean isAuthenticated = false;
+    private final AzureCliConfig azureCliConfig;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService refresher;
+
+    private volatile AuthSession session;
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private final AtomicReference<CompletableFuture<AuthSession>> validation = new AtomicReference<>();
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    public AzureAuthService(AzureCommandExecutor commandExecutor, AzureCliConfig azureCliConfig) {
+        this.commandExecutor = commandExecutor;
+        this.azureCliConfig = azureCliConfig;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "azure-auth-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+        commandExecutor.onAuthExpired(this::resetAuthentication);
+    }
 
     public void ensureAuthenticated() throws AzureCliException {
-        if (isAuthenticated) {
+        AuthSession current = session;
+        long now = System.currentTimeMillis();
+        if (current != null && now < current.expiresAt()) {
+            if (now >= current.refreshAt() && refreshQueued.compareAndSet(false, true)) {
+                // Perto do vencimento: renova em segundo plano e segue com o token atual
+                refresher.execute(this::refreshQuietly);
+            }
             return;
         }
 
         try {
-            // Verifica se tem sessão ativa
-            commandExecutor.execute("account", "show");
-            isAuthenticated = true;
-            log.info("✅ Sessão Azure ativa");
-        } catch (Exception e) {
+            validate();
+        } catch (AzureCliException e) {
+            if (e.getType() != AzureErrorType.AUTH_EXPIRED && e.getType() != AzureErrorType.UNKNOWN) {
+                // 429, timeout etc.: a sessão pode estar boa, não manda fazer login
+                throw e;
+            }
             log.error("❌ Sessão não encontrada");
             throw new AzureCliException(
                 "❌ SESSÃO NÃO ENCONTRADA\n\n" +
@@ -34,7 +89,172 @@ public class AzureAuthService {
         }
     }
 
+    /**
+     * Token do ARM da sessão atual (validada ou renovada se preciso), para quem
+     * fala com a API REST direto em vez de passar pelo az.
+     */
+    public String getAccessToken() throws AzureCliException {
+        ensureAuthenticated();
+        AuthSession current = session;
+        if (current == null || current.accessToken() == null) {
+            // Descartada entre a validação e a leitura (comando com sessão expirada): valida de novo
+            current = validate();
+        }
+        if (current.accessToken() == null) {
+            throw new AzureCliException("az account get-access-token não devolveu accessToken",
+                    AzureErrorType.AUTH_EXPIRED, null);
+        }
+        return current.accessToken();
+    }
+
+    /**
+     * Assinatura padrão do az na sessão atual, ou null se ainda não validada.
+     */
+    public String getDefaultSubscriptionId() {
+        AuthSession current = session;
+        return current != null ? current.subscriptionId() : null;
+    }
+
     public void resetAuthentication() {
-        isAuthenticated = false;
+        if (session != null) {
+            log.warn("🔑 Sessão Azure descartada (token expirado ou revogado)");
+        }
+        session = null;
+        ScheduledFuture<?> refresh = scheduledRefresh;
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        AuthSession current = session;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("authenticated", current != null && System.currentTimeMillis() < current.expiresAt());
+        if (current != null) {
+            status.put("tenantId", current.tenantId());
+            status.put("subscriptionId", current.subscriptionId());
+            status.put("expiresAt", Instant.ofEpochMilli(current.expiresAt()).toString());
+            status.put("refreshAt", Instant.ofEpochMilli(current.refreshAt()).toString());
+        }
+        return status;
+    }
+
+    // Uma validação por vez; quem chega durante ela recebe o mesmo resultado
+    private AuthSession validate() throws AzureCliException {
+        CompletableFuture<AuthSession> mine = new CompletableFuture<>();
+        CompletableFuture<AuthSession> running = validation.compareAndExchange(null, mine);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AzureCliException("Interrompido aguardando validação da sessão Azure", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AzureCliException cliException) {
+                    throw cliException;
+                }
+                throw new AzureCliException("Erro ao validar sessão Azure: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        try {
+            AuthSession fresh = fetchSession();
+            AuthSession previous = session;
+            session = fresh;
+            scheduleRefresh(fresh);
+            if (previous == null || !previous.sameIdentity(fresh)) {
+                log.info("✅ Sessão Azure ativa (tenant {}, token até {})", fresh.tenantId(),
+                        Instant.ofEpochMilli(fresh.expiresAt()));
+            } else {
+                log.debug("Token Azure renovado até {}", Instant.ofEpochMilli(fresh.expiresAt()));
+            }
+            mine.complete(fresh);
+            return fresh;
+        } catch (AzureCliException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            validation.compareAndSet(mine, null);
+        }
+    }
+
+    private void refreshQuietly() {
+        refreshQueued.set(false);
+        AuthSession current = session;
+        if (current == null || System.currentTimeMillis() < current.refreshAt()) {
+            return;
+        }
+        try {
+            validate();
+        } catch (AzureCliException e) {
+            // Sessão expirada já foi descartada pelo executor; outros erros: tenta de novo no próximo uso
+            log.warn("⚠️ Falha ao renovar token Azure: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleRefresh(AuthSession fresh) {
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        long delay = Math.max(0, fresh.refreshAt() - System.currentTimeMillis());
+        scheduledRefresh = refresher.schedule(this::refreshQuietly, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private AuthSession fetchSession() throws AzureCliException {
+        JsonNode token;
+        try {
+            token = objectMapper.readTree(commandExecutor.executeRaw("account", "get-access-token", "--output", "json")
+                    .asInputStream());
+        } catch (IOException e) {
+            throw new AzureCliException("Resposta inválida de az account get-access-token", e);
+        }
+        long now = System.currentTimeMillis();
+        Long expiresAt = expiresAt(token);
+        if (expiresAt == null || expiresAt <= now) {
+            expiresAt = now + azureCliConfig.getAuthFallbackTtl();
+        }
+        // Margem nunca maior que metade da vida do token, para não renovar em laço
+        long margin = Math.min(azureCliConfig.getAuthRefreshMargin(), (expiresAt - now) / 2);
+        return new AuthSession(text(token, "tenant"), text(token, "subscription"), text(token, "accessToken"),
+                expiresAt, expiresAt - margin);
+    }
+
+    static Long expiresAt(JsonNode token) {
+        // "expires_on" (epoch em segundos) nas versões novas do az; "expiresOn" em horário local nas antigas
+        JsonNode epoch = token.get("expires_on");
+        if (epoch != null && epoch.canConvertToLong()) {
+            return epoch.asLong() * 1000;
+        }
+        if (epoch != null && epoch.isTextual() && epoch.asText().matches("\\d+")) {
+            return Long.parseLong(epoch.asText()) * 1000;
+        }
+        String local = text(token, "expiresOn");
+        if (local == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(local, EXPIRES_ON).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.debug("expiresOn não reconhecido: {}", local);
+            return null;
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private record AuthSession(String tenantId, String subscriptionId, String accessToken, long expiresAt,
+                               long refreshAt) {
+        boolean sameIdentity(AuthSession other) {
+            return Objects.equals(tenantId, other.tenantId) && Objects.equals(subscriptionId, other.subscriptionId);
+        }
     }
 }
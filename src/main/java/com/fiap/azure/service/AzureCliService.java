@@ -1,20 +1,25 @@
 package com.fiap.azure.service;
 
+import com.fiap.azure.config.AzureInventoryConfig;
 import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
 import com.fiap.azure.model.Resource;
 import com.fiap.azure.model.ResourceGroup;
 import com.fiap.azure.model.Subscription;
-import com.fiap.azure.util.AzureCommandExecutor;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.util.CliCallScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 import java.util.Map;
 
 @Slf4j
@@ -22,27 +27,29 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AzureCliService {
 
-    private final AzureCommandExecutor commandExecutor;
-    private final ObjectMapper objectMapper;
-    private final ResourceParserService parserService;
+    // az CLI ou API REST do ARM (azure.inventory.backend)
+    private final AzureInventoryBackend backend;
     private final AzureAuthService authService;
-    
-    private static final Map<String, CacheEntry> subscriptionCache = new ConcurrentHashMap<>();
-    private static final long CACHE_DURATION_MS = 300000;
+    private final AzureInventoryConfig inventoryConfig;
+    private final ResourceGraphInventoryService graphInventoryService;
+    private final CliCallScheduler callScheduler;
+    private final InventoryCacheService inventoryCache;
 
     public List<Subscription> listSubscriptions() throws AzureCliException {
-        log.info("Listando todas as assinaturas do Azure");
         authService.ensureAuthenticated();
-        try {
-            String output = commandExecutor.execute("account", "list", "--output", "json");
-            JsonNode node = objectMapper.readTree(output);
-            List<Subscription> allSubscriptions = parserService.parseSubscriptions(node);
-            log.info("Total de assinaturas: {}", allSubscriptions.size());
-            return allSubscriptions;
-        } catch (IOException e) {
-            log.error("Erro ao parsear assinaturas", e);
-            throw new AzureCliException("Erro ao parsear assinaturas", e);
+        // Cópias: o chamador pode alterar probeStatus sem afetar o cache
+        List<Subscription> copies = new ArrayList<>();
+        for (Subscription sub : inventoryCache.subscriptions(this::loadSubscriptions)) {
+            copies.add(new Subscription(sub.getId(), sub.getName(), sub.getState(), sub.getDisplayName()));
         }
+        return copies;
+    }
+
+    private List<Subscription> loadSubscriptions() throws AzureCliException {
+        log.info("Listando todas as assinaturas do Azure");
+        List<Subscription> allSubscriptions = backend.listSubscriptions();
+        log.info("Total de assinaturas: {}", allSubscriptions.size());
+        return allSubscriptions;
     }
 
     public List<Subscription> listSubscriptionsWithResources() throws AzureCliException {
@@ -52,25 +59,64 @@ public class AzureCliService {
         List<Subscription> allSubscriptions = listSubscriptions();
         List<Subscription> subscriptionsWithResources = new ArrayList<>();
 
+        if (inventoryConfig.isGraphMode()) {
+            subscriptionsWithResources = filterSubscriptionsWithGroupsViaGraph(allSubscriptions);
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("⚡ Assinaturas ATIVAS com recursos (Resource Graph): {} (tempo: {}ms)",
+                    subscriptionsWithResources.size(), duration);
+            return subscriptionsWithResources;
+        }
+
+        // Filtrar apenas assinaturas ATIVAS
+        List<Subscription> enabled = new ArrayList<>();
         for (Subscription sub : allSubscriptions) {
-            try {
-                // Filtrar apenas assinaturas ATIVAS
-                if (!"Enabled".equals(sub.getState())) {
-                    log.info("⏭️  Assinatura {} não está ativa ({})", sub.getDisplayName(), sub.getState());
-                    continue;
-                }
-                
-                // Verificação rápida: só contar se tem grupos
+            if ("Enabled".equals(sub.getState())) {
+                enabled.add(sub);
+            } else {
+                log.info("⏭️  Assinatura {} não está ativa ({})", sub.getDisplayName(), sub.getState());
+            }
+        }
+
+        // Verificação rápida em paralelo (limitada): só contar se tem grupos
+        Semaphore permits = new Semaphore(Math.max(1, inventoryConfig.getProbeConcurrency()));
+        List<CompletableFuture<ProbeResult>> probes = new ArrayList<>();
+        for (Subscription sub : enabled) {
+            long submittedAt = System.currentTimeMillis();
+            probes.add(callScheduler.submitBounded(() -> {
+                long startedAt = System.currentTimeMillis();
                 long groupCount = countResourceGroupsFast(sub.getId());
-                
-                if (groupCount > 0) {
+                return new ProbeResult(groupCount, startedAt - submittedAt, System.currentTimeMillis() - startedAt);
+            }, permits, inventoryConfig.getProbeTimeout()));
+        }
+
+        for (int i = 0; i < enabled.size(); i++) {
+            Subscription sub = enabled.get(i);
+            try {
+                ProbeResult probe = probes.get(i).join();
+                log.info("⏱️  Assinatura {}: {} grupos (fila: {}ms, verificação: {}ms)",
+                        sub.getDisplayName(), probe.groupCount(), probe.queuedMs(), probe.probeMs());
+                if (probe.groupCount() > 0) {
                     subscriptionsWithResources.add(sub);
                     log.info("✅ Assinatura {} tem grupos", sub.getDisplayName());
                 } else {
                     log.info("⏭️  Assinatura {} sem recursos", sub.getDisplayName());
                 }
-            } catch (Exception e) {
-                log.warn("⏭️  Erro ao verificar assinatura {}: {}", sub.getDisplayName(), e.getMessage());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    // Mantém a assinatura visível, sinalizada como desconhecida
+                    sub.setProbeStatus(Subscription.PROBE_UNKNOWN);
+                    subscriptionsWithResources.add(sub);
+                    log.warn("⏱️  Assinatura {} sem resposta em {}ms: status desconhecido",
+                            sub.getDisplayName(), inventoryConfig.getProbeTimeout());
+                } else if (e.getCause() instanceof AzureCliException cliException && isUnavailable(cliException)) {
+                    // 429/falha transitória mesmo após as repetições, ou circuito aberto: não dá para afirmar que está vazia
+                    sub.setProbeStatus(Subscription.PROBE_UNKNOWN);
+                    subscriptionsWithResources.add(sub);
+                    log.warn("⏱️  Assinatura {} indisponível ({}): status desconhecido",
+                            sub.getDisplayName(), cliException.getType());
+                } else {
+                    log.warn("⏭️  Erro ao verificar assinatura {}: {}", sub.getDisplayName(), e.getCause().getMessage());
+                }
             }
         }
 
@@ -79,124 +125,164 @@ public class AzureCliService {
         return subscriptionsWithResources;
     }
 
+    private List<Subscription> filterSubscriptionsWithGroupsViaGraph(List<Subscription> allSubscriptions)
+            throws AzureCliException {
+        List<Subscription> enabled = new ArrayList<>();
+        for (Subscription sub : allSubscriptions) {
+            if ("Enabled".equals(sub.getState())) {
+                enabled.add(sub);
+            } else {
+                log.info("⏭️  Assinatura {} não está ativa ({})", sub.getDisplayName(), sub.getState());
+            }
+        }
+
+        Map<String, Long> counts = graphInventoryService.countResourceGroups(
+                enabled.stream().map(Subscription::getId).toList());
+
+        List<Subscription> subscriptionsWithResources = new ArrayList<>();
+        for (Subscription sub : enabled) {
+            long groupCount = counts.getOrDefault(sub.getId(), 0L);
+            if (groupCount > 0) {
+                subscriptionsWithResources.add(sub);
+            } else {
+                log.info("⏭️  Assinatura {} sem recursos", sub.getDisplayName());
+            }
+        }
+        return subscriptionsWithResources;
+    }
+
     private long countResourceGroupsFast(String subscriptionId) throws AzureCliException {
         try {
-            String cacheKey = "groups_" + subscriptionId;
-            CacheEntry cached = subscriptionCache.get(cacheKey);
-            
-            if (cached != null && !cached.isExpired()) {
-                log.debug("📦 Cache hit para grupos: {}", subscriptionId);
-                return cached.groupCount;
-            }
-            
-            String output = commandExecutor.execute("group", "list", 
-                    "--subscription", subscriptionId,
-                    "--output", "json");
-            JsonNode node = objectMapper.readTree(output);
-            
-            long count = 0;
-            if (node.isArray()) {
-                count = node.size();
+            return cachedResourceGroups(subscriptionId).size();
+        } catch (AzureCliException e) {
+            if (e.getType() != AzureErrorType.NOT_FOUND) {
+                throw e;
             }
-            
-            subscriptionCache.put(cacheKey, new CacheEntry(count, 0));
-            
-            return count;
-        } catch (Exception e) {
-            log.debug("Erro ao contar grupos para {}: {}", subscriptionId, e.getMessage());
+            log.debug("Assinatura {} não encontrada: {}", subscriptionId, e.getMessage());
             return 0;
         }
     }
 
+    private static boolean isUnavailable(AzureCliException e) {
+        return e.getType() == AzureErrorType.THROTTLED || e.getType() == AzureErrorType.TRANSIENT
+                || e.getType() == AzureErrorType.TIMEOUT || e.getType() == AzureErrorType.CIRCUIT_OPEN;
+    }
+
     public List<ResourceGroup> listResourceGroups() throws AzureCliException {
         log.info("Listando grupos de recursos");
         authService.ensureAuthenticated();
-        try {
-            String output = commandExecutor.execute("group", "list", "--output", "json");
-            JsonNode node = objectMapper.readTree(output);
-            return parserService.parseResourceGroups(node);
-        } catch (IOException e) {
-            log.error("Erro ao parsear grupos de recursos", e);
-            throw new AzureCliException("Erro ao parsear grupos de recursos", e);
-        }
+        return backend.listResourceGroups(null);
+    }
+
+    public List<ResourceGroup> listResourceGroups(String subscriptionId) throws AzureCliException {
+        authService.ensureAuthenticated();
+        return copyGroups(cachedResourceGroups(subscriptionId));
+    }
+
+    /**
+     * Recarrega os grupos da assinatura ignorando o que está em cache (e atualiza o cache).
+     */
+    public List<ResourceGroup> refreshResourceGroups(String subscriptionId) throws AzureCliException {
+        authService.ensureAuthenticated();
+        inventoryCache.invalidateGroups(subscriptionId);
+        return copyGroups(cachedResourceGroups(subscriptionId));
+    }
+
+    public List<Resource> refreshResourcesInGroup(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        inventoryCache.invalidateResources(subscriptionId, resourceGroupName);
+        return new ArrayList<>(inventoryCache.resources(subscriptionId, resourceGroupName,
+                () -> listResourcesInGroupInternal(resourceGroupName, subscriptionId)));
+    }
+
+    /**
+     * Recursos por grupo da assinatura (nome em minúsculas), direto do Azure e sem cache.
+     */
+    public Map<String, Integer> countResourcesByGroup(String subscriptionId) throws AzureCliException {
+        authService.ensureAuthenticated();
+        return backend.countResourcesByGroup(subscriptionId);
+    }
+
+    /**
+     * Recursos do grupo direto do Azure, sem ler nem preencher o cache (exportação do tenant inteiro).
+     */
+    public List<Resource> loadResourcesInGroup(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        authService.ensureAuthenticated();
+        return listResourcesInGroupInternal(resourceGroupName, subscriptionId);
+    }
+
+    private List<ResourceGroup> cachedResourceGroups(String subscriptionId) throws AzureCliException {
+        return inventoryCache.groups(subscriptionId, () -> loadResourceGroups(subscriptionId));
+    }
+
+    private List<ResourceGroup> loadResourceGroups(String subscriptionId) throws AzureCliException {
+        return backend.listResourceGroups(subscriptionId);
     }
 
     public List<ResourceGroup> listResourcesBySubscription(String subscriptionId) throws AzureCliException {
         log.info("Listando grupos de recursos da assinatura: {}", subscriptionId);
         long startTime = System.currentTimeMillis();
         authService.ensureAuthenticated();
+
+        if (inventoryConfig.isGraphMode()) {
+            return graphInventoryService.listResourcesBySubscription(subscriptionId);
+        }
         
-        try {
-            String output = commandExecutor.execute("group", "list", 
-                    "--subscription", subscriptionId,
-                    "--output", "json");
-            JsonNode node = objectMapper.readTree(output);
-            List<ResourceGroup> resourceGroups = parserService.parseResourceGroups(node);
-            
-            resourceGroups.parallelStream().forEach(rg -> {
+        List<ResourceGroup> resourceGroups = copyGroups(cachedResourceGroups(subscriptionId));
+
+        // Grupo que sumiu entre a listagem e a consulta sai do resultado; qualquer
+        // outra falha (já repetida pelo executor) derruba a listagem em vez de
+        // mostrar o grupo como vazio
+        Set<String> vanished = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> calls = new ArrayList<>();
+        for (ResourceGroup rg : resourceGroups) {
+            calls.add(() -> {
                 try {
-                    List<Resource> resources = listResourcesInGroupInternal(rg.getName(), subscriptionId);
-                    rg.setResources(resources);
+                    List<Resource> resources = inventoryCache.resources(subscriptionId, rg.getName(),
+                            () -> listResourcesInGroupInternal(rg.getName(), subscriptionId));
+                    rg.setResources(new ArrayList<>(resources));
                     log.debug("Grupo {} tem {} recursos", rg.getName(), resources.size());
-                } catch (Exception e) {
-                    log.warn("Erro ao listar recursos do grupo {}: {}", rg.getName(), e.getMessage());
-                    rg.setResources(new ArrayList<>());
+                } catch (AzureCliException e) {
+                    if (e.getType() != AzureErrorType.NOT_FOUND) {
+                        log.warn("Erro ao listar recursos do grupo {} ({}): {}", rg.getName(), e.getType(),
+                                e.getMessage());
+                        throw e;
+                    }
+                    log.info("Grupo {} não existe mais", rg.getName());
+                    vanished.add(rg.getName());
                 }
+                return null;
             });
-            
-            long duration = System.currentTimeMillis() - startTime;
-            log.info("⚡ {} grupos carregados em {}ms", resourceGroups.size(), duration);
-            return resourceGroups;
-        } catch (IOException e) {
-            log.error("Erro ao parsear grupos de recursos", e);
-            throw new AzureCliException("Erro ao parsear grupos de recursos", e);
         }
+        callScheduler.invokeAll(calls);
+        resourceGroups.removeIf(rg -> vanished.contains(rg.getName()));
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("⚡ {} grupos carregados em {}ms", resourceGroups.size(), duration);
+        return resourceGroups;
     }
 
-    private List<Resource> listResourcesInGroupInternal(String resourceGroupName, String subscriptionId) throws AzureCliException {
-        try {
-            String output = commandExecutor.execute("resource", "list", 
-                    "--resource-group", resourceGroupName,
-                    "--subscription", subscriptionId,
-                    "--output", "json");
-            JsonNode node = objectMapper.readTree(output);
-            
-            List<Resource> resources = new ArrayList<>();
-            if (node.isArray()) {
-                node.forEach(item -> {
-                    try {
-                        String id = item.has("id") ? item.get("id").asText() : "unknown";
-                        String name = item.has("name") ? item.get("name").asText() : "N/A";
-                        String type = item.has("type") ? item.get("type").asText() : "Unknown";
-                        String location = item.has("location") ? item.get("location").asText() : "N/A";
-                        
-                        Resource resource = new Resource(id, name, type, location, resourceGroupName);
-                        resources.add(resource);
-                    } catch (Exception e) {
-                        log.warn("Erro ao parsear recurso: {}", e.getMessage());
-                    }
-                });
-            }
-            
-            return resources;
-        } catch (IOException e) {
-            log.error("Erro ao parsear recursos", e);
-            throw new AzureCliException("Erro ao parsear recursos", e);
+    // Os grupos do cache não são alterados: quem chama recebe cópias com lista de recursos própria
+    private static List<ResourceGroup> copyGroups(List<ResourceGroup> groups) {
+        List<ResourceGroup> copies = new ArrayList<>(groups.size());
+        for (ResourceGroup rg : groups) {
+            copies.add(new ResourceGroup(rg.getId(), rg.getName(), rg.getLocation(),
+                    rg.getProvisioningState(), new ArrayList<>()));
         }
+        return copies;
+    }
+
+    private List<Resource> listResourcesInGroupInternal(String resourceGroupName, String subscriptionId) throws AzureCliException {
+        return backend.listResources(subscriptionId, resourceGroupName);
     }
 
     public void deleteResourceGroup(String resourceGroupName, String subscriptionId) throws AzureCliException {
         log.info("Deletando grupo de recursos: {}", resourceGroupName);
         authService.ensureAuthenticated();
         try {
-            commandExecutor.execute("group", "delete", 
-                    "--name", resourceGroupName,
-                    "--subscription", subscriptionId,
-                    "--yes");
-            
-            String cacheKey = "groups_" + subscriptionId;
-            subscriptionCache.remove(cacheKey);
-            
+            backend.deleteResourceGroup(subscriptionId, resourceGroupName, true);
+
+            inventoryCache.invalidateGroup(subscriptionId, resourceGroupName);
+
             log.info("✅ Grupo deletado com sucesso");
         } catch (Exception e) {
             log.error("Erro ao deletar grupo de recursos", e);
@@ -204,52 +290,25 @@ public class AzureCliService {
         }
     }
 
-    public void deleteAllResourceGroupsBySubscription(String subscriptionId) throws AzureCliException {
-        log.info("Deletando TODOS os grupos da assinatura: {}", subscriptionId);
+    /**
+     * Dispara a deleção no ARM e retorna assim que a requisição é aceita (--no-wait no CLI).
+     */
+    public void submitResourceGroupDeletion(String resourceGroupName, String subscriptionId) throws AzureCliException {
+        log.info("Enviando deleção do grupo de recursos: {}", resourceGroupName);
         authService.ensureAuthenticated();
         try {
-            List<ResourceGroup> groups = listResourcesBySubscription(subscriptionId);
-            for (ResourceGroup group : groups) {
-                commandExecutor.execute("group", "delete", 
-                        "--name", group.getName(),
-                        "--subscription", subscriptionId,
-                        "--yes");
-            }
-            
-            String cacheKey = "groups_" + subscriptionId;
-            subscriptionCache.remove(cacheKey);
-            
-            log.info("✅ Deletados {} grupos", groups.size());
+            backend.deleteResourceGroup(subscriptionId, resourceGroupName, false);
+
+            inventoryCache.invalidateGroup(subscriptionId, resourceGroupName);
         } catch (Exception e) {
-            log.error("Erro ao deletar grupos", e);
-            throw new AzureCliException("Erro ao deletar grupos de recursos", e);
+            log.error("Erro ao enviar deleção do grupo de recursos", e);
+            throw new AzureCliException("Erro ao deletar grupo de recursos: " + resourceGroupName, e);
         }
     }
 
-    public void deleteAllResourceGroupsAllSubscriptions(List<String> subscriptionIds) throws AzureCliException {
-        log.info("Deletando grupos de {} assinaturas", subscriptionIds.size());
-        for (String subId : subscriptionIds) {
-            try {
-                deleteAllResourceGroupsBySubscription(subId);
-            } catch (Exception e) {
-                log.warn("Erro ao deletar grupos da assinatura {}: {}", subId, e.getMessage());
-            }
-        }
+    public boolean resourceGroupExists(String resourceGroupName, String subscriptionId) throws AzureCliException {
+        return backend.resourceGroupExists(subscriptionId, resourceGroupName);
     }
 
-    private static class CacheEntry {
-        long groupCount;
-        long resourceCount;
-        long timestamp;
-        
-        CacheEntry(long groupCount, long resourceCount) {
-            this.groupCount = groupCount;
-            this.resourceCount = resourceCount;
-            this.timestamp = System.currentTimeMillis();
-        }
-        
-        boolean isExpired() {
-            return (System.currentTimeMillis() - timestamp) > CACHE_DURATION_MS;
-        }
-    }
+    private record ProbeResult(long groupCount, long queuedMs, long probeMs) {}
 }
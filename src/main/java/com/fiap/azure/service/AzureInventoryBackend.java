@@ -0,0 +1,44 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chamadas ao Azure usadas pelo {@link AzureCliService}, que cuida de
+ * autenticação, cache e paralelismo por cima delas. Implementações: az CLI
+ * ({@link CliInventoryBackend}) e API REST do ARM ({@link ArmRestInventoryBackend}),
+ * escolhidas por azure.inventory.backend. Erros saem como AzureCliException
+ * classificada (NOT_FOUND, THROTTLED, AUTH_EXPIRED...) nas duas.
+ */
+public interface AzureInventoryBackend {
+
+    String BACKEND_CLI = "cli";
+    String BACKEND_REST = "rest";
+
+    List<Subscription> listSubscriptions() throws AzureCliException;
+
+    /**
+     * @param subscriptionId null = assinatura padrão do az
+     */
+    List<ResourceGroup> listResourceGroups(String subscriptionId) throws AzureCliException;
+
+    List<Resource> listResources(String subscriptionId, String resourceGroupName) throws AzureCliException;
+
+    /**
+     * Quantidade de recursos por grupo (nome em minúsculas) numa única listagem
+     * da assinatura; usada para saber quais grupos mudaram sem listar cada um.
+     */
+    Map<String, Integer> countResourcesByGroup(String subscriptionId) throws AzureCliException;
+
+    /**
+     * @param wait false = retorna assim que o Azure aceita a deleção
+     */
+    void deleteResourceGroup(String subscriptionId, String resourceGroupName, boolean wait) throws AzureCliException;
+
+    boolean resourceGroupExists(String subscriptionId, String resourceGroupName) throws AzureCliException;
+}
@@ -0,0 +1,133 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.CommandOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inventário pelo az CLI: um processo por chamada (ou worker persistente),
+ * com repetição, limite por assinatura e circuit breaker do executor.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "azure.inventory", name = "backend", havingValue = AzureInventoryBackend.BACKEND_CLI,
+        matchIfMissing = true)
+public class CliInventoryBackend implements AzureInventoryBackend {
+
+    private final AzureCommandExecutor commandExecutor;
+    private final ObjectMapper objectMapper;
+    private final ResourceParserService parserService;
+
+    public CliInventoryBackend(AzureCommandExecutor commandExecutor, ObjectMapper objectMapper,
+                               ResourceParserService parserService) {
+        this.commandExecutor = commandExecutor;
+        this.objectMapper = objectMapper;
+        this.parserService = parserService;
+    }
+
+    @Override
+    public List<Subscription> listSubscriptions() throws AzureCliException {
+        try {
+            CommandOutput output = commandExecutor.executeRaw("account", "list", "--output", "json");
+            JsonNode node = objectMapper.readTree(output.asInputStream());
+            return parserService.parseSubscriptions(node);
+        } catch (IOException e) {
+            log.error("Erro ao parsear assinaturas", e);
+            throw new AzureCliException("Erro ao parsear assinaturas", e);
+        }
+    }
+
+    @Override
+    public List<ResourceGroup> listResourceGroups(String subscriptionId) throws AzureCliException {
+        try {
+            CommandOutput output = commandExecutor.executeRaw(withSubscription(subscriptionId,
+                    "group", "list", "--output", "json"));
+            return parserService.parseResourceGroups(output.asInputStream());
+        } catch (IOException e) {
+            log.error("Erro ao parsear grupos de recursos", e);
+            throw new AzureCliException("Erro ao parsear grupos de recursos", e);
+        }
+    }
+
+    @Override
+    public List<Resource> listResources(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        try {
+            CommandOutput output = commandExecutor.executeRaw("resource", "list",
+                    "--resource-group", resourceGroupName,
+                    "--subscription", subscriptionId,
+                    "--output", "json");
+            return parserService.parseResources(output.asInputStream(), resourceGroupName);
+        } catch (IOException e) {
+            log.error("Erro ao parsear recursos", e);
+            throw new AzureCliException("Erro ao parsear recursos", e);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> countResourcesByGroup(String subscriptionId) throws AzureCliException {
+        try {
+            CommandOutput output = commandExecutor.executeRaw("resource", "list",
+                    "--subscription", subscriptionId,
+                    "--query", "[].resourceGroup",
+                    "--output", "json");
+            Map<String, Integer> counts = new HashMap<>();
+            for (JsonNode group : objectMapper.readTree(output.asInputStream())) {
+                if (group.isTextual()) {
+                    counts.merge(group.asText().toLowerCase(Locale.ROOT), 1, Integer::sum);
+                }
+            }
+            return counts;
+        } catch (IOException e) {
+            log.error("Erro ao parsear contagem de recursos", e);
+            throw new AzureCliException("Erro ao parsear contagem de recursos", e);
+        }
+    }
+
+    @Override
+    public void deleteResourceGroup(String subscriptionId, String resourceGroupName, boolean wait)
+            throws AzureCliException {
+        List<String> args = new ArrayList<>(List.of("group", "delete",
+                "--name", resourceGroupName,
+                "--subscription", subscriptionId,
+                "--yes"));
+        if (!wait) {
+            args.add("--no-wait");
+        }
+        commandExecutor.execute(args.toArray(String[]::new));
+    }
+
+    @Override
+    public boolean resourceGroupExists(String subscriptionId, String resourceGroupName) throws AzureCliException {
+        String output = commandExecutor.execute("group", "exists",
+                "--name", resourceGroupName,
+                "--subscription", subscriptionId);
+        return Boolean.parseBoolean(output.trim());
+    }
+
+    private static String[] withSubscription(String subscriptionId, String... args) {
+        if (subscriptionId == null) {
+            return args;
+        }
+        String[] full = new String[args.length + 2];
+        System.arraycopy(args, 0, full, 0, 2);
+        full[2] = "--subscription";
+        full[3] = subscriptionId;
+        System.arraycopy(args, 2, full, 4, args.length - 2);
+        return full;
+    }
+}
@@ -0,0 +1,321 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Publica as transições de status de deleção via Server-Sent Events.
+ *
+ * Cada evento recebe um id sequencial e fica em um buffer circular, para que um
+ * cliente que reconecta com Last-Event-ID receba só o que perdeu. Se o id já
+ * saiu do buffer (ou não foi informado), o cliente recebe o estado completo
+ * uma vez, no lugar do polling periódico.
+ *
+ * Os eventos são distribuídos por uma única thread, que preserva a ordem e
+ * não segura a thread que fez a deleção. Cada cliente tem a própria fila,
+ * escrita por uma thread de envio: um cliente lento atrasa só a si mesmo e,
+ * se acumular mais que o buffer, é desconectado e reconecta com Last-Event-ID.
+ */
+@Slf4j
+@Service
+public class DeletionEventService {
+
+    static final String EVENT_STATUS = "status";
+    static final String EVENT_SNAPSHOT = "snapshot";
+    private static final Event HEARTBEAT = new Event(0, "heartbeat", null, null);
+
+    private final ObjectMapper objectMapper;
+    private final AzureDeletionConfig deletionConfig;
+    private final ScheduledExecutorService sender;
+    private final ExecutorService deliveries;
+
+    // Buffer circular protegido por "this"
+    private final Event[] buffer;
+    private long lastId;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Vagas de clientes, reservadas antes de conectar: o limite vale mesmo com subscribes simultâneos
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+
+    public DeletionEventService(ObjectMapper objectMapper, AzureDeletionConfig deletionConfig) {
+        this.objectMapper = objectMapper;
+        this.deletionConfig = deletionConfig;
+        this.buffer = new Event[Math.max(1, deletionConfig.getEventBufferSize())];
+        this.sender = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "deletion-events");
+            t.setDaemon(true);
+            return t;
+        });
+        this.deliveries = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "deletion-events-send");
+            t.setDaemon(true);
+            return t;
+        });
+        long heartbeat = deletionConfig.getEventHeartbeatInterval();
+        this.sender.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registra a transição e a envia para os clientes conectados (todos ou só os
+     * que filtram pela assinatura informada).
+     */
+    public void publish(String subscriptionId, Object payload) {
+        String json;
+        try {
+            // Serializado uma vez, independente do número de clientes
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Erro ao serializar evento de deleção: {}", e.getMessage());
+            return;
+        }
+        Event event;
+        synchronized (this) {
+            event = new Event(++lastId, EVENT_STATUS, json, subscriptionId);
+            buffer[(int) (event.id() % buffer.length)] = event;
+        }
+        sender.execute(() -> broadcast(event));
+    }
+
+    /**
+     * Abre um stream SSE. Com lastEventId dentro do buffer, reenvia só os eventos
+     * seguintes; senão envia o estado atual completo antes dos eventos ao vivo.
+     */
+    public SseEmitter subscribe(Long lastEventId, String subscriptionId, Supplier<?> snapshot) {
+        SseEmitter emitter = new SseEmitter(deletionConfig.getEventStreamTimeout());
+        if (subscriberSlots.incrementAndGet() > deletionConfig.getEventMaxSubscribers()) {
+            subscriberSlots.decrementAndGet();
+            // O cliente cai no polling de /api/deletion-status
+            emitter.completeWithError(new IllegalStateException("Limite de clientes SSE atingido"));
+            return emitter;
+        }
+        Subscriber subscriber = new Subscriber(new EmitterSink(emitter), subscriptionId);
+        emitter.onCompletion(() -> release(subscriber));
+        emitter.onTimeout(() -> release(subscriber));
+        emitter.onError(e -> release(subscriber));
+        sender.execute(() -> attach(subscriber, lastEventId, snapshot));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public synchronized long getLastEventId() {
+        return lastId;
+    }
+
+    Subscriber attachSink(Sink sink, Long lastEventId, String subscriptionId, Supplier<?> snapshot) {
+        subscriberSlots.incrementAndGet();
+        Subscriber subscriber = new Subscriber(sink, subscriptionId);
+        sender.execute(() -> attach(subscriber, lastEventId, snapshot));
+        return subscriber;
+    }
+
+    private void attach(Subscriber subscriber, Long lastEventId, Supplier<?> snapshot) {
+        List<Event> missed = eventsAfter(lastEventId);
+        try {
+            if (missed == null) {
+                long id;
+                synchronized (this) {
+                    id = lastId;
+                }
+                enqueue(subscriber, new Event(id, EVENT_SNAPSHOT, objectMapper.writeValueAsString(snapshot.get()), null));
+            } else {
+                subscriber.lastSentId = lastEventId;
+                for (Event event : missed) {
+                    enqueue(subscriber, event);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Erro ao serializar estado inicial do stream de deleção: {}", e.getMessage());
+            drop(subscriber);
+            return;
+        }
+        // Na thread de distribuição: nenhum evento ao vivo entra antes do replay
+        if (!subscriber.closed.get()) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    // null = o cliente precisa do estado completo (sem id ou id fora do buffer)
+    private synchronized List<Event> eventsAfter(Long lastEventId) {
+        if (lastEventId == null || lastEventId > lastId || lastId - lastEventId > buffer.length) {
+            return null;
+        }
+        List<Event> events = new ArrayList<>();
+        for (long id = lastEventId + 1; id <= lastId; id++) {
+            events.add(buffer[(int) (id % buffer.length)]);
+        }
+        return events;
+    }
+
+    private void broadcast(Event event) {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, event);
+        }
+    }
+
+    private void heartbeat() {
+        broadcast(HEARTBEAT);
+    }
+
+    // Não bloqueia: só põe o evento na fila do cliente e acorda o envio dele se estiver parado
+    private void enqueue(Subscriber subscriber, Event event) {
+        boolean overflow = false;
+        boolean start = false;
+        synchronized (subscriber) {
+            if (subscriber.closed.get() || (event == HEARTBEAT && !subscriber.pending.isEmpty())) {
+                return;
+            }
+            // Replay + estado inicial cabem; mais que isso o cliente recupera reconectando
+            if (subscriber.pending.size() > buffer.length) {
+                overflow = true;
+            } else {
+                subscriber.pending.add(event);
+                start = !subscriber.sending;
+                subscriber.sending = true;
+            }
+        }
+        if (overflow) {
+            log.warn("🐢 Cliente SSE de deleção desconectado: {} eventos sem envio", buffer.length);
+            drop(subscriber);
+        } else if (start) {
+            deliveries.execute(() -> deliver(subscriber));
+        }
+    }
+
+    // Uma execução por cliente de cada vez: a ordem da fila é a ordem de envio
+    private void deliver(Subscriber subscriber) {
+        while (true) {
+            Event event;
+            synchronized (subscriber) {
+                event = subscriber.pending.poll();
+                if (event == null) {
+                    subscriber.sending = false;
+                    return;
+                }
+            }
+            try {
+                subscriber.send(event);
+            } catch (IOException | IllegalStateException e) {
+                drop(subscriber);
+                return;
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (release(subscriber)) {
+            subscriber.sink.close();
+        }
+    }
+
+    // Libera a vaga uma única vez, venha de erro de envio ou dos callbacks do emitter
+    private boolean release(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.remove(subscriber);
+        subscriberSlots.decrementAndGet();
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("lastEventId", getLastEventId());
+        stats.put("bufferSize", buffer.length);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        deliveries.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.sink.close());
+        subscribers.clear();
+    }
+
+    record Event(long id, String name, String data, String subscriptionId) {}
+
+    /** Destino dos eventos de um cliente (SseEmitter em produção). */
+    interface Sink {
+        void send(Event event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    static final class Subscriber {
+        private final Sink sink;
+        // null = eventos de todas as assinaturas
+        private final String subscriptionId;
+        // Evita reenviar um evento que já saiu no replay
+        private long lastSentId = -1;
+        // Fila de envio protegida pelo próprio Subscriber; "sending" = há uma thread esvaziando a fila
+        private final ArrayDeque<Event> pending = new ArrayDeque<>();
+        private boolean sending;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(Sink sink, String subscriptionId) {
+            this.sink = sink;
+            this.subscriptionId = subscriptionId;
+        }
+
+        void send(Event event) throws IOException {
+            if (event == HEARTBEAT) {
+                sink.heartbeat();
+                return;
+            }
+            if (EVENT_STATUS.equals(event.name())) {
+                if (event.id() <= lastSentId
+                        || (subscriptionId != null && !subscriptionId.equals(event.subscriptionId()))) {
+                    return;
+                }
+            }
+            sink.send(event);
+            lastSentId = event.id();
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+        @Override
+        public void send(Event event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.id()))
+                    .name(event.name())
+                    .data(event.data()));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("ping"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
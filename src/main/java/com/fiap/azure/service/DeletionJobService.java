@@ -0,0 +1,336 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jobs de deleção: cada requisição de deleção em massa vira um job com
+ * contadores, tempo por grupo e ETA pela vazão observada. O id do job é o id
+ * do lote no DeletionSchedulerService. Jobs finalizados expiram após
+ * azure.deletion.job-retention; a limpeza acontece na criação, sem thread própria.
+ */
+@Slf4j
+@Service
+public class DeletionJobService {
+
+    public static final String PLANNING = "PLANNING";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String CANCELLED = "CANCELLED";
+    // Nenhum grupo chegou a ser enfileirado porque a listagem falhou
+    public static final String FAILED = "FAILED";
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AzureDeletionConfig deletionConfig;
+    private volatile long lastPruneAt;
+
+    // Histórico de duração das deleções concluídas (base para estimativas)
+    private final AtomicLong timedDeletions = new AtomicLong();
+    private final AtomicLong timedDeletionMs = new AtomicLong();
+
+    public DeletionJobService(AzureDeletionConfig deletionConfig) {
+        this.deletionConfig = deletionConfig;
+    }
+
+    public Job create(String description) {
+        prune();
+        Job job = new Job(UUID.randomUUID().toString(), description);
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    public Job get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Resumo dos jobs (sem os grupos), do mais recente para o mais antigo.
+     */
+    public List<Map<String, Object>> list() {
+        List<Job> snapshot = new ArrayList<>(jobs.values());
+        snapshot.sort(Comparator.comparingLong((Job job) -> job.createdAt).reversed());
+        List<Map<String, Object>> result = new ArrayList<>(snapshot.size());
+        for (Job job : snapshot) {
+            result.add(job.toView(false));
+        }
+        return result;
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Duração média de uma deleção bem-sucedida (início até o grupo sumir), ou null sem histórico.
+     */
+    public Long getAverageDeletionMs() {
+        long count = timedDeletions.get();
+        return count > 0 ? timedDeletionMs.get() / count : null;
+    }
+
+    public long getTimedDeletions() {
+        return timedDeletions.get();
+    }
+
+    public boolean isCancelled(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null && job.cancelled;
+    }
+
+    /**
+     * Marca o job como cancelado; quem remove a fila e interrompe o que está
+     * rodando é o DeletionSchedulerService. Job já finalizado não muda de estado.
+     */
+    boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.isActive()) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Recria um job do journal na inicialização, antes de reaplicar seus eventos.
+     */
+    void restore(String jobId) {
+        jobs.computeIfAbsent(jobId, id -> new Job(id, "Recuperado após reinício"));
+    }
+
+    void planningStarted(String jobId) {
+        Job job = job(jobId);
+        if (job != null) {
+            job.planning.incrementAndGet();
+        }
+    }
+
+    void planningFinished(String jobId) {
+        Job job = job(jobId);
+        if (job != null) {
+            job.touch().planning.decrementAndGet();
+        }
+    }
+
+    // Listagem dos grupos de uma assinatura falhou: nada dela foi enfileirado
+    void onPlanningFailed(String jobId, String subscriptionId, String message) {
+        Job job = job(jobId);
+        if (job != null) {
+            job.touch().planningErrors.put(subscriptionId, message != null ? message : "Erro desconhecido");
+        }
+    }
+
+    void onQueued(String jobId, String subscriptionId, Collection<String> groupNames) {
+        Job job = job(jobId);
+        if (job == null) {
+            return;
+        }
+        for (String groupName : groupNames) {
+            job.groups.put(key(subscriptionId, groupName), new GroupTiming(subscriptionId, groupName, "QUEUED", 0, 0, null));
+        }
+        job.touch().queued.addAndGet(groupNames.size());
+    }
+
+    void onStarted(String jobId, String subscriptionId, String groupName) {
+        Job job = job(jobId);
+        if (job == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (job.firstStartedAt == 0) {
+            job.firstStartedAt = now;
+        }
+        job.groups.put(key(subscriptionId, groupName), new GroupTiming(subscriptionId, groupName, "RUNNING", now, 0, null));
+        job.queued.decrementAndGet();
+        job.touch().inFlight.incrementAndGet();
+    }
+
+    /**
+     * Resultado de uma deleção que chegou a ser executada. Falha conta como
+     * falha mesmo com o job cancelado: a deleção já tinha sido enviada.
+     */
+    void onFinished(String jobId, String subscriptionId, String groupName, boolean success, String message) {
+        Job job = job(jobId);
+        if (job == null) {
+            return;
+        }
+        String state = success ? "COMPLETED" : "FAILED";
+        GroupTiming timing = job.groups.compute(key(subscriptionId, groupName), (k, current) -> new GroupTiming(
+                subscriptionId, groupName, state, current != null ? current.startedAt() : 0,
+                System.currentTimeMillis(), message));
+        if (success && timing.getDurationMs() != null) {
+            timedDeletions.incrementAndGet();
+            timedDeletionMs.addAndGet(timing.getDurationMs());
+        }
+        job.inFlight.decrementAndGet();
+        (success ? job.done : job.failed).incrementAndGet();
+        job.touch();
+    }
+
+    /** Grupo já iniciado que o cancelamento interrompeu antes de o Azure aceitar a deleção. */
+    void onCancelled(String jobId, String subscriptionId, String groupName, String message) {
+        Job job = job(jobId);
+        if (job == null) {
+            return;
+        }
+        job.groups.compute(key(subscriptionId, groupName), (k, current) -> new GroupTiming(subscriptionId, groupName,
+                "CANCELLED", current != null ? current.startedAt() : 0, System.currentTimeMillis(), message));
+        job.inFlight.decrementAndGet();
+        job.touch().skipped.incrementAndGet();
+    }
+
+    /** Grupo retirado da fila sem ter sido iniciado (cancelamento). */
+    void onSkipped(String jobId, String subscriptionId, String groupName) {
+        Job job = job(jobId);
+        if (job == null) {
+            return;
+        }
+        job.groups.put(key(subscriptionId, groupName), new GroupTiming(subscriptionId, groupName, "CANCELLED", 0,
+                System.currentTimeMillis(), "Deleção cancelada"));
+        job.queued.decrementAndGet();
+        job.touch().skipped.incrementAndGet();
+    }
+
+    // Job já removido pela limpeza (ou lote sem job): eventos atrasados são ignorados, não o recriam
+    private Job job(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            log.debug("Evento de deleção para job inexistente ignorado: {}", jobId);
+        }
+        return job;
+    }
+
+    private void prune() {
+        long now = System.currentTimeMillis();
+        int limit = deletionConfig.getJobMaxEntries();
+        if (jobs.size() < limit && now - lastPruneAt < 1000) {
+            return;
+        }
+        lastPruneAt = now;
+        long retention = deletionConfig.getJobRetention();
+        jobs.values().removeIf(job -> !job.isActive() && job.lastActivityAt + retention < now);
+        if (jobs.size() >= limit) {
+            // Ainda acima do limite: descarta os finalizados mais antigos
+            jobs.values().stream()
+                    .filter(job -> !job.isActive())
+                    .sorted(Comparator.comparingLong(job -> job.lastActivityAt))
+                    .limit(jobs.size() - limit + 1L)
+                    .toList()
+                    .forEach(job -> jobs.remove(job.id));
+        }
+    }
+
+    private static String key(String subscriptionId, String groupName) {
+        return subscriptionId + "/" + groupName.toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Job {
+        private final String id;
+        private final String description;
+        private final long createdAt = System.currentTimeMillis();
+        private final AtomicInteger planning = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final Map<String, GroupTiming> groups = new ConcurrentHashMap<>();
+        private final Map<String, String> planningErrors = new ConcurrentHashMap<>();
+        private volatile boolean cancelled;
+        private volatile long firstStartedAt;
+        private volatile long lastActivityAt = createdAt;
+
+        Job(String id, String description) {
+            this.id = id;
+            this.description = description;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isActive() {
+            return planning.get() > 0 || queued.get() > 0 || inFlight.get() > 0;
+        }
+
+        public String getState() {
+            if (isActive()) {
+                return planning.get() > 0 && queued.get() == 0 && inFlight.get() == 0 ? PLANNING : RUNNING;
+            }
+            if (cancelled) {
+                return CANCELLED;
+            }
+            return !planningErrors.isEmpty() && groups.isEmpty() ? FAILED : COMPLETED;
+        }
+
+        private Job touch() {
+            lastActivityAt = System.currentTimeMillis();
+            return this;
+        }
+
+        /**
+         * ETA = restantes / vazão desde o início da primeira deleção.
+         */
+        public Long getEtaMs() {
+            int finished = done.get() + failed.get();
+            int remaining = queued.get() + inFlight.get();
+            if (!isActive() || finished == 0 || firstStartedAt == 0) {
+                return null;
+            }
+            double perMs = finished / (double) Math.max(1, System.currentTimeMillis() - firstStartedAt);
+            return (long) (remaining / perMs);
+        }
+
+        public Map<String, Object> toView(boolean withGroups) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("id", id);
+            view.put("description", description);
+            view.put("state", getState());
+            view.put("cancelled", cancelled);
+            view.put("createdAt", createdAt);
+            view.put("queued", queued.get());
+            view.put("inFlight", inFlight.get());
+            view.put("done", done.get());
+            view.put("failed", failed.get());
+            view.put("skipped", skipped.get());
+            view.put("total", groups.size());
+            view.put("errors", new TreeMap<>(planningErrors));
+            view.put("etaMs", getEtaMs());
+            if (!isActive()) {
+                view.put("elapsedMs", lastActivityAt - createdAt);
+            }
+            if (withGroups) {
+                List<GroupTiming> timings = new ArrayList<>(groups.values());
+                timings.sort(Comparator.comparing(GroupTiming::subscriptionId).thenComparing(GroupTiming::groupName));
+                view.put("groups", timings);
+            }
+            return view;
+        }
+    }
+
+    public record GroupTiming(
+        String subscriptionId,
+        String groupName,
+        String state,
+        long startedAt,
+        long finishedAt,
+        String message
+    ) {
+        public Long getDurationMs() {
+            return startedAt > 0 && finishedAt > 0 ? finishedAt - startedAt : null;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureDeletionConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Journal append-only das deleções (uma linha JSON por evento). As requisições
+ * só enfileiram; uma thread grava os eventos acumulados de uma vez e faz um
+ * único fsync por lote. Na inicialização o último evento de cada grupo é
+ * recuperado, e o arquivo é compactado quando cresce demais.
+ */
+@Slf4j
+@Component
+public class DeletionJournal {
+
+    private static final int MAX_BATCH = 4096;
+    private static final long WRITE_RETRY_DELAY_MS = 1000L;
+
+    private final ObjectMapper objectMapper;
+    private final AzureDeletionConfig deletionConfig;
+    private final boolean enabled;
+    private final Path path;
+
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final Object durableLock = new Object();
+    private long durable;
+
+    // Último evento por grupo e total de linhas no arquivo; só a thread de escrita mexe depois da carga
+    private final Map<String, Entry> live = new LinkedHashMap<>();
+    private long entriesInFile;
+    private List<Entry> recovered = List.of();
+
+    private volatile FileChannel channel;
+    private volatile boolean running = true;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private Thread writer;
+
+    public DeletionJournal(ObjectMapper objectMapper, AzureDeletionConfig deletionConfig) {
+        this.objectMapper = objectMapper;
+        this.deletionConfig = deletionConfig;
+        this.path = Paths.get(deletionConfig.getJournalPath());
+        boolean opened = false;
+        if (deletionConfig.isJournalEnabled()) {
+            try {
+                load();
+                opened = true;
+            } catch (IOException e) {
+                log.error("❌ Journal de deleções indisponível ({}): {}", path, e.getMessage());
+            }
+        }
+        this.enabled = opened;
+        if (enabled) {
+            writer = new Thread(this::writeLoop, "deletion-journal");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public void queued(String batchId, String subscriptionId, String groupName) {
+        append(new Entry(Type.QUEUED, batchId, subscriptionId, groupName, null, System.currentTimeMillis()));
+    }
+
+    public void submitted(String batchId, String subscriptionId, String groupName) {
+        append(new Entry(Type.SUBMITTED, batchId, subscriptionId, groupName, null, System.currentTimeMillis()));
+    }
+
+    public void finished(String batchId, String subscriptionId, String groupName, boolean success, String message) {
+        append(new Entry(success ? Type.COMPLETED : Type.FAILED, batchId, subscriptionId, groupName, message,
+                System.currentTimeMillis()));
+    }
+
+    /**
+     * Não bloqueia: a serialização e o fsync ficam com a thread do journal.
+     */
+    void append(Entry entry) {
+        if (!enabled) {
+            return;
+        }
+        appended.incrementAndGet();
+        pending.add(entry);
+    }
+
+    /**
+     * Último evento de cada grupo lido do arquivo na inicialização, em ordem de chegada.
+     */
+    public List<Entry> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Espera até que tudo que foi enfileirado até agora esteja no disco.
+     */
+    public boolean awaitDurable(long timeoutMs) throws InterruptedException {
+        if (!enabled) {
+            return true;
+        }
+        long target = appended.get();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (durableLock) {
+            while (durable < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                durableLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("appended", appended.get());
+        synchronized (durableLock) {
+            stats.put("durable", durable);
+        }
+        stats.put("pending", pending.size());
+        stats.put("batches", batches.get());
+        stats.put("compactions", compactions.get());
+        return stats;
+    }
+
+    private void load() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        int skipped = 0;
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        track(objectMapper.readValue(line, Entry.class));
+                        entriesInFile++;
+                    } catch (IOException e) {
+                        // Linha incompleta de uma gravação interrompida
+                        skipped++;
+                    }
+                }
+            }
+        }
+        recovered = List.copyOf(live.values());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (entriesInFile > live.size() || skipped > 0) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Falha ao compactar journal de deleções: {}", e.getMessage());
+            }
+        }
+        log.info("📒 Journal de deleções: {} grupo(s) recuperado(s) de {} ({} linha(s) inválida(s))",
+                recovered.size(), path, skipped);
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        boolean retrying = false;
+        while (running || !pending.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = pending.poll(200, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, MAX_BATCH - 1);
+                }
+                write(batch, retrying);
+                retrying = false;
+                compactIfNeeded();
+                // Só depois do fsync: um lote que falhou não libera quem espera em awaitDurable
+                markDurable(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (IOException e) {
+                log.error("❌ Erro ao gravar journal de deleções: {}", e.getMessage());
+                if (!running) {
+                    log.error("❌ {} evento(s) do journal descartado(s) no encerramento", batch.size());
+                    return;
+                }
+                // O lote fica para a próxima tentativa: repetir um evento é inofensivo (vale o último por grupo)
+                retrying = true;
+                pauseBeforeRetry();
+                reopen();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch, boolean afterFailure) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(batch.size() * 160 + 1);
+        if (afterFailure) {
+            // Termina uma linha que a falha possa ter deixado pela metade
+            buffer.write('\n');
+        }
+        for (Entry entry : batch) {
+            buffer.write(objectMapper.writeValueAsBytes(entry));
+            buffer.write('\n');
+        }
+        writeFully(channel, buffer.toByteArray());
+        // Um fsync por lote, não por evento
+        channel.force(false);
+        batch.forEach(this::track);
+        batches.incrementAndGet();
+        entriesInFile += batch.size();
+    }
+
+    private void compactIfNeeded() {
+        int threshold = deletionConfig.getJournalCompactThreshold();
+        if (entriesInFile >= threshold && entriesInFile > 2L * live.size()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // O arquivo atual continua válido e aberto; tenta de novo no próximo lote
+                log.warn("Falha ao compactar journal de deleções: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reescreve só o último evento de cada grupo, descartando finalizados fora
+     * da retenção. O arquivo novo é escrito e aberto antes da troca: se algo
+     * falhar, o canal atual continua valendo.
+     */
+    private void compact() throws IOException {
+        long cutoff = System.currentTimeMillis()
+                - Math.max(deletionConfig.getStatusCompletedRetention(), deletionConfig.getStatusFailedRetention());
+        live.values().removeIf(entry -> entry.type().finished() && entry.timestamp() < cutoff);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(live.size() * 160);
+        for (Entry entry : live.values()) {
+            buffer.write(objectMapper.writeValueAsBytes(entry));
+            buffer.write('\n');
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel next = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        try {
+            writeFully(next, buffer.toByteArray());
+            next.force(true);
+            // O canal aberto acompanha o arquivo no rename; se cair antes daqui, o original continua intacto
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            closeQuietly(next);
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        FileChannel previous = channel;
+        channel = next;
+        closeQuietly(previous);
+        log.debug("Journal compactado: {} -> {} linha(s)", entriesInFile, live.size());
+        entriesInFile = live.size();
+        compactions.incrementAndGet();
+    }
+
+    private void reopen() {
+        FileChannel previous = channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            closeQuietly(previous);
+        } catch (IOException e) {
+            log.error("❌ Não foi possível reabrir o journal de deleções: {}", e.getMessage());
+        }
+    }
+
+    private void pauseBeforeRetry() {
+        try {
+            Thread.sleep(WRITE_RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(FileChannel target) {
+        try {
+            target.close();
+        } catch (IOException e) {
+            log.debug("Erro ao fechar journal: {}", e.getMessage());
+        }
+    }
+
+    private void track(Entry entry) {
+        String key = entry.subscriptionId() + "/" + entry.groupName().toLowerCase(Locale.ROOT);
+        // Remove antes para o grupo ir para o fim (ordem do último evento)
+        live.remove(key);
+        live.put(key, entry);
+    }
+
+    private void markDurable(int count) {
+        if (count == 0) {
+            return;
+        }
+        synchronized (durableLock) {
+            durable += count;
+            durableLock.notifyAll();
+        }
+    }
+
+    private static void writeFully(FileChannel target, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Erro ao fechar journal: {}", e.getMessage());
+        }
+    }
+
+    public enum Type {
+        QUEUED, SUBMITTED, COMPLETED, FAILED;
+
+        boolean finished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Entry(
+        Type type,
+        String batchId,
+        String subscriptionId,
+        String groupName,
+        String message,
+        long timestamp
+    ) {}
+}
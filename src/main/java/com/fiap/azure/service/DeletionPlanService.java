@@ -0,0 +1,210 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.util.GroupNameMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Planos de deleção (dry-run): o que seria deletado e preservado em cada
+ * assinatura, calculado a partir do inventário em memória, com a mesma regra
+ * de exclusão do "deletar tudo". Um plano pode ser executado pelo id, sem
+ * listar os grupos de novo, uma única vez e dentro de azure.deletion.plan-retention.
+ */
+@Slf4j
+@Service
+public class DeletionPlanService {
+
+    // jobId provisório enquanto a execução cria o job
+    private static final String CLAIMED = "";
+
+    private final InventorySnapshotService inventorySnapshotService;
+    private final ExclusionPolicyService exclusionPolicyService;
+    private final DeletionSchedulerService deletionSchedulerService;
+    private final DeletionJobService deletionJobService;
+    private final AzureDeletionConfig deletionConfig;
+
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    public DeletionPlanService(InventorySnapshotService inventorySnapshotService,
+                               ExclusionPolicyService exclusionPolicyService,
+                               DeletionSchedulerService deletionSchedulerService,
+                               DeletionJobService deletionJobService,
+                               AzureDeletionConfig deletionConfig) {
+        this.inventorySnapshotService = inventorySnapshotService;
+        this.exclusionPolicyService = exclusionPolicyService;
+        this.deletionSchedulerService = deletionSchedulerService;
+        this.deletionJobService = deletionJobService;
+        this.deletionConfig = deletionConfig;
+    }
+
+    /**
+     * @throws IllegalArgumentException política inexistente, modo desconhecido ou regex inválida
+     */
+    public Plan createPlan(List<String> subscriptionIds, List<String> excludePatterns, String matchMode,
+                           String policyName) {
+        GroupNameMatcher exclusions = exclusionPolicyService.matcherFor(policyName, excludePatterns, matchMode);
+        long start = System.currentTimeMillis();
+
+        List<SubscriptionPlan> subscriptions = new ArrayList<>(subscriptionIds.size());
+        for (String subscriptionId : subscriptionIds) {
+            subscriptions.add(planSubscription(subscriptionId, exclusions));
+        }
+
+        prune();
+        Plan plan = new Plan(UUID.randomUUID().toString(), System.currentTimeMillis(), policyName, matchMode,
+                excludePatterns, subscriptions, estimate(subscriptions));
+        plans.put(plan.id(), plan);
+        log.info("📝 Plano {} criado em {}ms: {} grupo(s) a deletar, {} preservado(s)", plan.id(),
+                System.currentTimeMillis() - start, plan.countToDelete(), plan.countPreserved());
+        return plan;
+    }
+
+    public Plan get(String planId) {
+        Plan plan = plans.get(planId);
+        return plan != null && !isExpired(plan) ? plan : null;
+    }
+
+    /**
+     * Enfileira os grupos do plano como um job.
+     *
+     * @throws IllegalArgumentException plano inexistente ou vencido
+     * @throws IllegalStateException plano já executado
+     */
+    public String execute(String planId) {
+        Plan plan = get(planId);
+        if (plan == null) {
+            throw new IllegalArgumentException("Plano não encontrado ou vencido: " + planId);
+        }
+        // Reserva o plano antes de criar o job: uma segunda execução não deixa job órfão
+        if (!plan.jobId.compareAndSet(null, CLAIMED)) {
+            String current = plan.jobId.get();
+            throw new IllegalStateException(CLAIMED.equals(current)
+                    ? "Plano já está sendo executado"
+                    : "Plano já executado pelo job " + current);
+        }
+        String jobId = deletionJobService.create("Executar plano " + planId).getId();
+        plan.jobId.set(jobId);
+        for (SubscriptionPlan subscription : plan.subscriptions()) {
+            List<String> groupNames = subscription.toDelete().stream().map(PlannedGroup::groupName).toList();
+            deletionSchedulerService.submit(jobId, subscription.subscriptionId(), groupNames);
+        }
+        log.info("🚀 Plano {} executado pelo job {} ({} grupo(s))", planId, jobId, plan.countToDelete());
+        return jobId;
+    }
+
+    private SubscriptionPlan planSubscription(String subscriptionId, GroupNameMatcher exclusions) {
+        List<PlannedGroup> toDelete = new ArrayList<>();
+        List<String> preserved = new ArrayList<>();
+        try {
+            for (ResourceGroup group : inventorySnapshotService.getResourceGroups(subscriptionId)) {
+                if (exclusions.matches(group.getName())) {
+                    preserved.add(group.getName());
+                } else {
+                    int resources = group.getResources() != null ? group.getResources().size() : 0;
+                    toDelete.add(new PlannedGroup(group.getName(), group.getLocation(), resources));
+                }
+            }
+        } catch (AzureCliException e) {
+            log.warn("Erro ao planejar assinatura {}: {}", subscriptionId, e.getMessage());
+            return new SubscriptionPlan(subscriptionId, List.of(), List.of(), null, e.getMessage());
+        }
+        return new SubscriptionPlan(subscriptionId, toDelete, preserved,
+                inventorySnapshotService.getAgeMs(subscriptionId), null);
+    }
+
+    // Sem --no-wait, cada assinatura deleta em ondas do tamanho da sua vaga; com --no-wait, tudo em paralelo no Azure
+    private Estimate estimate(List<SubscriptionPlan> subscriptions) {
+        Long average = deletionJobService.getAverageDeletionMs();
+        long perGroup = average != null ? average : deletionConfig.getPlanDefaultGroupDuration();
+        int parallelism = Math.max(1, Math.min(deletionConfig.getPerSubscriptionConcurrency(),
+                deletionConfig.getGlobalConcurrency()));
+        long longest = 0;
+        for (SubscriptionPlan subscription : subscriptions) {
+            int groups = subscription.toDelete().size();
+            if (groups == 0) {
+                continue;
+            }
+            long waves = deletionConfig.isNoWait() ? 1 : (groups + parallelism - 1) / parallelism;
+            longest = Math.max(longest, waves * perGroup);
+        }
+        return new Estimate(longest, perGroup, deletionJobService.getTimedDeletions());
+    }
+
+    private boolean isExpired(Plan plan) {
+        return System.currentTimeMillis() - plan.createdAt() > deletionConfig.getPlanRetention();
+    }
+
+    private void prune() {
+        plans.values().removeIf(this::isExpired);
+    }
+
+    public record PlannedGroup(String groupName, String location, int resourceCount) {}
+
+    public record SubscriptionPlan(
+        String subscriptionId,
+        List<PlannedGroup> toDelete,
+        List<String> preserved,
+        Long inventoryAgeMs,
+        String error
+    ) {}
+
+    public record Estimate(long durationMs, long perGroupMs, long historySamples) {}
+
+    public record Plan(
+        String id,
+        long createdAt,
+        String policyName,
+        String matchMode,
+        List<String> excludePatterns,
+        List<SubscriptionPlan> subscriptions,
+        Estimate estimate,
+        AtomicReference<String> jobId
+    ) {
+        Plan(String id, long createdAt, String policyName, String matchMode, List<String> excludePatterns,
+             List<SubscriptionPlan> subscriptions, Estimate estimate) {
+            this(id, createdAt, policyName, matchMode, excludePatterns, subscriptions, estimate,
+                    new AtomicReference<>());
+        }
+
+        public int countToDelete() {
+            return subscriptions.stream().mapToInt(s -> s.toDelete().size()).sum();
+        }
+
+        public int countPreserved() {
+            return subscriptions.stream().mapToInt(s -> s.preserved().size()).sum();
+        }
+
+        public Map<String, Object> toView() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("id", id);
+            view.put("createdAt", createdAt);
+            view.put("policyName", policyName);
+            view.put("matchMode", matchMode);
+            view.put("excludePatterns", excludePatterns);
+            view.put("toDelete", countToDelete());
+            view.put("preserved", countPreserved());
+            view.put("resources", subscriptions.stream()
+                    .flatMap(s -> s.toDelete().stream())
+                    .mapToInt(PlannedGroup::resourceCount)
+                    .sum());
+            view.put("estimatedDurationMs", estimate.durationMs());
+            view.put("estimatedGroupDurationMs", estimate.perGroupMs());
+            view.put("estimateSamples", estimate.historySamples());
+            String job = jobId.get();
+            view.put("jobId", CLAIMED.equals(job) ? null : job);
+            view.put("subscriptions", subscriptions);
+            return view;
+        }
+    }
+}
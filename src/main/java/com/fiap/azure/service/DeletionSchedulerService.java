@@ -0,0 +1,511 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.util.AzureCallGate;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Fila de deleções com pool próprio (fora do ForkJoinPool comum), limite global
+ * e por assinatura, e rodízio entre requisições para que um "deletar tudo" não
+ * bloqueie uma deleção individual feita depois.
+ */
+@Slf4j
+@Service
+public class DeletionSchedulerService {
+
+    private static final String CANCELLED_MESSAGE = "Deleção cancelada";
+    private static final String DELETING_STATE = "Deleting";
+
+    private final AzureCliService azureCliService;
+    private final DeletionStatusService deletionStatusService;
+    private final AzureDeletionConfig deletionConfig;
+    private final DeletionJournal journal;
+    private final DeletionJobService jobService;
+
+    private final ExecutorService workers;
+    private final ExecutorService planner;
+    private final ScheduledExecutorService poller;
+
+    // Estado da fila, protegido por "this"
+    private final Deque<Batch> batches = new ArrayDeque<>();
+    private final Map<String, Integer> inFlightBySubscription = new HashMap<>();
+    private int queued;
+    private int inFlight;
+
+    // Deleções aceitas pelo Azure (--no-wait); não ocupam vaga, só são acompanhadas
+    private final Map<DeletionTask, Awaiting> awaitingCompletion = new ConcurrentHashMap<>();
+    private final Set<String> pollingSubscriptions = ConcurrentHashMap.newKeySet();
+    // Thread executando cada deleção, para o cancelamento interromper o processo az
+    private final Map<DeletionTask, Thread> running = new ConcurrentHashMap<>();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public DeletionSchedulerService(AzureCliService azureCliService,
+                                    DeletionStatusService deletionStatusService,
+                                    AzureDeletionConfig deletionConfig,
+                                    DeletionJournal journal,
+                                    DeletionJobService jobService) {
+        this.azureCliService = azureCliService;
+        this.deletionStatusService = deletionStatusService;
+        this.deletionConfig = deletionConfig;
+        this.journal = journal;
+        this.jobService = jobService;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, deletionConfig.getGlobalConcurrency()),
+                daemonThreads("deletion-worker"));
+        this.planner = Executors.newSingleThreadExecutor(daemonThreads("deletion-planner"));
+        this.poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("deletion-poller"));
+        this.poller.scheduleWithFixedDelay(this::pollCompletions,
+                deletionConfig.getPollInterval(), deletionConfig.getPollInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enfileira a deleção dos grupos informados, marcando-os como "deletando".
+     */
+    public void submit(String batchId, String subscriptionId, Collection<String> groupNames) {
+        if (groupNames.isEmpty()) {
+            return;
+        }
+        if (jobService.isCancelled(batchId)) {
+            log.info("⏹️ Job {} cancelado: {} grupo(s) da assinatura {} ignorado(s)", batchId, groupNames.size(), subscriptionId);
+            return;
+        }
+        for (String groupName : groupNames) {
+            journal.queued(batchId, subscriptionId, groupName);
+        }
+        enqueue(batchId, subscriptionId, groupNames);
+    }
+
+    private void enqueue(String batchId, String subscriptionId, Collection<String> groupNames) {
+        jobService.onQueued(batchId, subscriptionId, groupNames);
+        for (String groupName : groupNames) {
+            deletionStatusService.markAsDeleting(groupName, subscriptionId);
+        }
+        synchronized (this) {
+            Batch batch = findBatch(batchId);
+            if (batch == null) {
+                batch = new Batch(batchId);
+                batches.addLast(batch);
+            }
+            for (String groupName : groupNames) {
+                batch.add(new DeletionTask(batchId, subscriptionId, groupName));
+            }
+            queued += groupNames.size();
+        }
+        log.info("📥 {} grupo(s) da assinatura {} na fila (lote {})", groupNames.size(), subscriptionId, batchId);
+        dispatch();
+    }
+
+    /**
+     * Lista os grupos fora da thread da requisição e enfileira o resultado.
+     */
+    public void submitListed(String batchId, String subscriptionId, GroupLister lister) {
+        jobService.planningStarted(batchId);
+        planner.execute(() -> {
+            try {
+                if (!jobService.isCancelled(batchId)) {
+                    submit(batchId, subscriptionId, lister.list());
+                }
+            } catch (Exception e) {
+                log.warn("Erro ao listar grupos da assinatura {} para deleção: {}", subscriptionId, e.getMessage());
+                jobService.onPlanningFailed(batchId, subscriptionId, e.getMessage());
+            } finally {
+                jobService.planningFinished(batchId);
+            }
+        });
+    }
+
+    /**
+     * Cancela o job: retira da fila o que ainda não começou e interrompe os
+     * comandos az em execução. Deleções já aceitas pelo Azure (--no-wait)
+     * não têm como ser desfeitas e continuam sendo acompanhadas.
+     */
+    public boolean cancel(String batchId) {
+        if (!jobService.cancel(batchId)) {
+            return false;
+        }
+        List<DeletionTask> dropped = new ArrayList<>();
+        synchronized (this) {
+            Batch batch = findBatch(batchId);
+            if (batch != null) {
+                batches.remove(batch);
+                batch.drainTo(dropped);
+                queued -= dropped.size();
+            }
+        }
+        for (DeletionTask task : dropped) {
+            journal.finished(task.batchId(), task.subscriptionId(), task.groupName(), false, CANCELLED_MESSAGE);
+            deletionStatusService.markAsCompleted(task.groupName(), task.subscriptionId(), false, CANCELLED_MESSAGE);
+            jobService.onSkipped(task.batchId(), task.subscriptionId(), task.groupName());
+        }
+        int interrupted = 0;
+        for (DeletionTask task : running.keySet()) {
+            if (task.batchId().equals(batchId)
+                    && running.computeIfPresent(task, (k, thread) -> { thread.interrupt(); return thread; }) != null) {
+                interrupted++;
+            }
+        }
+        log.info("⏹️ Job {} cancelado: {} grupo(s) retirado(s) da fila, {} comando(s) interrompido(s)",
+                batchId, dropped.size(), interrupted);
+        return true;
+    }
+
+    /**
+     * Retoma o que ficou pela metade antes de um reinício: grupos na fila voltam
+     * para a fila, deleções já enviadas voltam para o polling e status recentes
+     * reaparecem no dashboard.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<DeletionJournal.Entry> entries = journal.getRecovered();
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<List<String>, List<String>> toEnqueue = new LinkedHashMap<>();
+        int resumed = 0;
+        long now = System.currentTimeMillis();
+        for (DeletionJournal.Entry entry : entries) {
+            if (!entry.type().finished()) {
+                jobService.restore(entry.batchId());
+            }
+            switch (entry.type()) {
+                case QUEUED -> toEnqueue.computeIfAbsent(List.of(entry.batchId(), entry.subscriptionId()),
+                        k -> new ArrayList<>()).add(entry.groupName());
+                case SUBMITTED -> {
+                    deletionStatusService.markAsDeleting(entry.groupName(), entry.subscriptionId());
+                    jobService.onQueued(entry.batchId(), entry.subscriptionId(), List.of(entry.groupName()));
+                    jobService.onStarted(entry.batchId(), entry.subscriptionId(), entry.groupName());
+                    awaitingCompletion.put(new DeletionTask(entry.batchId(), entry.subscriptionId(), entry.groupName()),
+                            new Awaiting(entry.timestamp()));
+                    resumed++;
+                }
+                case COMPLETED, FAILED -> {
+                    boolean success = entry.type() == DeletionJournal.Type.COMPLETED;
+                    long retention = success
+                            ? deletionConfig.getStatusCompletedRetention()
+                            : deletionConfig.getStatusFailedRetention();
+                    if (entry.timestamp() + retention > now) {
+                        deletionStatusService.markAsDeleting(entry.groupName(), entry.subscriptionId());
+                        deletionStatusService.markAsCompleted(entry.groupName(), entry.subscriptionId(),
+                                success, entry.message());
+                    }
+                }
+            }
+        }
+        toEnqueue.forEach((key, groups) -> enqueue(key.get(0), key.get(1), groups));
+        log.info("♻️ Journal reaplicado: {} grupo(s) de volta à fila, {} em acompanhamento",
+                toEnqueue.values().stream().mapToInt(List::size).sum(), resumed);
+    }
+
+    public synchronized boolean hasPendingWork() {
+        return queued > 0 || inFlight > 0 || !awaitingCompletion.isEmpty();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued);
+        stats.put("inFlight", inFlight);
+        stats.put("awaitingCompletion", awaitingCompletion.size());
+        stats.put("inFlightBySubscription", Map.copyOf(inFlightBySubscription));
+        stats.put("batches", batches.size());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("journal", journal.getStats());
+        return stats;
+    }
+
+    private synchronized void dispatch() {
+        while (inFlight < deletionConfig.getGlobalConcurrency()) {
+            DeletionTask task = nextEligibleTask();
+            if (task == null) {
+                return;
+            }
+            queued--;
+            inFlight++;
+            inFlightBySubscription.merge(task.subscriptionId(), 1, Integer::sum);
+            workers.execute(() -> start(task));
+        }
+    }
+
+    // Rodízio entre lotes (requisições) e, dentro do lote, entre assinaturas
+    private DeletionTask nextEligibleTask() {
+        int size = batches.size();
+        for (int i = 0; i < size; i++) {
+            Batch batch = batches.pollFirst();
+            DeletionTask task = batch.pollEligible(this::hasSubscriptionSlot);
+            if (!batch.isEmpty()) {
+                batches.addLast(batch);
+            }
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasSubscriptionSlot(String subscriptionId) {
+        return inFlightBySubscription.getOrDefault(subscriptionId, 0) < deletionConfig.getPerSubscriptionConcurrency();
+    }
+
+    private Batch findBatch(String batchId) {
+        for (Batch batch : batches) {
+            if (batch.id.equals(batchId)) {
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    private void start(DeletionTask task) {
+        jobService.onStarted(task.batchId(), task.subscriptionId(), task.groupName());
+        if (jobService.isCancelled(task.batchId())) {
+            finish(task, false, true, CANCELLED_MESSAGE);
+            return;
+        }
+        running.put(task, Thread.currentThread());
+        boolean submitted = false;
+        try {
+            if (deletionConfig.isNoWait()) {
+                azureCliService.submitResourceGroupDeletion(task.groupName(), task.subscriptionId());
+                journal.submitted(task.batchId(), task.subscriptionId(), task.groupName());
+                awaitingCompletion.put(task, new Awaiting(System.currentTimeMillis()));
+                submitted = true;
+                log.info("🚀 Deleção enviada: {}", task.groupName());
+            } else {
+                azureCliService.deleteResourceGroup(task.groupName(), task.subscriptionId());
+                finish(task, true, false, "Deletado com sucesso");
+            }
+        } catch (Exception e) {
+            // Só é cancelamento se o comando foi interrompido; erro do Azure continua sendo falha
+            boolean cancelled = jobService.isCancelled(task.batchId()) && isInterruption(e);
+            finish(task, false, cancelled, cancelled ? CANCELLED_MESSAGE : e.getMessage());
+        } finally {
+            running.remove(task);
+            // Um cancelamento que chegou no fim não pode vazar para a próxima tarefa da thread
+            Thread.interrupted();
+        }
+        if (submitted) {
+            // O Azure segue deletando sozinho: a vaga já pode ir para o próximo grupo.
+            // Fora do try: uma falha no dispatch não pode liberar a vaga de novo nem marcar a tarefa como falha
+            releaseSlot(task);
+            dispatch();
+        }
+    }
+
+    private void pollCompletions() {
+        Map<String, List<DeletionTask>> bySubscription = new HashMap<>();
+        for (DeletionTask task : awaitingCompletion.keySet()) {
+            bySubscription.computeIfAbsent(task.subscriptionId(), k -> new ArrayList<>()).add(task);
+        }
+        bySubscription.forEach((subscriptionId, tasks) -> {
+            // Uma verificação por assinatura de cada vez
+            if (pollingSubscriptions.add(subscriptionId)) {
+                workers.execute(() -> {
+                    try {
+                        checkSubscription(subscriptionId, tasks);
+                    } finally {
+                        pollingSubscriptions.remove(subscriptionId);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Um único "az group list" por assinatura, comparado com os grupos aguardando:
+     * o que sumiu foi deletado; o que passou por "Deleting" e voltou a outro
+     * estado falhou no Azure.
+     */
+    void checkSubscription(String subscriptionId, List<DeletionTask> tasks) {
+        // null = listagem falhou; o prazo das deleções continua valendo mesmo assim
+        Map<String, String> states = new HashMap<>();
+        try {
+            for (ResourceGroup group : AzureCallGate.inBackgroundLane(
+                    () -> azureCliService.refreshResourceGroups(subscriptionId))) {
+                states.put(group.getName().toLowerCase(Locale.ROOT), group.getProvisioningState());
+            }
+        } catch (AzureCliException e) {
+            log.debug("Erro ao verificar grupos da assinatura {}: {}", subscriptionId, e.getMessage());
+            states = null;
+        }
+
+        List<DeletionTask> deleted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (DeletionTask task : tasks) {
+            Awaiting awaiting = awaitingCompletion.get(task);
+            if (awaiting == null) {
+                continue;
+            }
+            if (states != null) {
+                String state = states.get(task.groupName().toLowerCase(Locale.ROOT));
+                if (state == null) {
+                    if (awaitingCompletion.remove(task) != null) {
+                        deleted.add(task);
+                    }
+                    continue;
+                }
+                if (DELETING_STATE.equalsIgnoreCase(state)) {
+                    awaiting.seenDeleting = true;
+                } else if (awaiting.seenDeleting) {
+                    if (awaitingCompletion.remove(task) != null) {
+                        complete(subscriptionId, List.of(task), false, false,
+                                "Deleção falhou no Azure (estado: " + state + ")");
+                    }
+                    continue;
+                }
+            }
+            // Vale para grupo preso em "Deleting", nunca visto deletando ou assinatura que não lista
+            if (now - awaiting.submittedAt > deletionConfig.getPollTimeout()
+                    && awaitingCompletion.remove(task) != null) {
+                complete(subscriptionId, List.of(task), false, false,
+                        "Deleção não concluída em " + deletionConfig.getPollTimeout() + "ms");
+            }
+        }
+        if (!deleted.isEmpty()) {
+            complete(subscriptionId, deleted, true, false, "Deletado com sucesso");
+        }
+    }
+
+    // Tarefa que ainda ocupa vaga (execução síncrona, falha ou cancelamento antes do envio)
+    private void finish(DeletionTask task, boolean success, boolean cancelled, String message) {
+        // Vaga liberada antes de contabilizar: "completed" nunca inclui tarefa ainda ocupando vaga
+        releaseSlot(task);
+        complete(task.subscriptionId(), List.of(task), success, cancelled, message);
+        dispatch();
+    }
+
+    private void complete(String subscriptionId, List<DeletionTask> tasks, boolean success, boolean cancelled,
+                          String message) {
+        List<String> groupNames = new ArrayList<>(tasks.size());
+        for (DeletionTask task : tasks) {
+            journal.finished(task.batchId(), task.subscriptionId(), task.groupName(), success, message);
+            if (cancelled) {
+                jobService.onCancelled(task.batchId(), task.subscriptionId(), task.groupName(), message);
+            } else {
+                jobService.onFinished(task.batchId(), task.subscriptionId(), task.groupName(), success, message);
+            }
+            groupNames.add(task.groupName());
+        }
+        deletionStatusService.markAllAsCompleted(subscriptionId, groupNames, success, message);
+        if (success) {
+            completed.addAndGet(tasks.size());
+            log.info("✅ {} grupo(s) deletado(s) em background na assinatura {}: {}",
+                    tasks.size(), subscriptionId, groupNames);
+        } else {
+            failed.addAndGet(tasks.size());
+            log.error("❌ Erro ao deletar grupo(s) em background: {} ({})", groupNames, message);
+        }
+    }
+
+    private static boolean isInterruption(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return Thread.currentThread().isInterrupted();
+    }
+
+    private synchronized void releaseSlot(DeletionTask task) {
+        inFlight--;
+        inFlightBySubscription.computeIfPresent(task.subscriptionId(), (k, v) -> v > 1 ? v - 1 : null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        planner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + sequence.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @FunctionalInterface
+    public interface GroupLister {
+        Collection<String> list() throws AzureCliException;
+    }
+
+    private static final class Awaiting {
+        final long submittedAt;
+        volatile boolean seenDeleting;
+
+        Awaiting(long submittedAt) {
+            this.submittedAt = submittedAt;
+        }
+    }
+
+    record DeletionTask(String batchId, String subscriptionId, String groupName) {}
+
+    private static final class Batch {
+        final String id;
+        final Map<String, Deque<DeletionTask>> bySubscription = new LinkedHashMap<>();
+
+        Batch(String id) {
+            this.id = id;
+        }
+
+        void add(DeletionTask task) {
+            bySubscription.computeIfAbsent(task.subscriptionId(), k -> new ArrayDeque<>()).addLast(task);
+        }
+
+        DeletionTask pollEligible(Predicate<String> hasSlot) {
+            Iterator<Map.Entry<String, Deque<DeletionTask>>> it = bySubscription.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Deque<DeletionTask>> entry = it.next();
+                if (!hasSlot.test(entry.getKey())) {
+                    continue;
+                }
+                DeletionTask task = entry.getValue().pollFirst();
+                it.remove();
+                if (!entry.getValue().isEmpty()) {
+                    // Assinatura vai para o fim, alternando entre assinaturas do mesmo lote
+                    bySubscription.put(entry.getKey(), entry.getValue());
+                }
+                return task;
+            }
+            return null;
+        }
+
+        boolean isEmpty() {
+            return bySubscription.isEmpty();
+        }
+
+        void drainTo(List<DeletionTask> target) {
+            bySubscription.values().forEach(target::addAll);
+            bySubscription.clear();
+        }
+    }
+}
@@ -1,77 +1,306 @@
 package com.fiap.azure.service;
 
+import com.fiap.azure.config.AzureDeletionConfig;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Status das deleções, por (assinatura, grupo). Índices por assinatura e por
+ * estado permitem buscar "grupos deletando na assinatura X" sem percorrer tudo.
+ * Escritas são serializadas (mapa + índices mudam juntos); leituras não bloqueiam.
+ */
 @Slf4j
 @Service
 public class DeletionStatusService {
 
-    private final Map<String, DeletionStatus> statusMap = new ConcurrentHashMap<>();
+    public static final String DELETING = "DELETING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final Map<StatusKey, DeletionStatus> statusMap = new ConcurrentHashMap<>();
+    // assinatura -> estado -> chaves
+    private final Map<String, Map<String, Set<StatusKey>>> bySubscription = new ConcurrentHashMap<>();
+    private final Map<String, Set<StatusKey>> byState = new ConcurrentHashMap<>();
+
+    private final DeletionEventService deletionEventService;
+    private final AzureDeletionConfig deletionConfig;
+
+    // Entradas finalizadas em ordem de expiração (mesma retenção = fila FIFO)
+    private final Queue<Expiry> completedExpiries = new ConcurrentLinkedQueue<>();
+    private final Queue<Expiry> failedExpiries = new ConcurrentLinkedQueue<>();
+    // Uma única thread remove as entradas vencidas, em vez de uma thread por deleção
+    private final ScheduledExecutorService sweeper;
+
+    public DeletionStatusService(DeletionEventService deletionEventService, AzureDeletionConfig deletionConfig) {
+        this.deletionEventService = deletionEventService;
+        this.deletionConfig = deletionConfig;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "deletion-status-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = deletionConfig.getStatusSweepInterval();
+        this.sweeper.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
 
     public void markAsDeleting(String groupName, String subscriptionId) {
-        statusMap.put(groupName, new DeletionStatus(
+        DeletionStatus status = new DeletionStatus(
             groupName,
             subscriptionId,
-            "DELETING",
+            DELETING,
             null,
             LocalDateTime.now()
-        ));
+        );
+        synchronized (this) {
+            put(StatusKey.of(subscriptionId, groupName), status);
+            enforceLimit();
+        }
+        deletionEventService.publish(subscriptionId, status);
         log.info("📌 Marcado como deletando: {}", groupName);
     }
 
-    public void markAsCompleted(String groupName, boolean success, String message) {
-        DeletionStatus current = statusMap.get(groupName);
-        if (current != null) {
-            statusMap.put(groupName, new DeletionStatus(
-                groupName,
-                current.subscriptionId(),
-                success ? "COMPLETED" : "FAILED",
-                message,
-                current.startedAt()
-            ));
-        }
-        log.info("📌 Status atualizado: {} -> {}", groupName, success ? "COMPLETED" : "FAILED");
-        
-        // Remove após 30 segundos se completado
-        if (success) {
-            new Thread(() -> {
-                try {
-                    Thread.sleep(30000);
-                    statusMap.remove(groupName);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+    public void markAsCompleted(String groupName, String subscriptionId, boolean success, String message) {
+        DeletionStatus status;
+        synchronized (this) {
+            status = complete(StatusKey.of(subscriptionId, groupName), success, message);
+            if (status == null) {
+                return;
+            }
+            enforceLimit();
+        }
+        deletionEventService.publish(subscriptionId, status);
+        log.info("📌 Status atualizado: {} -> {}", groupName, status.status());
+    }
+
+    /**
+     * Finaliza vários grupos da assinatura de uma vez (resultado de uma única verificação).
+     */
+    public void markAllAsCompleted(String subscriptionId, Collection<String> groupNames, boolean success, String message) {
+        List<DeletionStatus> updated = new ArrayList<>(groupNames.size());
+        synchronized (this) {
+            for (String groupName : groupNames) {
+                DeletionStatus status = complete(StatusKey.of(subscriptionId, groupName), success, message);
+                if (status != null) {
+                    updated.add(status);
                 }
-            }).start();
+            }
+            enforceLimit();
         }
+        for (DeletionStatus status : updated) {
+            deletionEventService.publish(subscriptionId, status);
+        }
+        log.info("📌 {} status atualizado(s) na assinatura {} -> {}", updated.size(), subscriptionId,
+                success ? COMPLETED : FAILED);
+    }
+
+    // Chamadores seguram o lock de "this"
+    private DeletionStatus complete(StatusKey key, boolean success, String message) {
+        DeletionStatus current = statusMap.get(key);
+        if (current == null) {
+            return null;
+        }
+        DeletionStatus status = new DeletionStatus(
+            current.groupName(),
+            current.subscriptionId(),
+            success ? COMPLETED : FAILED,
+            message,
+            current.startedAt()
+        );
+        put(key, status);
+
+        long retention = success
+                ? deletionConfig.getStatusCompletedRetention()
+                : deletionConfig.getStatusFailedRetention();
+        (success ? completedExpiries : failedExpiries)
+                .add(new Expiry(key, status, System.currentTimeMillis() + retention));
+        return status;
     }
 
-    public DeletionStatus getStatus(String groupName) {
-        return statusMap.get(groupName);
+    public DeletionStatus getStatus(String subscriptionId, String groupName) {
+        return statusMap.get(StatusKey.of(subscriptionId, groupName));
     }
 
+    /**
+     * Status de um grupo em qualquer assinatura (o mesmo nome pode existir em várias).
+     */
+    public List<DeletionStatus> findByGroupName(String groupName) {
+        List<DeletionStatus> result = new ArrayList<>();
+        String normalized = groupName.toLowerCase(Locale.ROOT);
+        statusMap.forEach((key, status) -> {
+            if (key.groupName().equals(normalized)) {
+                result.add(status);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Todos os status, com chave "assinatura/grupo".
+     */
     public Map<String, DeletionStatus> getAllStatus() {
-        return Map.copyOf(statusMap);
+        Map<String, DeletionStatus> result = new LinkedHashMap<>();
+        statusMap.forEach((key, status) -> result.put(key.toString(), status));
+        return result;
+    }
+
+    public Map<String, DeletionStatus> getAllStatus(String subscriptionId) {
+        if (subscriptionId == null || subscriptionId.isEmpty()) {
+            return getAllStatus();
+        }
+        Map<String, DeletionStatus> result = new LinkedHashMap<>();
+        Map<String, Set<StatusKey>> states = bySubscription.get(subscriptionId);
+        if (states != null) {
+            states.values().forEach(keys -> keys.forEach(key -> {
+                DeletionStatus status = statusMap.get(key);
+                if (status != null) {
+                    result.put(key.toString(), status);
+                }
+            }));
+        }
+        return result;
     }
 
-    public Set<String> getDeletingGroups() {
-        return statusMap.entrySet().stream()
-            .filter(e -> "DELETING".equals(e.getValue().status()))
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toSet());
+    /**
+     * Nomes dos grupos em deleção na assinatura, direto do índice.
+     */
+    public Set<String> getDeletingGroups(String subscriptionId) {
+        Map<String, Set<StatusKey>> states = bySubscription.get(subscriptionId);
+        Set<StatusKey> keys = states != null ? states.get(DELETING) : null;
+        if (keys == null) {
+            return Set.of();
+        }
+        Set<String> names = new HashSet<>();
+        for (StatusKey key : keys) {
+            DeletionStatus status = statusMap.get(key);
+            if (status != null) {
+                names.add(status.groupName());
+            }
+        }
+        return names;
+    }
+
+    public int countByState(String state) {
+        Set<StatusKey> keys = byState.get(state);
+        return keys != null ? keys.size() : 0;
     }
 
-    public boolean isDeleting(String groupName) {
-        DeletionStatus status = statusMap.get(groupName);
-        return status != null && "DELETING".equals(status.status());
+    public boolean isDeleting(String subscriptionId, String groupName) {
+        DeletionStatus status = getStatus(subscriptionId, groupName);
+        return status != null && DELETING.equals(status.status());
     }
 
+    public int size() {
+        return statusMap.size();
+    }
+
+    void removeExpired() {
+        long now = System.currentTimeMillis();
+        drain(completedExpiries, now);
+        drain(failedExpiries, now);
+    }
+
+    private void drain(Queue<Expiry> expiries, long now) {
+        Expiry head;
+        while ((head = expiries.peek()) != null && head.expiresAt() <= now) {
+            if (expiries.remove(head)) {
+                synchronized (this) {
+                    remove(head);
+                }
+            }
+        }
+    }
+
+    // Acima do limite, descarta as entradas finalizadas mais antigas (as em andamento ficam)
+    private void enforceLimit() {
+        int limit = deletionConfig.getStatusMaxEntries();
+        while (statusMap.size() > limit) {
+            Expiry oldest = completedExpiries.poll();
+            if (oldest == null) {
+                oldest = failedExpiries.poll();
+            }
+            if (oldest == null) {
+                return;
+            }
+            remove(oldest);
+        }
+    }
+
+    // Chamadores seguram o lock de "this"
+    private void put(StatusKey key, DeletionStatus status) {
+        DeletionStatus previous = statusMap.put(key, status);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        bySubscription.computeIfAbsent(key.subscriptionId(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(status.status(), k -> ConcurrentHashMap.newKeySet())
+                .add(key);
+        byState.computeIfAbsent(status.status(), k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void remove(Expiry expiry) {
+        // Só remove se o grupo não foi marcado de novo depois (ex.: nova tentativa de deleção)
+        if (statusMap.get(expiry.key()) == expiry.status()) {
+            statusMap.remove(expiry.key());
+            unindex(expiry.key(), expiry.status());
+        }
+    }
+
+    private void unindex(StatusKey key, DeletionStatus status) {
+        Map<String, Set<StatusKey>> states = bySubscription.get(key.subscriptionId());
+        if (states != null) {
+            Set<StatusKey> keys = states.get(status.status());
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    states.remove(status.status());
+                }
+            }
+            if (states.isEmpty()) {
+                bySubscription.remove(key.subscriptionId());
+            }
+        }
+        Set<StatusKey> stateKeys = byState.get(status.status());
+        if (stateKeys != null) {
+            stateKeys.remove(key);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /** Nomes de grupos no Azure não diferenciam maiúsculas. */
+    record StatusKey(String subscriptionId, String groupName) {
+        static StatusKey of(String subscriptionId, String groupName) {
+            return new StatusKey(subscriptionId, groupName.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public String toString() {
+            return subscriptionId + "/" + groupName;
+        }
+    }
+
+    private record Expiry(StatusKey key, DeletionStatus status, long expiresAt) {}
+
     public record DeletionStatus(
         String groupName,
         String subscriptionId,
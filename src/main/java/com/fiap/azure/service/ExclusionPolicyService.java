@@ -0,0 +1,146 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.util.GroupNameMatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Políticas de exclusão nomeadas (ex.: "grupos-da-infra"), compiladas uma vez
+ * ao salvar e reutilizadas em cada deleção em massa. Com
+ * azure.deletion.exclusion-policies-path definido, são gravadas em arquivo.
+ */
+@Slf4j
+@Service
+public class ExclusionPolicyService {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final Map<String, CompiledPolicy> policies = new ConcurrentHashMap<>();
+
+    public ExclusionPolicyService(ObjectMapper objectMapper, AzureDeletionConfig deletionConfig) {
+        this.objectMapper = objectMapper;
+        String configured = deletionConfig.getExclusionPoliciesPath();
+        this.path = configured != null && !configured.isBlank() ? Paths.get(configured) : null;
+        load();
+    }
+
+    public List<ExclusionPolicy> list() {
+        return policies.values().stream()
+                .map(CompiledPolicy::policy)
+                .sorted(Comparator.comparing(ExclusionPolicy::name))
+                .toList();
+    }
+
+    public ExclusionPolicy get(String name) {
+        CompiledPolicy compiled = policies.get(name);
+        return compiled != null ? compiled.policy() : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException modo desconhecido ou regex inválida
+     */
+    public ExclusionPolicy save(String name, List<ExclusionRule> rules) {
+        ExclusionPolicy policy = new ExclusionPolicy(name, List.copyOf(rules), System.currentTimeMillis());
+        policies.put(name, compile(policy));
+        persist();
+        log.info("🛡️ Política de exclusão salva: {} ({} regra(s))", name, rules.size());
+        return policy;
+    }
+
+    public boolean delete(String name) {
+        if (policies.remove(name) == null) {
+            return false;
+        }
+        persist();
+        log.info("🛡️ Política de exclusão removida: {}", name);
+        return true;
+    }
+
+    /**
+     * Matcher para uma requisição: a política salva (já compilada) e/ou os
+     * padrões avulsos informados na própria requisição.
+     *
+     * @throws IllegalArgumentException política inexistente, modo desconhecido ou regex inválida
+     */
+    public GroupNameMatcher matcherFor(String policyName, List<String> patterns, String matchMode) {
+        boolean hasPatterns = patterns != null && !patterns.isEmpty();
+        if (policyName == null || policyName.isBlank()) {
+            return hasPatterns ? GroupNameMatcher.of(matchMode, patterns) : GroupNameMatcher.none();
+        }
+        CompiledPolicy compiled = policies.get(policyName);
+        if (compiled == null) {
+            throw new IllegalArgumentException("Política de exclusão não encontrada: " + policyName);
+        }
+        if (!hasPatterns) {
+            return compiled.matcher();
+        }
+        GroupNameMatcher.Builder builder = GroupNameMatcher.builder();
+        compiled.policy().rules().forEach(rule -> builder.add(rule.matchMode(), rule.patterns()));
+        return builder.add(matchMode, patterns).build();
+    }
+
+    private static CompiledPolicy compile(ExclusionPolicy policy) {
+        GroupNameMatcher.Builder builder = GroupNameMatcher.builder();
+        for (ExclusionRule rule : policy.rules()) {
+            builder.add(rule.matchMode(), rule.patterns());
+        }
+        return new CompiledPolicy(policy, builder.build());
+    }
+
+    private void load() {
+        if (path == null || !Files.exists(path)) {
+            return;
+        }
+        try {
+            List<ExclusionPolicy> saved = objectMapper.readValue(path.toFile(), new TypeReference<>() {});
+            for (ExclusionPolicy policy : saved) {
+                policies.put(policy.name(), compile(policy));
+            }
+            log.info("🛡️ {} política(s) de exclusão carregada(s) de {}", saved.size(), path);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Erro ao carregar políticas de exclusão de {}: {}", path, e.getMessage());
+        }
+    }
+
+    private synchronized void persist() {
+        if (path == null) {
+            return;
+        }
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), new ArrayList<>(list()));
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error("❌ Erro ao gravar políticas de exclusão em {}: {}", path, e.getMessage());
+        }
+    }
+
+    private record CompiledPolicy(ExclusionPolicy policy, GroupNameMatcher matcher) {}
+
+    public record ExclusionRule(String matchMode, List<String> patterns) {
+        // Regra sem "patterns" (JSON ou arquivo antigo) vale como lista vazia em todos os caminhos
+        public ExclusionRule {
+            patterns = patterns != null ? patterns : List.of();
+        }
+    }
+
+    public record ExclusionPolicy(String name, List<ExclusionRule> rules, long updatedAt) {}
+}
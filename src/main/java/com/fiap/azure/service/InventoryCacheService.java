@@ -0,0 +1,90 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureCacheConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.CliCallScheduler;
+import com.fiap.azure.util.RefreshingCache;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Caches do inventário em três níveis: assinaturas, grupos por assinatura e
+ * recursos por grupo. As atualizações em background rodam no CliCallScheduler.
+ */
+@Service
+public class InventoryCacheService {
+
+    private static final String ALL_SUBSCRIPTIONS = "all";
+
+    private final RefreshingCache<String, List<Subscription>> subscriptions;
+    private final RefreshingCache<String, List<ResourceGroup>> groups;
+    private final RefreshingCache<String, List<Resource>> resources;
+
+    public InventoryCacheService(AzureCacheConfig cacheConfig, CliCallScheduler callScheduler) {
+        Executor refreshExecutor = task -> callScheduler.submit(() -> {
+            task.run();
+            return null;
+        });
+        this.subscriptions = new RefreshingCache<>("subscriptions", cacheConfig.getSubscriptionsTtl(),
+                cacheConfig.getStaleWindow(), 1, refreshExecutor);
+        this.groups = new RefreshingCache<>("groups", cacheConfig.getGroupsTtl(),
+                cacheConfig.getStaleWindow(), cacheConfig.getMaxSubscriptionGroupEntries(), refreshExecutor);
+        this.resources = new RefreshingCache<>("resources", cacheConfig.getResourcesTtl(),
+                cacheConfig.getStaleWindow(), cacheConfig.getMaxResourceEntries(), refreshExecutor);
+    }
+
+    public List<Subscription> subscriptions(RefreshingCache.Loader<List<Subscription>> loader)
+            throws AzureCliException {
+        return subscriptions.get(ALL_SUBSCRIPTIONS, loader);
+    }
+
+    public List<ResourceGroup> groups(String subscriptionId, RefreshingCache.Loader<List<ResourceGroup>> loader)
+            throws AzureCliException {
+        return groups.get(subscriptionId, loader);
+    }
+
+    public List<Resource> resources(String subscriptionId, String groupName,
+                                    RefreshingCache.Loader<List<Resource>> loader)
+            throws AzureCliException {
+        return resources.get(resourceKey(subscriptionId, groupName), loader);
+    }
+
+    public void invalidateGroups(String subscriptionId) {
+        groups.invalidate(subscriptionId);
+    }
+
+    public void invalidateResources(String subscriptionId, String groupName) {
+        resources.invalidate(resourceKey(subscriptionId, groupName));
+    }
+
+    public void invalidateGroup(String subscriptionId, String groupName) {
+        groups.invalidate(subscriptionId);
+        resources.invalidate(resourceKey(subscriptionId, groupName));
+    }
+
+    public void clear() {
+        subscriptions.clear();
+        groups.clear();
+        resources.clear();
+    }
+
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("subscriptions", subscriptions.getStats());
+        stats.put("groups", groups.getStats());
+        stats.put("resources", resources.getStats());
+        return stats;
+    }
+
+    private static String resourceKey(String subscriptionId, String groupName) {
+        return subscriptionId + "/" + groupName.toLowerCase(Locale.ROOT);
+    }
+}
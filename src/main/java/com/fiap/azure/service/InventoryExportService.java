@@ -0,0 +1,279 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.CliCallScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação do inventário do tenant inteiro, uma linha por recurso (grupos
+ * vazios viram uma linha sem recurso e falhas uma linha com "error"). Os
+ * grupos são lidos assinatura por assinatura com no máximo
+ * azure.inventory.export-prefetch consultas à frente do que já foi escrito:
+ * se o cliente lê devagar, a escrita bloqueia e as consultas param junto, e a
+ * memória usada não depende do tamanho do tenant.
+ */
+@Slf4j
+@Service
+public class InventoryExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+    public static final Set<String> FORMATS = Set.of(NDJSON, CSV);
+
+    private static final String[] COLUMNS = {
+        "subscriptionId", "subscriptionName", "resourceGroup", "groupLocation", "groupState",
+        "resourceId", "resourceName", "resourceType", "resourceLocation", "error"
+    };
+
+    private final AzureCliService azureCliService;
+    private final CliCallScheduler callScheduler;
+    private final ObjectMapper objectMapper;
+    private final AzureInventoryConfig inventoryConfig;
+
+    public InventoryExportService(AzureCliService azureCliService, CliCallScheduler callScheduler,
+                                  ObjectMapper objectMapper, AzureInventoryConfig inventoryConfig) {
+        this.azureCliService = azureCliService;
+        this.callScheduler = callScheduler;
+        this.objectMapper = objectMapper;
+        this.inventoryConfig = inventoryConfig;
+    }
+
+    /**
+     * Escreve o inventário em {@code out}. Só falhas ao listar as assinaturas
+     * interrompem a exportação; falhas de um grupo ou assinatura viram linhas
+     * com "error", já que o status HTTP foi enviado antes da primeira linha.
+     *
+     * @param subscriptionIds assinaturas a exportar; vazio = todas as ativas
+     * @return linhas escritas
+     */
+    public long export(OutputStream out, String format, boolean gzip, List<String> subscriptionIds)
+            throws IOException, AzureCliException {
+        if (!FORMATS.contains(format)) {
+            throw new IllegalArgumentException("Formato inválido: " + format);
+        }
+        long start = System.currentTimeMillis();
+        List<Subscription> subscriptions = subscriptionsToExport(subscriptionIds);
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        long rows;
+        try (RowWriter writer = NDJSON.equals(format) ? new NdjsonWriter(target) : new CsvWriter(target)) {
+            rows = 0;
+            for (Subscription subscription : subscriptions) {
+                rows += exportSubscription(subscription, writer);
+            }
+        }
+        log.info("📤 Inventário exportado ({}{}): {} linha(s) de {} assinatura(s) em {}ms", format,
+                gzip ? ".gz" : "", rows, subscriptions.size(), System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private List<Subscription> subscriptionsToExport(List<String> subscriptionIds) throws AzureCliException {
+        List<Subscription> all = azureCliService.listSubscriptions();
+        if (subscriptionIds != null && !subscriptionIds.isEmpty()) {
+            return all.stream().filter(sub -> subscriptionIds.contains(sub.getId())).toList();
+        }
+        return all.stream().filter(sub -> "Enabled".equals(sub.getState())).toList();
+    }
+
+    private long exportSubscription(Subscription subscription, RowWriter writer) throws IOException {
+        List<ResourceGroup> groups;
+        try {
+            groups = inventoryConfig.isGraphMode()
+                    // Resource Graph traz a assinatura inteira numa consulta paginada
+                    ? azureCliService.listResourcesBySubscription(subscription.getId())
+                    : azureCliService.listResourceGroups(subscription.getId());
+        } catch (AzureCliException e) {
+            log.warn("Erro ao exportar assinatura {}: {}", subscription.getId(), e.getMessage());
+            writer.write(subscription, null, null, e.getMessage());
+            writer.flush();
+            return 1;
+        }
+        if (inventoryConfig.isGraphMode()) {
+            long rows = 0;
+            for (ResourceGroup group : groups) {
+                rows += writeGroup(subscription, group, group.getResources(), writer);
+            }
+            writer.flush();
+            return rows;
+        }
+
+        // Janela deslizante: no máximo "prefetch" consultas de grupo em andamento à frente da escrita
+        int prefetch = Math.max(1, inventoryConfig.getExportPrefetch());
+        Iterator<ResourceGroup> pending = groups.iterator();
+        Deque<PendingGroup> window = new ArrayDeque<>(prefetch);
+        long rows = 0;
+        try {
+            while (pending.hasNext() || !window.isEmpty()) {
+                while (window.size() < prefetch && pending.hasNext()) {
+                    ResourceGroup group = pending.next();
+                    window.add(new PendingGroup(group, callScheduler.submit(
+                            () -> azureCliService.loadResourcesInGroup(subscription.getId(), group.getName()))));
+                }
+                PendingGroup next = window.poll();
+                try {
+                    rows += writeGroup(subscription, next.group(), next.resources().get(), writer);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    writer.write(subscription, next.group(), null, cause.getMessage());
+                    rows++;
+                }
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportação interrompida", e);
+        } finally {
+            // Cliente desconectou ou a exportação falhou: não deixa consultas órfãs
+            window.forEach(item -> item.resources().cancel(true));
+        }
+        return rows;
+    }
+
+    private static long writeGroup(Subscription subscription, ResourceGroup group, List<Resource> resources,
+                                   RowWriter writer) throws IOException {
+        if (resources == null || resources.isEmpty()) {
+            writer.write(subscription, group, null, null);
+            return 1;
+        }
+        for (Resource resource : resources) {
+            writer.write(subscription, group, resource, null);
+        }
+        return resources.size();
+    }
+
+    private record PendingGroup(ResourceGroup group, Future<List<Resource>> resources) {}
+
+    private interface RowWriter extends AutoCloseable {
+        void write(Subscription subscription, ResourceGroup group, Resource resource, String error) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+        private final OutputStream out;
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.out = out;
+            this.json = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void write(Subscription subscription, ResourceGroup group, Resource resource, String error)
+                throws IOException {
+            String[] values = values(subscription, group, resource, error);
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (values[i] != null) {
+                    json.writeStringField(COLUMNS[i], values[i]);
+                }
+            }
+            json.writeEndObject();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.writeRaw('\n');
+            json.close();
+            out.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            writeLine(COLUMNS);
+        }
+
+        @Override
+        public void write(Subscription subscription, ResourceGroup group, Resource resource, String error)
+                throws IOException {
+            writeLine(values(subscription, group, resource, error));
+        }
+
+        private void writeLine(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeCell(values[i]);
+            }
+            out.write("\r\n");
+        }
+
+        // RFC 4180: aspas só quando a célula tem separador, aspas ou quebra de linha
+        private void writeCell(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static String[] values(Subscription subscription, ResourceGroup group, Resource resource, String error) {
+        return new String[] {
+            subscription.getId(),
+            subscription.getDisplayName(),
+            group != null ? group.getName() : null,
+            group != null ? group.getLocation() : null,
+            group != null ? group.getProvisioningState() : null,
+            resource != null ? resource.getId() : null,
+            resource != null ? resource.getName() : null,
+            resource != null ? resource.getType() : null,
+            resource != null ? resource.getLocation() : null,
+            error
+        };
+    }
+}
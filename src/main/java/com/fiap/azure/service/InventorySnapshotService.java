@@ -0,0 +1,388 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.config.AzureSnapshotConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.CliCallScheduler;
+import com.fiap.azure.util.CompactInventory;
+import com.fiap.azure.util.StringDictionary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventário em memória (assinaturas → grupos → recursos) mantido por um
+ * atualizador em background, para que o dashboard não consulte o Azure na
+ * thread da requisição.
+ *
+ * Cada ciclo atualiza poucas assinaturas (as mais antigas), espalhando as
+ * chamadas no tempo. A atualização é incremental: a lista de grupos é sempre
+ * recarregada, mas os recursos só são buscados para grupos novos ou cujo
+ * provisioningState mudou.
+ *
+ * Com azure.snapshot.compact, cada assinatura fica num {@link CompactInventory}
+ * (colunas + dicionário de tipos, regiões e estados comum a todas), e os
+ * objetos de grupo e recurso só existem enquanto alguém os lê.
+ */
+@Slf4j
+@Service
+public class InventorySnapshotService {
+
+    private final AzureCliService azureCliService;
+    private final DeletionSchedulerService deletionSchedulerService;
+    private final CliCallScheduler callScheduler;
+    private final AzureInventoryConfig inventoryConfig;
+    private final AzureSnapshotConfig snapshotConfig;
+
+    private final ScheduledExecutorService refresher;
+
+    private volatile List<Subscription> subscriptions;
+    private volatile long subscriptionsRefreshedAt;
+    private final Map<String, SubscriptionSnapshot> bySubscription = new ConcurrentHashMap<>();
+    private final StringDictionary dictionary = new StringDictionary();
+    // Cargas iniciais pedidas pelo dashboard, por assinatura ("" = lista de assinaturas)
+    private final Map<String, CompletableFuture<Void>> pendingLoads = new ConcurrentHashMap<>();
+    private static final String SUBSCRIPTION_LIST = "";
+
+    // Estado do atualizador: acessado só pela thread do refresher
+    private long nextSubscriptionListAt;
+    private volatile boolean paused;
+    private volatile String lastError;
+
+    public InventorySnapshotService(AzureCliService azureCliService,
+                                    DeletionSchedulerService deletionSchedulerService,
+                                    CliCallScheduler callScheduler,
+                                    AzureInventoryConfig inventoryConfig,
+                                    AzureSnapshotConfig snapshotConfig) {
+        this.azureCliService = azureCliService;
+        this.deletionSchedulerService = deletionSchedulerService;
+        this.callScheduler = callScheduler;
+        this.inventoryConfig = inventoryConfig;
+        this.snapshotConfig = snapshotConfig;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-refresher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!snapshotConfig.isEnabled()) {
+            return;
+        }
+        log.info("🔄 Atualizador de inventário iniciado (ciclo: {}ms)", snapshotConfig.getTickInterval());
+        refresher.scheduleWithFixedDelay(this::tick, 0, snapshotConfig.getTickInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Assinaturas do snapshot. Na primeira chamada (ou com o snapshot desligado)
+     * consulta o Azure na hora.
+     */
+    public List<Subscription> getSubscriptions() throws AzureCliException {
+        if (!snapshotConfig.isEnabled()) {
+            return azureCliService.listSubscriptionsWithResources();
+        }
+        List<Subscription> current = subscriptions;
+        if (current == null) {
+            current = refreshSubscriptions();
+        }
+        return current;
+    }
+
+    /**
+     * Como {@link #getSubscriptions()}, mas sem esperar a primeira carga: devolve
+     * null enquanto ela roda no atualizador, para a página ser renderizada antes.
+     */
+    public List<Subscription> findSubscriptions() throws AzureCliException {
+        if (!snapshotConfig.isEnabled()) {
+            return getSubscriptions();
+        }
+        List<Subscription> current = subscriptions;
+        if (current == null) {
+            loadInBackground(SUBSCRIPTION_LIST, this::refreshSubscriptions);
+        }
+        return current;
+    }
+
+    /**
+     * Grupos (com recursos) da assinatura. Assinaturas ainda fora do snapshot são
+     * carregadas na hora e passam a ser atualizadas em background.
+     */
+    public List<ResourceGroup> getResourceGroups(String subscriptionId) throws AzureCliException {
+        if (!snapshotConfig.isEnabled()) {
+            return azureCliService.listResourcesBySubscription(subscriptionId);
+        }
+        SubscriptionSnapshot snapshot = bySubscription.get(subscriptionId);
+        if (snapshot == null) {
+            snapshot = refreshSubscription(subscriptionId, true);
+        }
+        return snapshot.groups();
+    }
+
+    /**
+     * Como {@link #getResourceGroups(String)}, mas devolve null enquanto a
+     * assinatura é carregada em background pela primeira vez.
+     */
+    public List<ResourceGroup> findResourceGroups(String subscriptionId) throws AzureCliException {
+        if (!snapshotConfig.isEnabled()) {
+            return getResourceGroups(subscriptionId);
+        }
+        SubscriptionSnapshot snapshot = bySubscription.get(subscriptionId);
+        if (snapshot == null) {
+            loadInBackground(subscriptionId, () -> refreshSubscription(subscriptionId, true));
+            return null;
+        }
+        return snapshot.groups();
+    }
+
+    // Uma carga por chave, na thread do atualizador; a falha vai para a próxima chamada, que tenta de novo
+    private void loadInBackground(String key, Callable<?> load) throws AzureCliException {
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> pending = pendingLoads.putIfAbsent(key, mine);
+        if (pending == null) {
+            refresher.execute(() -> {
+                try {
+                    load.call();
+                    pendingLoads.remove(key, mine);
+                    mine.complete(null);
+                } catch (Exception e) {
+                    log.warn("Erro ao carregar inventário em background: {}", e.getMessage());
+                    mine.completeExceptionally(e);
+                }
+            });
+            return;
+        }
+        if (pending.isCompletedExceptionally() && pendingLoads.remove(key, pending)) {
+            try {
+                pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof AzureCliException cliException
+                        ? cliException : new AzureCliException("Erro ao carregar inventário", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Idade do dado exibido, em ms: da assinatura informada ou, sem ela, da lista de assinaturas.
+     */
+    public Long getAgeMs(String subscriptionId) {
+        if (!snapshotConfig.isEnabled()) {
+            return null;
+        }
+        long refreshedAt = subscriptionsRefreshedAt;
+        if (subscriptionId != null) {
+            SubscriptionSnapshot snapshot = bySubscription.get(subscriptionId);
+            refreshedAt = snapshot != null ? snapshot.refreshedAt() : 0;
+        }
+        return refreshedAt > 0 ? System.currentTimeMillis() - refreshedAt : null;
+    }
+
+    /**
+     * Atualização completa e imediata (botão "Atualizar" do dashboard).
+     */
+    public void refreshNow(String subscriptionId) throws AzureCliException {
+        if (subscriptionId != null && !subscriptionId.isEmpty()) {
+            refreshSubscription(subscriptionId, true);
+        } else {
+            refreshSubscriptions();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", snapshotConfig.isEnabled());
+        status.put("paused", paused);
+        status.put("subscriptions", subscriptions != null ? subscriptions.size() : 0);
+        status.put("subscriptionsAgeMs", getAgeMs(null));
+        Map<String, Long> ages = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        List<String> due = new ArrayList<>();
+        bySubscription.forEach((id, snapshot) -> {
+            ages.put(id, now - snapshot.refreshedAt());
+            if (snapshot.due()) {
+                due.add(id);
+            }
+        });
+        status.put("subscriptionAgesMs", ages);
+        status.put("dueSubscriptions", due);
+        status.put("compact", snapshotConfig.isCompact());
+        status.put("dictionaryEntries", dictionary.size());
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    void tick() {
+        try {
+            if (snapshotConfig.isPauseDuringDeletions() && deletionSchedulerService.hasPendingWork()) {
+                if (!paused) {
+                    paused = true;
+                    log.info("⏸️  Atualização do inventário pausada durante deleções");
+                }
+                return;
+            }
+            if (paused) {
+                // As deleções mudaram o inventário: tudo volta a ficar pendente, mantendo a idade real
+                paused = false;
+                nextSubscriptionListAt = 0;
+                bySubscription.replaceAll((id, snapshot) -> snapshot.markDue());
+                log.info("▶️  Atualização do inventário retomada");
+            }
+
+            long now = System.currentTimeMillis();
+            if (now >= nextSubscriptionListAt) {
+                nextSubscriptionListAt = now + snapshotConfig.getSubscriptionListInterval();
+                refreshSubscriptions();
+            }
+
+            String error = null;
+            for (String subscriptionId : dueSubscriptions(now)) {
+                try {
+                    refreshSubscription(subscriptionId, false);
+                } catch (AzureCliException e) {
+                    // Uma assinatura com falha não impede as demais no mesmo ciclo
+                    error = e.getMessage();
+                    log.warn("Erro ao atualizar inventário da assinatura {}: {}", subscriptionId, e.getMessage());
+                }
+            }
+            lastError = error;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Erro ao atualizar inventário em background: {}", e.getMessage());
+        }
+    }
+
+    private List<String> dueSubscriptions(long now) {
+        List<Subscription> current = subscriptions;
+        if (current == null) {
+            return List.of();
+        }
+        Map<String, SubscriptionSnapshot> snapshots = new HashMap<>(bySubscription);
+        // Nunca carregadas primeiro, depois as marcadas como pendentes, depois as mais antigas
+        Comparator<SubscriptionSnapshot> order = Comparator.comparing(SubscriptionSnapshot::due).reversed()
+                .thenComparingLong(SubscriptionSnapshot::refreshedAt);
+        return current.stream()
+                .map(Subscription::getId)
+                .filter(id -> {
+                    SubscriptionSnapshot snapshot = snapshots.get(id);
+                    return snapshot == null || snapshot.due()
+                            || now - snapshot.refreshedAt() >= snapshotConfig.getSubscriptionInterval();
+                })
+                .sorted(Comparator.comparing(snapshots::get, Comparator.nullsFirst(order)))
+                .limit(Math.max(1, snapshotConfig.getSubscriptionsPerTick()))
+                .toList();
+    }
+
+    private List<Subscription> refreshSubscriptions() throws AzureCliException {
+        List<Subscription> current = List.copyOf(azureCliService.listSubscriptionsWithResources());
+        subscriptions = current;
+        subscriptionsRefreshedAt = System.currentTimeMillis();
+
+        Set<String> ids = new HashSet<>();
+        current.forEach(sub -> ids.add(sub.getId()));
+        bySubscription.keySet().retainAll(ids);
+        return current;
+    }
+
+    private SubscriptionSnapshot refreshSubscription(String subscriptionId, boolean forceFull) throws AzureCliException {
+        long startTime = System.currentTimeMillis();
+        SubscriptionSnapshot previous = bySubscription.get(subscriptionId);
+
+        if (inventoryConfig.isGraphMode()) {
+            // Resource Graph traz grupos e recursos em uma única consulta paginada
+            List<ResourceGroup> groups = azureCliService.listResourcesBySubscription(subscriptionId);
+            SubscriptionSnapshot snapshot = new SubscriptionSnapshot(store(subscriptionId, groups), startTime, startTime,
+                    false);
+            bySubscription.put(subscriptionId, snapshot);
+            return snapshot;
+        }
+
+        boolean full = forceFull || previous == null
+                || startTime - previous.fullRefreshedAt() >= snapshotConfig.getFullRefreshInterval();
+        Map<String, ResourceGroup> previousByName = new HashMap<>();
+        if (previous != null) {
+            previous.groups().forEach(rg -> previousByName.put(rg.getName().toLowerCase(Locale.ROOT), rg));
+        }
+
+        List<ResourceGroup> groups = azureCliService.refreshResourceGroups(subscriptionId);
+        // Estado do grupo quase nunca muda quando um recurso entra ou sai: a contagem é o sinal
+        Map<String, Integer> counts = full ? Map.of() : azureCliService.countResourcesByGroup(subscriptionId);
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+        List<Callable<Void>> calls = new ArrayList<>();
+        for (ResourceGroup rg : groups) {
+            ResourceGroup before = previousByName.get(rg.getName().toLowerCase(Locale.ROOT));
+            if (!full && before != null && Objects.equals(before.getProvisioningState(), rg.getProvisioningState())
+                    && counts.getOrDefault(rg.getName().toLowerCase(Locale.ROOT), 0) == before.getResources().size()) {
+                rg.setResources(before.getResources());
+                continue;
+            }
+            calls.add(() -> {
+                try {
+                    rg.setResources(List.copyOf(azureCliService.refreshResourcesInGroup(subscriptionId, rg.getName())));
+                } catch (Exception e) {
+                    log.warn("Erro ao listar recursos do grupo {}: {}", rg.getName(), e.getMessage());
+                    failures.put(rg.getName(), e);
+                }
+                return null;
+            });
+        }
+        callScheduler.invokeAll(calls);
+        if (!failures.isEmpty()) {
+            // Grupo que falhou não vira grupo vazio: o snapshot anterior da assinatura continua valendo
+            Map.Entry<String, Exception> first = failures.entrySet().iterator().next();
+            throw new AzureCliException("Recursos de " + failures.size() + " grupo(s) da assinatura " + subscriptionId
+                    + " não puderam ser listados (" + first.getKey() + ": " + first.getValue().getMessage() + ")",
+                    first.getValue());
+        }
+
+        long finishedAt = System.currentTimeMillis();
+        SubscriptionSnapshot snapshot = new SubscriptionSnapshot(store(subscriptionId, groups), finishedAt,
+                full ? finishedAt : previous.fullRefreshedAt(), false);
+        bySubscription.put(subscriptionId, snapshot);
+        log.info("🔄 Snapshot da assinatura {}: {} grupos, {} recarregados ({}ms)",
+                subscriptionId, groups.size(), calls.size(), finishedAt - startTime);
+        return snapshot;
+    }
+
+    private List<ResourceGroup> store(String subscriptionId, List<ResourceGroup> groups) {
+        return snapshotConfig.isCompact()
+                ? CompactInventory.of(subscriptionId, groups, dictionary).groups()
+                : List.copyOf(groups);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // due: atualizar no próximo ciclo, independente da idade
+    private record SubscriptionSnapshot(List<ResourceGroup> groups, long refreshedAt, long fullRefreshedAt,
+                                        boolean due) {
+        SubscriptionSnapshot markDue() {
+            return new SubscriptionSnapshot(groups, refreshedAt, fullRefreshedAt, true);
+        }
+    }
+}
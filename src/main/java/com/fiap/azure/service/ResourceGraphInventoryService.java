@@ -0,0 +1,197 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.CommandOutput;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Inventário via Azure Resource Graph: uma consulta KQL paginada cobre todas as
+ * assinaturas de uma vez, em vez de um processo az por assinatura e por grupo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResourceGraphInventoryService {
+
+    static final String GROUPS_QUERY =
+            "resourcecontainers" +
+            " | where type =~ 'microsoft.resources/subscriptions/resourcegroups'" +
+            " | project id, name, location, subscriptionId," +
+            " provisioningState = tostring(properties.provisioningState)" +
+            " | order by subscriptionId asc, name asc";
+
+    static final String RESOURCES_QUERY =
+            "resources" +
+            " | project id, name, type, location, resourceGroup, subscriptionId" +
+            " | order by subscriptionId asc, resourceGroup asc, name asc";
+
+    static final String GROUP_COUNT_QUERY =
+            "resourcecontainers" +
+            " | where type =~ 'microsoft.resources/subscriptions/resourcegroups'" +
+            " | summarize groupCount = count() by subscriptionId";
+
+    private final AzureCommandExecutor commandExecutor;
+    private final ObjectMapper objectMapper;
+    private final AzureInventoryConfig inventoryConfig;
+
+    public List<ResourceGroup> listResourcesBySubscription(String subscriptionId) throws AzureCliException {
+        return listResourceGroupsBySubscriptions(List.of(subscriptionId))
+                .getOrDefault(subscriptionId, new ArrayList<>());
+    }
+
+    /**
+     * Retorna os grupos (com recursos) de cada assinatura, mantendo a ordem de entrada.
+     */
+    public Map<String, List<ResourceGroup>> listResourceGroupsBySubscriptions(Collection<String> subscriptionIds)
+            throws AzureCliException {
+        long startTime = System.currentTimeMillis();
+
+        Map<String, List<ResourceGroup>> groupsBySubscription = new LinkedHashMap<>();
+        Map<String, ResourceGroup> groupsByKey = new LinkedHashMap<>();
+        for (String subscriptionId : subscriptionIds) {
+            groupsBySubscription.put(subscriptionId, new ArrayList<>());
+        }
+
+        query(GROUPS_QUERY, subscriptionIds, row -> {
+            String subscriptionId = text(row, "subscriptionId", null);
+            List<ResourceGroup> groups = groupsBySubscription.get(subscriptionId);
+            if (groups == null) {
+                return;
+            }
+            ResourceGroup rg = new ResourceGroup(
+                    text(row, "id", "unknown"),
+                    text(row, "name", "N/A"),
+                    text(row, "location", "Unknown"),
+                    text(row, "provisioningState", "Unknown"),
+                    new ArrayList<>());
+            groups.add(rg);
+            groupsByKey.put(groupKey(subscriptionId, rg.getName()), rg);
+        });
+
+        int[] resourceCount = {0};
+        query(RESOURCES_QUERY, subscriptionIds, row -> {
+            String groupName = text(row, "resourceGroup", null);
+            ResourceGroup rg = groupsByKey.get(groupKey(text(row, "subscriptionId", null), groupName));
+            if (rg == null) {
+                return;
+            }
+            rg.getResources().add(new Resource(
+                    text(row, "id", "unknown"),
+                    text(row, "name", "N/A"),
+                    text(row, "type", "Unknown"),
+                    text(row, "location", "N/A"),
+                    rg.getName()));
+            resourceCount[0]++;
+        });
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("⚡ Resource Graph: {} grupos e {} recursos em {} assinaturas ({}ms)",
+                groupsByKey.size(), resourceCount[0], subscriptionIds.size(), duration);
+        return groupsBySubscription;
+    }
+
+    public Map<String, Long> countResourceGroups(Collection<String> subscriptionIds) throws AzureCliException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String subscriptionId : subscriptionIds) {
+            counts.put(subscriptionId, 0L);
+        }
+        query(GROUP_COUNT_QUERY, subscriptionIds, row -> {
+            String subscriptionId = text(row, "subscriptionId", null);
+            if (counts.containsKey(subscriptionId)) {
+                counts.put(subscriptionId, row.path("groupCount").asLong(0));
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Executa a consulta página por página, entregando cada linha ao consumer
+     * sem acumular as páginas anteriores.
+     */
+    void query(String kql, Collection<String> subscriptionIds, Consumer<JsonNode> rowConsumer) throws AzureCliException {
+        List<String> ids = new ArrayList<>(subscriptionIds);
+        int batchSize = Math.max(1, inventoryConfig.getGraphSubscriptionBatchSize());
+
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            String skipToken = null;
+            int page = 0;
+            do {
+                JsonNode result = executePage(kql, batch, skipToken);
+                JsonNode data = result.path("data");
+                if (data.isArray()) {
+                    data.forEach(rowConsumer);
+                }
+                skipToken = nextSkipToken(result);
+                page++;
+                log.debug("Resource Graph página {} ({} linhas)", page, data.size());
+            } while (skipToken != null);
+        }
+    }
+
+    private JsonNode executePage(String kql, List<String> subscriptionIds, String skipToken) throws AzureCliException {
+        List<String> args = new ArrayList<>(List.of(
+                "graph", "query",
+                "-q", kql,
+                "--first", String.valueOf(inventoryConfig.getGraphPageSize())));
+        if (skipToken != null) {
+            args.add("--skip-token");
+            args.add(skipToken);
+        }
+        if (!subscriptionIds.isEmpty()) {
+            args.add("--subscriptions");
+            args.addAll(subscriptionIds);
+        }
+        args.add("--output");
+        args.add("json");
+
+        CommandOutput output = commandExecutor.executeRaw(args.toArray(new String[0]));
+        try {
+            return objectMapper.readTree(output.asInputStream());
+        } catch (IOException e) {
+            log.error("Erro ao parsear resposta do Resource Graph", e);
+            throw new AzureCliException("Erro ao parsear resposta do Resource Graph", e);
+        }
+    }
+
+    private String nextSkipToken(JsonNode result) {
+        // Versões da extensão usam "skip_token" ou "$skipToken"
+        for (String field : new String[]{"skip_token", "skipToken", "$skipToken"}) {
+            JsonNode token = result.get(field);
+            if (token != null && !token.isNull() && !token.asText().isEmpty()) {
+                return token.asText();
+            }
+        }
+        return null;
+    }
+
+    private static String groupKey(String subscriptionId, String groupName) {
+        // O Resource Graph pode devolver resourceGroup em minúsculas
+        return (subscriptionId + "/" + groupName).toLowerCase(Locale.ROOT);
+    }
+
+    private static String text(JsonNode row, String field, String defaultValue) {
+        JsonNode value = row.get(field);
+        if (value == null || value.isNull() || value.asText().isEmpty()) {
+            return defaultValue;
+        }
+        return value.asText();
+    }
+}
@@ -0,0 +1,219 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de grupos do dashboard em páginas, a partir do inventário em memória.
+ * A paginação é por chave (o cursor guarda a posição do último item na
+ * ordenação), então grupos removidos ou incluídos entre uma página e outra não
+ * causam itens repetidos ou pulados. Os recursos de cada grupo ficam fora da
+ * página e são buscados ao expandir o card.
+ */
+@Service
+public class ResourceGroupPageService {
+
+    public static final String SORT_NAME = "name";
+    public static final String SORT_LOCATION = "location";
+    public static final String SORT_RESOURCES = "resources";
+
+    private final InventorySnapshotService inventorySnapshotService;
+    private final DeletionStatusService deletionStatusService;
+    private final AzureInventoryConfig inventoryConfig;
+
+    // Ordenação reaproveitada enquanto o snapshot devolver a mesma lista
+    private final Map<String, SortedGroups> sortedViews = new ConcurrentHashMap<>();
+
+    public ResourceGroupPageService(InventorySnapshotService inventorySnapshotService,
+                                    DeletionStatusService deletionStatusService,
+                                    AzureInventoryConfig inventoryConfig) {
+        this.inventorySnapshotService = inventorySnapshotService;
+        this.deletionStatusService = deletionStatusService;
+        this.inventoryConfig = inventoryConfig;
+    }
+
+    /**
+     * @throws IllegalArgumentException ordenação desconhecida ou cursor inválido
+     */
+    public GroupPage page(String subscriptionId, String cursor, Integer limit, String sort, String order,
+                          String query, String location) throws AzureCliException {
+        String sortBy = sort != null ? sort : SORT_NAME;
+        boolean descending = "desc".equalsIgnoreCase(order);
+        Comparator<GroupSummary> comparator = comparator(sortBy, descending);
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : inventoryConfig.getGroupPageSize(),
+                inventoryConfig.getGroupMaxPageSize()));
+
+        List<ResourceGroup> groups = inventorySnapshotService.findResourceGroups(subscriptionId);
+        if (groups == null) {
+            // Primeira carga da assinatura em andamento: o dashboard pede de novo em instantes
+            return new GroupPage(List.of(), null, 0, 0, null, true);
+        }
+        List<GroupSummary> sorted = sorted(subscriptionId, groups, sortBy, descending, comparator);
+
+        int start = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            GroupSummary after = decodeCursor(cursor, sortBy, descending);
+            start = firstAfter(sorted, after, comparator);
+        }
+
+        String needle = query != null && !query.isBlank() ? query.trim().toLowerCase(Locale.ROOT) : null;
+        String region = location != null && !location.isBlank() ? location.trim() : null;
+        List<GroupSummary> items = new ArrayList<>(pageSize);
+        int index = start;
+        for (; index < sorted.size() && items.size() < pageSize; index++) {
+            GroupSummary group = sorted.get(index);
+            if (matches(group, needle, region)) {
+                items.add(group.withDeleting(deletionStatusService.isDeleting(subscriptionId, group.name())));
+            }
+        }
+        boolean more = false;
+        for (; index < sorted.size() && !more; index++) {
+            more = matches(sorted.get(index), needle, region);
+        }
+
+        int matched = needle == null && region == null ? sorted.size() : countMatches(sorted, needle, region);
+        String nextCursor = more ? encodeCursor(items.get(items.size() - 1), sortBy, descending) : null;
+        return new GroupPage(items, nextCursor, sorted.size(), matched,
+                inventorySnapshotService.getAgeMs(subscriptionId), false);
+    }
+
+    /**
+     * Recursos de um grupo (expansão do card), ou null se o grupo não está no inventário.
+     */
+    public List<Resource> resources(String subscriptionId, String groupName) throws AzureCliException {
+        List<ResourceGroup> groups = inventorySnapshotService.findResourceGroups(subscriptionId);
+        if (groups == null) {
+            return null;
+        }
+        for (ResourceGroup group : groups) {
+            if (group.getName().equalsIgnoreCase(groupName)) {
+                return group.getResources() != null ? group.getResources() : List.of();
+            }
+        }
+        return null;
+    }
+
+    private List<GroupSummary> sorted(String subscriptionId, List<ResourceGroup> groups, String sortBy,
+                                      boolean descending, Comparator<GroupSummary> comparator) {
+        String key = subscriptionId + "|" + sortBy + "|" + descending;
+        SortedGroups cached = sortedViews.get(key);
+        if (cached != null && cached.source() == groups) {
+            return cached.groups();
+        }
+        List<GroupSummary> summaries = new ArrayList<>(groups.size());
+        for (ResourceGroup group : groups) {
+            summaries.add(GroupSummary.of(group));
+        }
+        summaries.sort(comparator);
+        List<GroupSummary> view = List.copyOf(summaries);
+        sortedViews.put(key, new SortedGroups(groups, view));
+        return view;
+    }
+
+    private static boolean matches(GroupSummary group, String needle, String region) {
+        return (needle == null || group.name().toLowerCase(Locale.ROOT).contains(needle))
+                && (region == null || region.equalsIgnoreCase(group.location()));
+    }
+
+    private static int countMatches(List<GroupSummary> groups, String needle, String region) {
+        int count = 0;
+        for (GroupSummary group : groups) {
+            if (matches(group, needle, region)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Busca binária pelo primeiro item depois da chave do cursor
+    private static int firstAfter(List<GroupSummary> sorted, GroupSummary after, Comparator<GroupSummary> comparator) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(sorted.get(mid), after) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Comparator<GroupSummary> comparator(String sortBy, boolean descending) {
+        Comparator<GroupSummary> byName = Comparator.comparing(group -> group.name().toLowerCase(Locale.ROOT));
+        Comparator<GroupSummary> comparator = switch (sortBy) {
+            case SORT_NAME -> byName;
+            case SORT_LOCATION -> Comparator.comparing((GroupSummary group) -> lower(group.location())).thenComparing(byName);
+            case SORT_RESOURCES -> Comparator.comparingInt(GroupSummary::resourceCount).thenComparing(byName);
+            default -> throw new IllegalArgumentException("Ordenação inválida: " + sortBy);
+        };
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    // Nomes de grupo e regiões não aceitam "|", então a posição vai em texto simples
+    private static String encodeCursor(GroupSummary last, String sortBy, boolean descending) {
+        String raw = String.join("|", sortBy, descending ? "desc" : "asc",
+                String.valueOf(last.resourceCount()), last.location() != null ? last.location() : "", last.name());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static GroupSummary decodeCursor(String cursor, String sortBy, boolean descending) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !parts[0].equals(sortBy) || !parts[1].equals(descending ? "desc" : "asc")) {
+                throw new IllegalArgumentException("Cursor não corresponde à ordenação pedida");
+            }
+            return new GroupSummary(parts[4], parts[3], null, Integer.parseInt(parts[2]), false);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException e Base64 inválido também caem aqui
+            throw new IllegalArgumentException("Cursor inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private record SortedGroups(List<ResourceGroup> source, List<GroupSummary> groups) {}
+
+    public record GroupSummary(
+        String name,
+        String location,
+        String provisioningState,
+        int resourceCount,
+        boolean deleting
+    ) {
+        static GroupSummary of(ResourceGroup group) {
+            return new GroupSummary(group.getName(), group.getLocation(), group.getProvisioningState(),
+                    group.getResources() != null ? group.getResources().size() : 0, false);
+        }
+
+        GroupSummary withDeleting(boolean deleting) {
+            return deleting == this.deleting ? this
+                    : new GroupSummary(name, location, provisioningState, resourceCount, deleting);
+        }
+    }
+
+    public record GroupPage(
+        List<GroupSummary> items,
+        String nextCursor,
+        int total,
+        int matched,
+        Long snapshotAgeMs,
+        boolean loading
+    ) {}
+}
@@ -2,14 +2,21 @@ package com.fiap.azure.service;
 import com.fiap.azure.model.Resource;
 import com.fiap.azure.model.ResourceGroup;
 import com.fiap.azure.model.Subscription;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 @Slf4j
 @Service
 public class ResourceParserService {
+    private final JsonFactory jsonFactory = new JsonFactory();
     public List<Subscription> parseSubscriptions(JsonNode node) {
         List<Subscription> subscriptions = new ArrayList<>();
         if (node.isArray()) {
@@ -30,53 +37,107 @@ public class ResourceParserService {
         log.info("Parsed {} subscriptions", subscriptions.size());
         return subscriptions;
     }
-    public List<ResourceGroup> parseResourceGroups(JsonNode node) {
-        List<ResourceGroup> resourceGroups = new ArrayList<>();
-        if (node.isArray()) {
-            node.forEach(item -> {
-                try {
-                    String id = getTextOrDefault(item, "id", "unknown");
-                    String name = getTextOrDefault(item, "name", "N/A");
-                    String location = getTextOrDefault(item, "location", "Unknown");
-                    String provisioningState = "Unknown";
-                    if (item.has("properties") && item.get("properties").has("provisioningState")) {
-                        provisioningState = item.get("properties").get("provisioningState").asText();
+    public List<Resource> parseResources(InputStream in, String groupName) throws IOException {
+        List<Resource> resources = new ArrayList<>();
+        streamResources(in, groupName, resources::add);
+        return resources;
+    }
+    /**
+     * Lê o array de "az resource list" token a token, extraindo só id, name, type
+     * e location; tags, sku e properties são pulados sem montar a árvore JSON.
+     */
+    public void streamResources(InputStream in, String groupName, Consumer<Resource> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String id = null;
+                String name = null;
+                String type = null;
+                String location = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = scalarText(parser, value);
+                        case "name" -> name = scalarText(parser, value);
+                        case "type" -> type = scalarText(parser, value);
+                        case "location" -> location = scalarText(parser, value);
+                        default -> parser.skipChildren();
                     }
-                    ResourceGroup rg = new ResourceGroup(id, name, location, provisioningState, new ArrayList<>());
-                    resourceGroups.add(rg);
-                    log.debug("Grupo de Recursos parseado: {}", name);
-                } catch (Exception e) {
-                    log.warn("Erro ao parsear grupo de recursos: {}", e.getMessage());
                 }
-            });
+                consumer.accept(new Resource(
+                    orDefault(id, "unknown"),
+                    orDefault(name, "N/A"),
+                    orDefault(type, "Unknown"),
+                    orDefault(location, "N/A"),
+                    groupName));
+            }
         }
+    }
+    public List<ResourceGroup> parseResourceGroups(InputStream in) throws IOException {
+        List<ResourceGroup> resourceGroups = new ArrayList<>();
+        streamResourceGroups(in, resourceGroups::add);
         log.info("Parsed {} resource groups", resourceGroups.size());
         return resourceGroups;
     }
-    public List<ResourceGroup> parseResourcesInGroup(JsonNode node, String groupName) {
-        List<ResourceGroup> result = new ArrayList<>();
-        ResourceGroup rg = new ResourceGroup();
-        rg.setName(groupName);
-        rg.setResources(new ArrayList<>());
-        if (node.isArray()) {
-            node.forEach(item -> {
-                try {
-                    String id = getTextOrDefault(item, "id", "unknown");
-                    String name = getTextOrDefault(item, "name", "N/A");
-                    String type = getTextOrDefault(item, "type", "Unknown");
-                    String location = getTextOrDefault(item, "location", "N/A");
-                    String resourceGroup = getTextOrDefault(item, "resourceGroup", groupName);
-                    Resource resource = new Resource(id, name, type, location, resourceGroup);
-                    rg.getResources().add(resource);
-                    log.debug("Recurso parseado: {}", name);
-                } catch (Exception e) {
-                    log.warn("Erro ao parsear recurso: {}", e.getMessage());
+    public void streamResourceGroups(InputStream in, Consumer<ResourceGroup> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String id = null;
+                String name = null;
+                String location = null;
+                String provisioningState = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "id" -> id = scalarText(parser, value);
+                        case "name" -> name = scalarText(parser, value);
+                        case "location" -> location = scalarText(parser, value);
+                        case "properties" -> provisioningState = readProvisioningState(parser, value);
+                        default -> parser.skipChildren();
+                    }
                 }
-            });
+                consumer.accept(new ResourceGroup(
+                    orDefault(id, "unknown"),
+                    orDefault(name, "N/A"),
+                    orDefault(location, "Unknown"),
+                    orDefault(provisioningState, "Unknown"),
+                    new ArrayList<>()));
+            }
         }
-        result.add(rg);
-        log.info("Parsed {} resources in group {}", rg.getResources().size(), groupName);
-        return result;
+    }
+    private String readProvisioningState(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String provisioningState = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            if ("provisioningState".equals(field)) {
+                provisioningState = scalarText(parser, fieldValue);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return provisioningState;
+    }
+    private String scalarText(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return value == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+    private String orDefault(String value, String defaultValue) {
+        return value == null || value.isEmpty() ? defaultValue : value;
     }
     private String getTextOrDefault(JsonNode node, String fieldName, String defaultValue) {
         if (node == null || !node.has(fieldName)) {
@@ -0,0 +1,262 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Proteções de toda chamada ao Azure, seja processo az ou requisição ARM:
+ * circuit breaker e token bucket por assinatura, repetição com espera
+ * exponencial, bulkhead por assinatura e vagas globais (leitura / segundo
+ * plano). Os dois backends passam por aqui, então limites e estado dos
+ * circuitos valem para o tráfego somado.
+ */
+@Slf4j
+@Component
+public class AzureCallGate {
+
+    // Chamadas sem assinatura explícita (ex.: listar assinaturas) usam a padrão da sessão do az
+    public static final String DEFAULT_SUBSCRIPTION = "(padrão)";
+
+    private final AzureCliConfig azureCliConfig;
+    // Limita chamadas simultâneas, independente de quantas threads chamam
+    private final Semaphore commandSlots;
+    // Deleções (síncronas podem levar minutos) e o acompanhamento delas não disputam vaga com as leituras
+    private final Semaphore backgroundSlots;
+    private static final ThreadLocal<Boolean> BACKGROUND_LANE = ThreadLocal.withInitial(() -> false);
+
+    private final SubscriptionRateLimiter rateLimiter;
+    private final AtomicLong retriedCommands = new AtomicLong();
+    private final AtomicLong throttledCommands = new AtomicLong();
+    // Circuit breaker e bulkhead só valem para chamadas com assinatura explícita
+    private final SubscriptionCircuitBreaker circuitBreaker;
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicLong shortCircuitedCommands = new AtomicLong();
+
+    public AzureCallGate(AzureCliConfig azureCliConfig) {
+        this.azureCliConfig = azureCliConfig;
+        this.commandSlots = new Semaphore(Math.max(1, azureCliConfig.getMaxConcurrentCommands()), true);
+        this.backgroundSlots = new Semaphore(Math.max(1, azureCliConfig.getBackgroundMaxConcurrentCommands()), true);
+        this.rateLimiter = new SubscriptionRateLimiter(azureCliConfig);
+        this.circuitBreaker = new SubscriptionCircuitBreaker(azureCliConfig);
+    }
+
+    /**
+     * Executa a chamada com todas as proteções. Circuito aberto: falha na hora
+     * com CIRCUIT_OPEN em vez de esperar mais um timeout. O resultado final
+     * (depois das repetições) alimenta o breaker: só timeout, falha transitória
+     * e chamada cancelada já lenta contam como falha; NOT_FOUND prova que a
+     * assinatura responde; sessão expirada, 429 e erros do próprio comando
+     * (ex.: ScopeLocked, 409) não dizem nada sobre ela.
+     *
+     * @param readOnly  false = altera recursos; vai para as vagas de segundo plano
+     * @param retryable quais falhas repetir além do limite de tentativas
+     * @param attempt   recebe o número da tentativa (0 na primeira)
+     */
+    public <T> T call(String subscriptionId, boolean readOnly, String description,
+                      Predicate<AzureCliException> retryable, Attempt<T> attempt) throws AzureCliException {
+        if (DEFAULT_SUBSCRIPTION.equals(subscriptionId)) {
+            return callWithBackoff(subscriptionId, readOnly, description, retryable, attempt);
+        }
+        if (!circuitBreaker.tryAcquire(subscriptionId)) {
+            shortCircuitedCommands.incrementAndGet();
+            long retryIn = circuitBreaker.getRetryInMs(subscriptionId);
+            throw new AzureCliException("Assinatura " + subscriptionId + " indisponível: circuito aberto após falhas"
+                    + " seguidas, nova tentativa em " + retryIn + "ms", AzureErrorType.CIRCUIT_OPEN, retryIn);
+        }
+        long start = System.currentTimeMillis();
+        try {
+            T result = callWithBackoff(subscriptionId, readOnly, description, retryable, attempt);
+            circuitBreaker.onSuccess(subscriptionId);
+            return result;
+        } catch (AzureCliException e) {
+            switch (e.getType()) {
+                case NOT_FOUND -> circuitBreaker.onSuccess(subscriptionId);
+                case TIMEOUT, TRANSIENT -> recordFailure(subscriptionId, e);
+                case THROTTLED, AUTH_EXPIRED, CIRCUIT_OPEN -> circuitBreaker.onIgnored(subscriptionId);
+                default -> {
+                    // Cancelada (probe com timeout, fan-out abortado): só conta se já estava lenta
+                    boolean interrupted = e.getCause() instanceof InterruptedException;
+                    if (interrupted && System.currentTimeMillis() - start >= azureCliConfig.getBreakerSlowCallThreshold()) {
+                        recordFailure(subscriptionId, e);
+                    } else {
+                        circuitBreaker.onIgnored(subscriptionId);
+                    }
+                }
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored(subscriptionId);
+            throw e;
+        }
+    }
+
+    /**
+     * Executa a chamada com as chamadas ao Azure da thread atual nas vagas de
+     * segundo plano, como as de deleção (ex.: a listagem que acompanha
+     * deleções --no-wait).
+     */
+    public static <T> T inBackgroundLane(Call<T> call) throws AzureCliException {
+        if (BACKGROUND_LANE.get()) {
+            return call.call();
+        }
+        BACKGROUND_LANE.set(true);
+        try {
+            return call.call();
+        } finally {
+            BACKGROUND_LANE.remove();
+        }
+    }
+
+    public long getRetriedCommands() {
+        return retriedCommands.get();
+    }
+
+    public long getThrottledCommands() {
+        return throttledCommands.get();
+    }
+
+    public double getSubscriptionRate(String subscriptionId) {
+        return rateLimiter.getRate(subscriptionId);
+    }
+
+    public String getCircuitState(String subscriptionId) {
+        return circuitBreaker.getState(subscriptionId);
+    }
+
+    public long getShortCircuitedCommands() {
+        return shortCircuitedCommands.get();
+    }
+
+    public int getAvailableCommandSlots() {
+        return commandSlots.availablePermits();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("availableCommandSlots", getAvailableCommandSlots());
+        stats.put("availableBackgroundSlots", backgroundSlots.availablePermits());
+        stats.put("retried", retriedCommands.get());
+        stats.put("throttled", throttledCommands.get());
+        stats.put("shortCircuited", shortCircuitedCommands.get());
+        stats.put("subscriptions", rateLimiter.getStats());
+        stats.put("circuits", circuitBreaker.getStats());
+        Map<String, Integer> bulkheadSlots = new TreeMap<>();
+        bulkheads.forEach((subscriptionId, slots) -> bulkheadSlots.put(subscriptionId, slots.availablePermits()));
+        stats.put("bulkheadAvailableSlots", bulkheadSlots);
+        return stats;
+    }
+
+    private void recordFailure(String subscriptionId, AzureCliException e) {
+        boolean wasClosed = !SubscriptionCircuitBreaker.OPEN.equals(circuitBreaker.getState(subscriptionId));
+        circuitBreaker.onFailure(subscriptionId);
+        if (wasClosed && SubscriptionCircuitBreaker.OPEN.equals(circuitBreaker.getState(subscriptionId))) {
+            log.warn("🔌 Circuito da assinatura {} aberto por {}ms após falhas seguidas: {}", subscriptionId,
+                    azureCliConfig.getBreakerOpenDuration(), e.getMessage());
+        }
+    }
+
+    /**
+     * Passa pelo token bucket da assinatura e repete as falhas aceitas por
+     * "retryable" com espera exponencial e jitter; a espera nunca é menor que
+     * o Retry-After informado pelo Azure. A vaga não fica presa durante a espera.
+     */
+    private <T> T callWithBackoff(String subscriptionId, boolean readOnly, String description,
+                                  Predicate<AzureCliException> retryable, Attempt<T> attempt) throws AzureCliException {
+        for (int n = 0; ; n++) {
+            try {
+                rateLimiter.acquire(subscriptionId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AzureCliException("Interrompido aguardando limite de requisições da assinatura", e);
+            }
+            try {
+                T result = callInBulkhead(subscriptionId, readOnly, attempt, n);
+                rateLimiter.onSuccess(subscriptionId);
+                return result;
+            } catch (AzureCliException e) {
+                if (e.getType() == AzureErrorType.THROTTLED) {
+                    throttledCommands.incrementAndGet();
+                    rateLimiter.onThrottled(subscriptionId, e.getRetryAfterMs());
+                }
+                if (n >= azureCliConfig.getMaxRetries() || !retryable.test(e)) {
+                    throw e;
+                }
+                long delay = backoffDelay(n, e.getRetryAfterMs());
+                retriedCommands.incrementAndGet();
+                log.warn("⏳ Azure {} na assinatura {}: tentativa {}/{} em {}ms ({})", e.getType(), subscriptionId,
+                        n + 1, azureCliConfig.getMaxRetries(), delay, description);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new AzureCliException("Interrompido aguardando nova tentativa da chamada ao Azure", e);
+                }
+            }
+        }
+    }
+
+    // Vagas por assinatura, tomadas antes da vaga global: uma assinatura lenta não ocupa todas as vagas
+    private <T> T callInBulkhead(String subscriptionId, boolean readOnly, Attempt<T> attempt, int n)
+            throws AzureCliException {
+        int limit = azureCliConfig.getSubscriptionMaxConcurrentCommands();
+        if (limit <= 0 || DEFAULT_SUBSCRIPTION.equals(subscriptionId)) {
+            return callExclusive(readOnly, attempt, n);
+        }
+        Semaphore slots = bulkheads.computeIfAbsent(subscriptionId, id -> new Semaphore(limit, true));
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureCliException("Interrompido aguardando vaga da assinatura " + subscriptionId, e);
+        }
+        try {
+            return callExclusive(readOnly, attempt, n);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private <T> T callExclusive(boolean readOnly, Attempt<T> attempt, int n) throws AzureCliException {
+        Semaphore slots = !readOnly || BACKGROUND_LANE.get() ? backgroundSlots : commandSlots;
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureCliException("Interrompido aguardando vaga para chamada ao Azure", e);
+        }
+        try {
+            return attempt.run(n);
+        } finally {
+            slots.release();
+        }
+    }
+
+    // Jitter "igual": metade fixa + metade aleatória, para espalhar as repetições sem zerar a espera
+    long backoffDelay(int attempt, Long retryAfterMs) {
+        long cap = Math.min(azureCliConfig.getRetryMaxDelay(), azureCliConfig.getRetryBaseDelay() << Math.min(attempt, 20));
+        long delay = cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+        return retryAfterMs != null ? Math.max(delay, retryAfterMs) : delay;
+    }
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws AzureCliException;
+    }
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run(int attempt) throws AzureCliException;
+    }
+}
@@ -0,0 +1,320 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de processos Azure CLI de longa duração. Cada worker lê comandos no stdin
+ * e devolve respostas enquadradas (ver az_worker.py), de forma que o custo de
+ * inicialização do Python é pago uma vez por worker e não por comando.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AzureCliWorkerPool {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String WORKER_SCRIPT = "/azure-cli-worker/az_worker.py";
+
+    private final AzureCliConfig azureCliConfig;
+
+    private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicLong commandsExecuted = new AtomicLong();
+    private final AtomicLong workersStarted = new AtomicLong();
+    private final AtomicLong workersRecycled = new AtomicLong();
+    private volatile Path extractedScript;
+    private volatile boolean shutdown;
+
+    public boolean isEnabled() {
+        return azureCliConfig.isWorkerEnabled() && !shutdown;
+    }
+
+    public CommandOutput execute(String... args) throws AzureCliException, WorkerUnavailableException {
+        return execute(azureCliConfig.getTimeout(), args);
+    }
+
+    /**
+     * Executa num worker. WorkerUnavailableException só sai quando o comando
+     * não chegou a ser entregue (sem worker livre, falha ao iniciar ou ao
+     * escrever no stdin), único caso em que repetir em processo avulso é seguro.
+     * Se o worker morre ou estoura o tempo depois da entrega, a falha sai como
+     * TRANSIENT ou TIMEOUT.
+     */
+    public CommandOutput execute(long timeoutMs, String... args) throws AzureCliException, WorkerUnavailableException {
+        Worker worker = acquire();
+        boolean reusable = false;
+        try {
+            WorkerResponse response = worker.send(args, timeoutMs);
+            reusable = true;
+            commandsExecuted.incrementAndGet();
+            if (response.exitCode() != 0) {
+                String error = response.stderr().asString();
+                log.error("Erro ao executar comando Azure: {}", error);
+                throw AzureErrorClassifier.failure(response.exitCode(), error);
+            }
+            return response.stdout();
+        } catch (IOException e) {
+            if (!worker.delivered) {
+                throw new WorkerUnavailableException("Falha de comunicação com worker " + worker.id + ": " + e.getMessage());
+            }
+            if (worker.timedOut) {
+                throw new AzureCliException("Azure CLI excedeu o tempo limite de " + timeoutMs + "ms: "
+                        + String.join(" ", args), AzureErrorType.TIMEOUT, null);
+            }
+            throw new AzureCliException("Worker " + worker.id + " encerrou durante o comando: " + e.getMessage(),
+                    AzureErrorType.TRANSIENT, null);
+        } finally {
+            release(worker, reusable);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "liveWorkers", (long) liveWorkers.get(),
+                "idleWorkers", (long) idleWorkers.size(),
+                "commandsExecuted", commandsExecuted.get(),
+                "workersStarted", workersStarted.get(),
+                "workersRecycled", workersRecycled.get());
+    }
+
+    private Worker acquire() throws AzureCliException, WorkerUnavailableException {
+        long deadline = System.currentTimeMillis() + azureCliConfig.getWorkerAcquireTimeout();
+        while (true) {
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                worker = tryStartWorker();
+            }
+            if (worker == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new WorkerUnavailableException("Nenhum worker livre em "
+                            + azureCliConfig.getWorkerAcquireTimeout() + "ms");
+                }
+                try {
+                    worker = idleWorkers.poll(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Chamada cancelada: encerra aqui em vez de cair para um processo avulso
+                    Thread.currentThread().interrupt();
+                    throw new AzureCliException("Interrompido aguardando worker Azure CLI", e);
+                }
+                if (worker == null) {
+                    continue;
+                }
+            }
+            if (isHealthy(worker)) {
+                return worker;
+            }
+            discard(worker);
+        }
+    }
+
+    private Worker tryStartWorker() throws WorkerUnavailableException {
+        int current;
+        do {
+            current = liveWorkers.get();
+            if (current >= Math.max(1, azureCliConfig.getWorkerPoolSize())) {
+                return null;
+            }
+        } while (!liveWorkers.compareAndSet(current, current + 1));
+
+        try {
+            Worker worker = new Worker(workerCommand());
+            workersStarted.incrementAndGet();
+            log.info("🔧 Worker Azure CLI {} iniciado (pid {})", worker.id, worker.process.pid());
+            return worker;
+        } catch (IOException e) {
+            liveWorkers.decrementAndGet();
+            throw new WorkerUnavailableException("Não foi possível iniciar worker: " + e.getMessage());
+        }
+    }
+
+    private boolean isHealthy(Worker worker) {
+        if (!worker.process.isAlive()) {
+            return false;
+        }
+        long idleFor = System.currentTimeMillis() - worker.lastUsedAt;
+        if (idleFor < azureCliConfig.getWorkerHealthCheckInterval()) {
+            return true;
+        }
+        try {
+            worker.send(new String[0], azureCliConfig.getWorkerAcquireTimeout());
+            return true;
+        } catch (IOException e) {
+            log.warn("Worker {} falhou no health check: {}", worker.id, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(Worker worker, boolean reusable) {
+        if (!reusable || shutdown || !worker.process.isAlive()) {
+            discard(worker);
+            return;
+        }
+        if (worker.commands >= azureCliConfig.getWorkerMaxCommands()) {
+            log.debug("♻️ Reciclando worker {} após {} comandos", worker.id, worker.commands);
+            workersRecycled.incrementAndGet();
+            discard(worker);
+            return;
+        }
+        idleWorkers.offer(worker);
+    }
+
+    private void discard(Worker worker) {
+        worker.destroy();
+        liveWorkers.decrementAndGet();
+    }
+
+    private List<String> workerCommand() throws IOException {
+        if (azureCliConfig.getWorkerCommand() != null && !azureCliConfig.getWorkerCommand().isEmpty()) {
+            return azureCliConfig.getWorkerCommand();
+        }
+        return List.of(azureCliConfig.getWorkerPython(), extractScript().toString());
+    }
+
+    private Path extractScript() throws IOException {
+        if (extractedScript == null) {
+            synchronized (this) {
+                if (extractedScript == null) {
+                    Path script = Files.createTempFile("az_worker", ".py");
+                    script.toFile().deleteOnExit();
+                    try (InputStream in = AzureCliWorkerPool.class.getResourceAsStream(WORKER_SCRIPT)) {
+                        if (in == null) {
+                            throw new IOException("Script do worker não encontrado: " + WORKER_SCRIPT);
+                        }
+                        Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    extractedScript = script;
+                }
+            }
+        }
+        return extractedScript;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            discard(worker);
+        }
+    }
+
+    public static class WorkerUnavailableException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        public WorkerUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    record WorkerResponse(int exitCode, CommandOutput stdout, CommandOutput stderr) {}
+
+    private static final class Worker {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+        final int id = SEQUENCE.incrementAndGet();
+        final Process process;
+        final OutputStream stdin;
+        final InputStream stdout;
+        int commands;
+        // Estado do último send: comando chegou ao stdin / watchdog encerrou o processo
+        volatile boolean delivered;
+        volatile boolean timedOut;
+        volatile long lastUsedAt = System.currentTimeMillis();
+
+        Worker(List<String> command) throws IOException {
+            ProcessBuilder processBuilder = new ProcessBuilder(new ArrayList<>(command));
+            processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            this.process = processBuilder.start();
+            this.stdin = process.getOutputStream();
+            this.stdout = new BufferedInputStream(process.getInputStream());
+        }
+
+        WorkerResponse send(String[] args, long timeoutMs) throws IOException {
+            delivered = false;
+            timedOut = false;
+            ScheduledFuture<?> watchdog = ProcessSupport.destroyAfter(process, timeoutMs, () -> {
+                timedOut = true;
+                log.warn("Worker {} excedeu {}ms e será encerrado", id, timeoutMs);
+            });
+            try {
+                stdin.write(JSON.writeValueAsBytes(args));
+                stdin.write('\n');
+                stdin.flush();
+                delivered = true;
+
+                String[] header = readLine().split(" ");
+                if (header.length != 3) {
+                    throw new IOException("Cabeçalho inválido do worker: " + String.join(" ", header));
+                }
+                int exitCode = Integer.parseInt(header[0]);
+                CommandOutput out = CommandOutput.of(readExactly(Integer.parseInt(header[1])));
+                CommandOutput err = CommandOutput.of(readExactly(Integer.parseInt(header[2])));
+                if (args.length > 0) {
+                    commands++;
+                }
+                return new WorkerResponse(exitCode, out, err);
+            } catch (NumberFormatException e) {
+                throw new IOException("Cabeçalho inválido do worker", e);
+            } finally {
+                watchdog.cancel(false);
+                lastUsedAt = System.currentTimeMillis();
+            }
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+            int b;
+            while ((b = stdout.read()) != '\n') {
+                if (b == -1) {
+                    throw new IOException("Worker encerrou o stdout");
+                }
+                line.write(b);
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+
+        private byte[] readExactly(int length) throws IOException {
+            byte[] bytes = stdout.readNBytes(length);
+            if (bytes.length != length) {
+                throw new IOException("Resposta truncada do worker");
+            }
+            return bytes;
+        }
+
+        void destroy() {
+            try {
+                stdin.close();
+            } catch (IOException ignored) {
+                // processo já encerrado
+            }
+            process.destroy();
+        }
+    }
+}
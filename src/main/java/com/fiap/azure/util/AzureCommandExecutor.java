@@ -2,73 +2,237 @@ package com.fiap.azure.util;
 
 import com.fiap.azure.config.AzureCliConfig;
 import com.fiap.azure.exception.AzureCliException;
-import lombok.RequiredArgsConstructor;
+import com.fiap.azure.exception.AzureErrorType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AzureCommandExecutor {
 
     private final AzureCliConfig azureCliConfig;
+    private final AzureCliWorkerPool workerPool;
+    // Breaker, token bucket, bulkhead e vagas compartilhados com o backend REST
+    private final AzureCallGate callGate;
+
+    // Verbos sem efeito colateral: chamadas idênticas simultâneas compartilham o mesmo processo
+    private static final Set<String> READ_ONLY_VERBS = Set.of("list", "show", "exists", "query", "get-access-token");
+    private final Map<List<String>, CompletableFuture<CommandOutput>> inFlightReads = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCommands = new AtomicLong();
+
+    // Comandos sem --subscription usam a assinatura padrão do az
+    static final String DEFAULT_SUBSCRIPTION = AzureCallGate.DEFAULT_SUBSCRIPTION;
+    // Avisados quando um comando falha por sessão expirada (ex.: AzureAuthService descarta a sessão)
+    private final List<Runnable> authExpiredListeners = new CopyOnWriteArrayList<>();
+
+    public AzureCommandExecutor(AzureCliConfig azureCliConfig, AzureCliWorkerPool workerPool, AzureCallGate callGate) {
+        this.azureCliConfig = azureCliConfig;
+        this.workerPool = workerPool;
+        this.callGate = callGate;
+    }
 
     public String execute(String... args) throws AzureCliException {
+        return executeRaw(args).asString();
+    }
+
+    /**
+     * Executa o comando e devolve os bytes do stdout sem decodificar, prontos
+     * para {@code objectMapper.readTree(output.asInputStream())}.
+     */
+    public CommandOutput executeRaw(String... args) throws AzureCliException {
+        if (!azureCliConfig.isCoalesceReads() || !isReadOnly(args)) {
+            return executeWithRetry(args);
+        }
+        List<String> key = List.of(args);
+        CompletableFuture<CommandOutput> mine = new CompletableFuture<>();
+        CompletableFuture<CommandOutput> existing = inFlightReads.putIfAbsent(key, mine);
+        if (existing == null) {
+            try {
+                CommandOutput output = executeWithRetry(args);
+                mine.complete(output);
+                return output;
+            } catch (AzureCliException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlightReads.remove(key, mine);
+            }
+        }
+
+        coalescedCommands.incrementAndGet();
+        log.debug("Reaproveitando comando Azure CLI em andamento: {}", String.join(" ", args));
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureCliException("Interrompido aguardando comando Azure CLI em andamento", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AzureCliException cliException
+                    && !(cliException.getCause() instanceof InterruptedException)) {
+                throw cliException;
+            }
+            // A chamada original foi interrompida (ex.: fan-out cancelado): executa por conta própria
+            return executeRaw(args);
+        }
+    }
+
+    boolean isReadOnly(String... args) {
+        return args.length > 1 && READ_ONLY_VERBS.contains(args[1]);
+    }
+
+    public void onAuthExpired(Runnable listener) {
+        authExpiredListeners.add(listener);
+    }
+
+    public long getCoalescedCommands() {
+        return coalescedCommands.get();
+    }
+
+    public long getRetriedCommands() {
+        return callGate.getRetriedCommands();
+    }
+
+    public long getThrottledCommands() {
+        return callGate.getThrottledCommands();
+    }
+
+    public double getSubscriptionRate(String subscriptionId) {
+        return callGate.getSubscriptionRate(subscriptionId);
+    }
+
+    public String getCircuitState(String subscriptionId) {
+        return callGate.getCircuitState(subscriptionId);
+    }
+
+    public long getShortCircuitedCommands() {
+        return callGate.getShortCircuitedCommands();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(callGate.getStats());
+        stats.put("coalesced", coalescedCommands.get());
+        return stats;
+    }
+
+    /**
+     * Passa pelo {@link AzureCallGate}: circuit breaker, token bucket e
+     * bulkhead da assinatura e vaga global. 429 é repetido em qualquer
+     * comando; falha transitória, só em leituras.
+     */
+    CommandOutput executeWithRetry(String... args) throws AzureCliException {
+        return callGate.call(subscriptionOf(args), isReadOnly(args), String.join(" ", args),
+                error -> isRetryable(error, args), attempt -> executeAttempt(args));
+    }
+
+    private CommandOutput executeAttempt(String... args) throws AzureCliException {
+        try {
+            return executeWithSlot(args);
+        } catch (AzureCliException e) {
+            if (e.getType() == AzureErrorType.AUTH_EXPIRED) {
+                authExpiredListeners.forEach(Runnable::run);
+            }
+            throw e;
+        }
+    }
+
+    boolean isRetryable(AzureCliException error, String... args) {
+        return error.getType() == AzureErrorType.THROTTLED
+                || (error.getType() == AzureErrorType.TRANSIENT && isReadOnly(args));
+    }
+
+    static String subscriptionOf(String... args) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if ("--subscription".equals(args[i])) {
+                return args[i + 1];
+            }
+        }
+        return DEFAULT_SUBSCRIPTION;
+    }
+
+    public int getAvailableCommandSlots() {
+        return callGate.getAvailableCommandSlots();
+    }
+
+    // Já dentro da vaga: worker para leituras, senão processo avulso
+    CommandOutput executeWithSlot(String... args) throws AzureCliException {
+        // Só leituras vão para o worker: se ele morre no meio de um comando que altera recursos
+        // (ex.: group delete) não dá para saber se rodou, e repetir em processo avulso executaria duas vezes
+        if (workerPool.isEnabled() && isReadOnly(args)) {
+            try {
+                log.debug("Executando comando Azure CLI (worker): {}", String.join(" ", args));
+                return workerPool.execute(timeoutFor(args), args);
+            } catch (AzureCliWorkerPool.WorkerUnavailableException e) {
+                log.warn("Worker Azure CLI indisponível, usando processo avulso: {}", e.getMessage());
+            }
+        }
+        return executeOneShot(args);
+    }
+
+    private CommandOutput executeOneShot(String... args) throws AzureCliException {
+        Process process = null;
         try {
             ProcessBuilder processBuilder = new ProcessBuilder();
             processBuilder.command(buildCommand(args));
 
             log.debug("Executando comando Azure CLI: {}", String.join(" ", args));
 
-            Process process = processBuilder.start();
-            String result = readOutput(process);
+            process = processBuilder.start();
+            process.getOutputStream().close();
 
-            int exitCode = process.waitFor();
+            // stdout e stderr drenados em paralelo: o processo nunca trava com um pipe cheio
+            // e a thread chamadora espera em waitFor, que responde a interrupção/cancelamento
+            CompletableFuture<CommandOutput> output = ProcessSupport.drainAsync(process.getInputStream());
+            CompletableFuture<CommandOutput> error = ProcessSupport.drainAsync(process.getErrorStream());
+
+            long timeout = timeoutFor(args);
+            if (timeout <= 0) {
+                process.waitFor();
+            } else if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                log.error("Comando Azure CLI excedeu {}ms: {}", timeout, String.join(" ", args));
+                throw new AzureCliException("Azure CLI excedeu o tempo limite de "
+                        + timeout + "ms: " + String.join(" ", args), AzureErrorType.TIMEOUT, null);
+            }
+            int exitCode = process.exitValue();
             if (exitCode != 0) {
-                String error = readError(process);
-                log.error("Erro ao executar comando Azure: {}", error);
-                throw new AzureCliException("Azure CLI retornou código " + exitCode + ": " + error);
+                String message = error.get().asString();
+                log.error("Erro ao executar comando Azure: {}", message);
+                throw AzureErrorClassifier.failure(exitCode, message);
             }
 
-            return result;
-        } catch (IOException | InterruptedException e) {
+            return output.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            log.error("Execução do comando Azure CLI interrompida", e);
+            throw new AzureCliException("Execução do comando Azure CLI interrompida", e);
+        } catch (IOException | ExecutionException e) {
             log.error("Erro ao executar comando Azure CLI", e);
             throw new AzureCliException("Erro na execução do comando Azure CLI", e);
         }
     }
 
+    // Leituras usam azure.cli.timeout; deleções síncronas e demais alterações, o prazo próprio
+    long timeoutFor(String... args) {
+        return isReadOnly(args) ? azureCliConfig.getTimeout() : azureCliConfig.getMutationTimeout();
+    }
+
     private String[] buildCommand(String[] args) {
         String[] command = new String[args.length + 1];
         command[0] = azureCliConfig.getPath();
         System.arraycopy(args, 0, command, 1, args.length);
         return command;
     }
-
-    private String readOutput(Process process) throws IOException {
-        StringBuilder output = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-        return output.toString();
-    }
-
-    private String readError(Process process) throws IOException {
-        StringBuilder error = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getErrorStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                error.append(line).append("\n");
-            }
-        }
-        return error.toString();
-    }
 }
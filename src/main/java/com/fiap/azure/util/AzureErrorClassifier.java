@@ -0,0 +1,104 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Classifica o stderr da Azure CLI (códigos ARM/AAD e mensagens HTTP) e extrai
+ * a espera sugerida pelo Azure, quando a mensagem traz uma.
+ */
+public final class AzureErrorClassifier {
+
+    private static final String[] THROTTLED = {
+        "toomanyrequests", "(429)", "status code 429", "throttl", "requeststhrottled", "rate limit"
+    };
+    private static final String[] AUTH_EXPIRED = {
+        "expiredauthenticationtoken", "invalidauthenticationtoken", "aadsts70043", "aadsts700082",
+        "aadsts50173", "token is expired", "token has expired", "az login", "refresh token has expired"
+    };
+    private static final String[] NOT_FOUND = {
+        "resourcegroupnotfound", "resourcenotfound", "subscriptionnotfound", "(notfound)", "could not be found",
+        "was not found"
+    };
+    private static final String[] TRANSIENT = {
+        "internalservererror", "serviceunavailable", "gatewaytimeout", "badgateway", "(500)", "(502)", "(503)",
+        "(504)", "connection aborted", "connection reset", "remotedisconnected", "temporarily unavailable",
+        "max retries exceeded", "read timed out", "retryableerror"
+    };
+
+    // "Retry-After: 17", "retry after 17 seconds", "try again after '17' seconds"
+    private static final Pattern RETRY_AFTER = Pattern.compile(
+            "(?:retry-after['\"]?\\s*[:=]\\s*['\"]?|(?:retry|try again) after\\s*'?)(\\d{1,5})",
+            Pattern.CASE_INSENSITIVE);
+
+    private AzureErrorClassifier() {
+    }
+
+    public static AzureErrorType classify(String stderr) {
+        if (stderr == null || stderr.isEmpty()) {
+            return AzureErrorType.UNKNOWN;
+        }
+        String text = stderr.toLowerCase(Locale.ROOT);
+        if (containsAny(text, THROTTLED)) {
+            return AzureErrorType.THROTTLED;
+        }
+        if (containsAny(text, AUTH_EXPIRED)) {
+            return AzureErrorType.AUTH_EXPIRED;
+        }
+        if (containsAny(text, NOT_FOUND)) {
+            return AzureErrorType.NOT_FOUND;
+        }
+        if (containsAny(text, TRANSIENT)) {
+            return AzureErrorType.TRANSIENT;
+        }
+        return AzureErrorType.UNKNOWN;
+    }
+
+    /**
+     * Espera sugerida em ms (o Azure informa em segundos), ou null.
+     */
+    public static Long retryAfterMs(String stderr) {
+        if (stderr == null) {
+            return null;
+        }
+        Matcher matcher = RETRY_AFTER.matcher(stderr);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) * 1000L : null;
+    }
+
+    /**
+     * Exceção classificada para um comando que terminou com código diferente de zero.
+     */
+    public static AzureCliException failure(int exitCode, String stderr) {
+        return new AzureCliException("Azure CLI retornou código " + exitCode + ": " + stderr,
+                classify(stderr), retryAfterMs(stderr));
+    }
+
+    /**
+     * Exceção classificada para uma resposta de erro da API REST do ARM; o
+     * status decide quando é conclusivo, senão o corpo passa pelas mesmas regras do stderr.
+     */
+    public static AzureCliException httpFailure(int status, String body, Long retryAfterMs) {
+        AzureErrorType type = switch (status) {
+            case 429 -> AzureErrorType.THROTTLED;
+            case 401 -> AzureErrorType.AUTH_EXPIRED;
+            case 404 -> AzureErrorType.NOT_FOUND;
+            case 500, 502, 503, 504 -> AzureErrorType.TRANSIENT;
+            default -> classify(body);
+        };
+        return new AzureCliException("ARM retornou HTTP " + status + ": " + body, type,
+                retryAfterMs != null ? retryAfterMs : retryAfterMs(body));
+    }
+
+    private static boolean containsAny(String text, String[] needles) {
+        for (String needle : needles) {
+            if (text.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
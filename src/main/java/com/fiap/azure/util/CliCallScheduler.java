@@ -0,0 +1,168 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor dedicado às chamadas da Azure CLI. Usa threads virtuais no Java 21+
+ * (chamadas bloqueiam em Process.waitFor, não em CPU) e um pool de plataforma
+ * dimensionado no Java 17. O limite de chamadas simultâneas fica no
+ * AzureCallGate, então este pool pode ser maior que ele.
+ */
+@Slf4j
+@Component
+public class CliCallScheduler {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "az-call-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AzureCliConfig azureCliConfig;
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    public CliCallScheduler(AzureCliConfig azureCliConfig) {
+        this.azureCliConfig = azureCliConfig;
+        ExecutorService virtualExecutor = azureCliConfig.isVirtualThreads() ? newVirtualThreadExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.executor = virtual ? virtualExecutor : Executors.newFixedThreadPool(
+                Math.max(1, azureCliConfig.getSchedulerThreads()), r -> {
+                    Thread t = new Thread(r, "az-call-" + SEQUENCE.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        log.info("Agendador de chamadas Azure CLI: {}", virtual ? "threads virtuais"
+                : azureCliConfig.getSchedulerThreads() + " threads de plataforma");
+    }
+
+    public <T> Future<T> submit(Callable<T> call) {
+        return executor.submit(call);
+    }
+
+    /**
+     * Executa as chamadas em paralelo e devolve os resultados na ordem de entrada.
+     * Se o prazo (azure.cli.fan-out-timeout) estourar ou a thread chamadora for
+     * interrompida, as chamadas pendentes são canceladas e seus processos encerrados.
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> calls) throws AzureCliException {
+        List<Future<T>> futures = new ArrayList<>(calls.size());
+        for (Callable<T> call : calls) {
+            futures.add(executor.submit(call));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(azureCliConfig.getFanOutTimeout());
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            throw new AzureCliException("Chamadas Azure CLI excederam " + azureCliConfig.getFanOutTimeout() + "ms", e);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new AzureCliException("Chamadas Azure CLI canceladas", e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof AzureCliException cliException) {
+                throw cliException;
+            }
+            throw new AzureCliException("Erro em chamada Azure CLI: " + e.getCause().getMessage(), e.getCause());
+        } catch (CancellationException e) {
+            cancelAll(futures);
+            throw new AzureCliException("Chamadas Azure CLI canceladas", e);
+        }
+    }
+
+    /**
+     * Executa a chamada quando houver permissão em {@code permits}. O prazo só
+     * começa a contar quando a chamada obtém a permissão; ao estourar, o future
+     * falha com TimeoutException e a thread (e o processo az) é interrompida.
+     */
+    public <T> CompletableFuture<T> submitBounded(Callable<T> call, Semaphore permits, long timeoutMs) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            Thread runner = Thread.currentThread();
+            ScheduledFuture<?> timer = TIMER.schedule(() -> {
+                if (result.completeExceptionally(new TimeoutException("Excedeu " + timeoutMs + "ms"))) {
+                    runner.interrupt();
+                }
+            }, timeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                result.complete(call.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                timer.cancel(false);
+                permits.release();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        int cancelled = 0;
+        for (Future<?> future : futures) {
+            if (future.cancel(true)) {
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            log.warn("⛔ {} chamada(s) Azure CLI canceladas", cancelled);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Resolvido por reflexão para o mesmo build rodar em Java 17 e 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.fiap.azure.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Saída bruta de um comando Azure CLI. Mantém o buffer em que os bytes foram
+ * lidos, sem cópias intermediárias, para que o Jackson consuma direto do array.
+ */
+public final class CommandOutput {
+
+    private static final int INITIAL_CAPACITY = 8192;
+
+    private final byte[] bytes;
+    private final int length;
+
+    public CommandOutput(byte[] bytes, int length) {
+        this.bytes = bytes;
+        this.length = length;
+    }
+
+    public static CommandOutput of(byte[] bytes) {
+        return new CommandOutput(bytes, bytes.length);
+    }
+
+    /** Lê o stream até o fim em um buffer que cresce conforme necessário. */
+    public static CommandOutput readFully(InputStream in) throws IOException {
+        Buffer buffer = new Buffer();
+        in.transferTo(buffer);
+        return buffer.toOutput();
+    }
+
+    public InputStream asInputStream() {
+        return new ByteArrayInputStream(bytes, 0, length);
+    }
+
+    public String asString() {
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(INITIAL_CAPACITY);
+        }
+
+        CommandOutput toOutput() {
+            // Compartilha o array interno em vez de copiar como toByteArray()
+            return new CommandOutput(buf, count);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Grupos e recursos de uma assinatura guardados em colunas: tipo, região e
+ * estado viram códigos de um {@link StringDictionary} compartilhado, os
+ * recursos de todos os grupos ficam em arrays contínuos e os ids ARM são
+ * remontados a partir de assinatura, grupo, tipo e nome quando pedidos. Só o
+ * que não bate com o id remontado (caixa diferente, formatos fora do padrão)
+ * é guardado à parte.
+ *
+ * Imutável. {@link #groups()} devolve sempre a mesma lista, que cria os
+ * objetos ResourceGroup/Resource sob demanda; alterá-los não afeta o inventário.
+ */
+public final class CompactInventory {
+
+    private final StringDictionary dictionary;
+    private final String subscriptionId;
+
+    private final String[] groupNames;
+    private final int[] groupLocations;
+    private final int[] groupStates;
+    // Recursos do grupo g: posições [groupStarts[g], groupStarts[g + 1])
+    private final int[] groupStarts;
+
+    private final String[] resourceNames;
+    private final int[] resourceTypes;
+    private final int[] resourceLocations;
+
+    // Exceções ao valor derivado das partes, por posição (normalmente vazias)
+    private final Map<Integer, String> groupIds;
+    private final Map<Integer, String> resourceIds;
+    private final Map<Integer, String> resourceGroupNames;
+
+    private final List<ResourceGroup> groupsView = new GroupsView();
+
+    private CompactInventory(StringDictionary dictionary, String subscriptionId, int groupCount, int resourceCount) {
+        this.dictionary = dictionary;
+        this.subscriptionId = subscriptionId;
+        this.groupNames = new String[groupCount];
+        this.groupLocations = new int[groupCount];
+        this.groupStates = new int[groupCount];
+        this.groupStarts = new int[groupCount + 1];
+        this.resourceNames = new String[resourceCount];
+        this.resourceTypes = new int[resourceCount];
+        this.resourceLocations = new int[resourceCount];
+        this.groupIds = new HashMap<>();
+        this.resourceIds = new HashMap<>();
+        this.resourceGroupNames = new HashMap<>();
+    }
+
+    public static CompactInventory of(String subscriptionId, List<ResourceGroup> groups, StringDictionary dictionary) {
+        int resourceCount = 0;
+        for (ResourceGroup group : groups) {
+            resourceCount += group.getResources() != null ? group.getResources().size() : 0;
+        }
+        CompactInventory inventory = new CompactInventory(dictionary, subscriptionId, groups.size(), resourceCount);
+        int r = 0;
+        for (int g = 0; g < groups.size(); g++) {
+            ResourceGroup group = groups.get(g);
+            inventory.groupNames[g] = group.getName();
+            inventory.groupLocations[g] = dictionary.code(group.getLocation());
+            inventory.groupStates[g] = dictionary.code(group.getProvisioningState());
+            inventory.groupStarts[g] = r;
+            if (!Objects.equals(group.getId(), inventory.groupId(g))) {
+                inventory.groupIds.put(g, group.getId());
+            }
+            if (group.getResources() == null) {
+                continue;
+            }
+            for (Resource resource : group.getResources()) {
+                inventory.resourceNames[r] = resource.getName();
+                inventory.resourceTypes[r] = dictionary.code(resource.getType());
+                inventory.resourceLocations[r] = dictionary.code(resource.getLocation());
+                if (!Objects.equals(resource.getResourceGroup(), group.getName())) {
+                    inventory.resourceGroupNames.put(r, resource.getResourceGroup());
+                }
+                if (!Objects.equals(resource.getId(), inventory.derivedResourceId(g, r))) {
+                    inventory.resourceIds.put(r, resource.getId());
+                }
+                r++;
+            }
+        }
+        inventory.groupStarts[groups.size()] = r;
+        return inventory;
+    }
+
+    /**
+     * Grupos com seus recursos, na ordem original. Sempre a mesma instância.
+     */
+    public List<ResourceGroup> groups() {
+        return groupsView;
+    }
+
+    public int groupCount() {
+        return groupNames.length;
+    }
+
+    public int resourceCount() {
+        return resourceNames.length;
+    }
+
+    private String groupId(int g) {
+        return groupIds.containsKey(g) ? groupIds.get(g)
+                : "/subscriptions/" + subscriptionId + "/resourceGroups/" + groupNames[g];
+    }
+
+    private String resourceId(int g, int r) {
+        return resourceIds.containsKey(r) ? resourceIds.get(r) : derivedResourceId(g, r);
+    }
+
+    // "Microsoft.Sql/servers/databases" + "srv/db" → .../providers/Microsoft.Sql/servers/srv/databases/db
+    private String derivedResourceId(int g, int r) {
+        String type = dictionary.value(resourceTypes[r]);
+        String name = resourceNames[r];
+        if (type == null || name == null) {
+            return null;
+        }
+        StringBuilder id = new StringBuilder(128).append("/subscriptions/").append(subscriptionId)
+                .append("/resourceGroups/").append(groupNames[g]).append("/providers/");
+        int typeSlash = type.indexOf('/');
+        if (typeSlash < 0) {
+            return null;
+        }
+        id.append(type, 0, typeSlash);
+        int typeFrom = typeSlash + 1;
+        int nameFrom = 0;
+        while (typeFrom <= type.length() && nameFrom <= name.length()) {
+            int typeTo = type.indexOf('/', typeFrom);
+            int nameTo = name.indexOf('/', nameFrom);
+            typeTo = typeTo < 0 ? type.length() : typeTo;
+            nameTo = nameTo < 0 ? name.length() : nameTo;
+            id.append('/').append(type, typeFrom, typeTo).append('/').append(name, nameFrom, nameTo);
+            typeFrom = typeTo + 1;
+            nameFrom = nameTo + 1;
+        }
+        return id.toString();
+    }
+
+    private ResourceGroup group(int g) {
+        return new ResourceGroup(groupId(g), groupNames[g], dictionary.value(groupLocations[g]),
+                dictionary.value(groupStates[g]), new ResourcesView(g));
+    }
+
+    private Resource resource(int g, int r) {
+        String resourceGroup = resourceGroupNames.containsKey(r) ? resourceGroupNames.get(r) : groupNames[g];
+        return new Resource(resourceId(g, r), resourceNames[r], dictionary.value(resourceTypes[r]),
+                dictionary.value(resourceLocations[r]), resourceGroup);
+    }
+
+    private final class GroupsView extends AbstractList<ResourceGroup> implements RandomAccess {
+        @Override
+        public ResourceGroup get(int index) {
+            Objects.checkIndex(index, groupNames.length);
+            return group(index);
+        }
+
+        @Override
+        public int size() {
+            return groupNames.length;
+        }
+    }
+
+    private final class ResourcesView extends AbstractList<Resource> implements RandomAccess {
+        private final int group;
+
+        ResourcesView(int group) {
+            this.group = group;
+        }
+
+        @Override
+        public Resource get(int index) {
+            Objects.checkIndex(index, size());
+            return resource(group, groupStarts[group] + index);
+        }
+
+        @Override
+        public int size() {
+            return groupStarts[group + 1] - groupStarts[group];
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.fiap.azure.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Padrões de exclusão compilados uma vez: conjunto hash para "exact", trie para
+ * "startsWith", Aho-Corasick para "contains" e uma única regex combinada para
+ * "glob" e outra para "regex". Cada nome é convertido para minúsculas uma vez
+ * e percorrido uma vez por estrutura, independente da quantidade de padrões.
+ * Regex com grupo nomeado ou referência a grupo (ex.: \1) é compilada à parte:
+ * na combinada, a numeração e os nomes dos grupos mudariam.
+ */
+public final class GroupNameMatcher {
+
+    public static final String EXACT = "exact";
+    public static final String STARTS_WITH = "startsWith";
+    public static final String CONTAINS = "contains";
+    public static final String GLOB = "glob";
+    public static final String REGEX = "regex";
+
+    private static final GroupNameMatcher NONE = builder().build();
+    private static final Pattern GROUP_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)|\\(\\?<[a-zA-Z]");
+    private static final int REGEX_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+    private final Set<String> exact;
+    private final Trie prefixes;
+    private final AhoCorasick substrings;
+    private final Pattern globs;
+    private final Pattern regexes;
+    private final List<Pattern> isolatedRegexes;
+    private final int patternCount;
+
+    private GroupNameMatcher(Builder builder) {
+        this.exact = builder.exact.isEmpty() ? null : Set.copyOf(builder.exact);
+        this.prefixes = builder.prefixes.isEmpty() ? null : new Trie(builder.prefixes);
+        this.substrings = builder.substrings.isEmpty() ? null : new AhoCorasick(builder.substrings);
+        this.globs = combine(builder.globs, 0);
+        this.regexes = combine(builder.regexes, REGEX_FLAGS);
+        this.isolatedRegexes = builder.isolatedRegexes.stream()
+                .map(expression -> Pattern.compile(expression, REGEX_FLAGS))
+                .collect(Collectors.toUnmodifiableList());
+        this.patternCount = builder.count;
+    }
+
+    public static GroupNameMatcher none() {
+        return NONE;
+    }
+
+    public static GroupNameMatcher of(String matchMode, Collection<String> patterns) {
+        return builder().add(matchMode, patterns).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean matches(String groupName) {
+        if (patternCount == 0) {
+            return false;
+        }
+        String name = groupName.toLowerCase(Locale.ROOT);
+        return (exact != null && exact.contains(name))
+                || (prefixes != null && prefixes.matchesPrefixOf(name))
+                || (substrings != null && substrings.occursIn(name))
+                || (globs != null && globs.matcher(name).matches())
+                || (regexes != null && regexes.matcher(groupName).find())
+                || matchesIsolated(groupName);
+    }
+
+    private boolean matchesIsolated(String groupName) {
+        for (Pattern regex : isolatedRegexes) {
+            if (regex.matcher(groupName).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    private static Pattern combine(List<String> expressions, int flags) {
+        if (expressions.isEmpty()) {
+            return null;
+        }
+        StringBuilder combined = new StringBuilder();
+        for (String expression : expressions) {
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            combined.append("(?:").append(expression).append(')');
+        }
+        return Pattern.compile(combined.toString(), flags);
+    }
+
+    // "*" = qualquer sequência, "?" = um caractere; o resto é literal
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    public static final class Builder {
+        private final Set<String> exact = new HashSet<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<String> substrings = new ArrayList<>();
+        private final List<String> globs = new ArrayList<>();
+        private final List<String> regexes = new ArrayList<>();
+        private final List<String> isolatedRegexes = new ArrayList<>();
+        private int count;
+
+        private Builder() {
+        }
+
+        /**
+         * @throws IllegalArgumentException modo desconhecido ou regex inválida
+         */
+        public Builder add(String matchMode, Collection<String> patterns) {
+            String mode = matchMode != null ? matchMode : EXACT;
+            for (String raw : patterns) {
+                if (raw == null || raw.trim().isEmpty()) {
+                    continue;
+                }
+                String pattern = raw.trim();
+                String lower = pattern.toLowerCase(Locale.ROOT);
+                switch (mode) {
+                    case EXACT -> exact.add(lower);
+                    case STARTS_WITH -> prefixes.add(lower);
+                    case CONTAINS -> substrings.add(lower);
+                    case GLOB -> globs.add(globToRegex(lower));
+                    case REGEX -> {
+                        // Valida cada expressão isoladamente para apontar a culpada
+                        Pattern.compile(pattern);
+                        (GROUP_REFERENCE.matcher(pattern).find() ? isolatedRegexes : regexes).add(pattern);
+                    }
+                    default -> throw new IllegalArgumentException("Modo de correspondência inválido: " + mode);
+                }
+                count++;
+            }
+            return this;
+        }
+
+        public GroupNameMatcher build() {
+            return new GroupNameMatcher(this);
+        }
+    }
+
+    private static final class Trie {
+        private final Node root = new Node();
+
+        Trie(Collection<String> words) {
+            for (String word : words) {
+                Node node = root;
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.children.computeIfAbsent(word.charAt(i), c -> new Node());
+                }
+                node.terminal = true;
+            }
+        }
+
+        boolean matchesPrefixOf(String text) {
+            Node node = root;
+            if (node.terminal) {
+                return true;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                node = node.children.get(text.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final class Node {
+            final Map<Character, Node> children = new HashMap<>(4);
+            boolean terminal;
+        }
+    }
+
+    private static final class AhoCorasick {
+        private final Map<Character, Integer>[] transitions;
+        private final int[] failure;
+        private final boolean[] output;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        AhoCorasick(Collection<String> words) {
+            List<Map<Character, Integer>> states = new ArrayList<>();
+            List<Boolean> terminal = new ArrayList<>();
+            states.add(new HashMap<>(4));
+            terminal.add(false);
+            for (String word : words) {
+                int state = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    Integer next = states.get(state).get(word.charAt(i));
+                    if (next == null) {
+                        next = states.size();
+                        states.add(new HashMap<>(4));
+                        terminal.add(false);
+                        states.get(state).put(word.charAt(i), next);
+                    }
+                    state = next;
+                }
+                terminal.set(state, true);
+            }
+
+            transitions = states.toArray(new Map[0]);
+            failure = new int[transitions.length];
+            output = new boolean[transitions.length];
+            for (int i = 0; i < output.length; i++) {
+                output[i] = terminal.get(i);
+            }
+
+            // Links de falha em largura; a saída herda a do sufixo (padrão contido em outro)
+            Queue<Integer> queue = new ArrayDeque<>(transitions[0].values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : transitions[state].entrySet()) {
+                    int child = edge.getValue();
+                    if (state != 0) {
+                        int fallback = failure[state];
+                        while (fallback != 0 && !transitions[fallback].containsKey(edge.getKey())) {
+                            fallback = failure[fallback];
+                        }
+                        Integer target = transitions[fallback].get(edge.getKey());
+                        failure[child] = target != null ? target : 0;
+                        output[child] |= output[failure[child]];
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+
+        boolean occursIn(String text) {
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                Integer next;
+                while ((next = transitions[state].get(c)) == null && state != 0) {
+                    state = failure[state];
+                }
+                state = next != null ? next : 0;
+                if (output[state]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
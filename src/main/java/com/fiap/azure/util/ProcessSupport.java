@@ -0,0 +1,53 @@
+package com.fiap.azure.util;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads compartilhadas para drenar streams de processos filhos e encerrar
+ * processos que excedem o tempo limite.
+ */
+final class ProcessSupport {
+
+    private static final AtomicInteger DRAINER_SEQUENCE = new AtomicInteger();
+
+    private static final ExecutorService DRAINERS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "az-stream-drainer-" + DRAINER_SEQUENCE.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "az-process-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ProcessSupport() {
+    }
+
+    static CompletableFuture<CommandOutput> drainAsync(InputStream in) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (in) {
+                return CommandOutput.readFully(in);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, DRAINERS);
+    }
+
+    static ScheduledFuture<?> destroyAfter(Process process, long timeoutMs, Runnable onTimeout) {
+        return WATCHDOG.schedule(() -> {
+            if (process.isAlive()) {
+                onTimeout.run();
+                process.destroyForcibly();
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,186 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.exception.AzureCliException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Cache com TTL, limite de entradas (LRU), stale-while-revalidate e single-flight.
+ *
+ * Entradas dentro do TTL são servidas direto. Entre o TTL e TTL + staleWindow o
+ * valor antigo é devolvido na hora e uma única atualização roda em background.
+ * Depois disso, ou sem entrada, a carga é síncrona e chamadas concorrentes para
+ * a mesma chave aguardam a mesma carga.
+ */
+@Slf4j
+public class RefreshingCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws AzureCliException;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+
+    private final String name;
+    private final long ttlMs;
+    private final long staleWindowMs;
+    private final Executor refreshExecutor;
+    private final Map<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RefreshingCache(String name, long ttlMs, long staleWindowMs, int maxEntries, Executor refreshExecutor) {
+        this.name = name;
+        this.ttlMs = ttlMs;
+        this.staleWindowMs = staleWindowMs;
+        this.refreshExecutor = refreshExecutor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Loader<V> loader) throws AzureCliException {
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        long now = System.currentTimeMillis();
+        if (entry != null) {
+            long age = now - entry.loadedAt();
+            if (age <= ttlMs) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            if (age <= ttlMs + staleWindowMs) {
+                staleHits.incrementAndGet();
+                refreshInBackground(key, loader);
+                return entry.value();
+            }
+        }
+        misses.incrementAndGet();
+        return load(key, loader);
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry != null ? entry.value() : null;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(K key) {
+        // Cargas em andamento para a chave não gravam mais o resultado
+        loading.remove(key);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        loading.keySet().removeIf(predicate);
+        synchronized (entries) {
+            entries.keySet().removeIf(predicate);
+        }
+    }
+
+    public void clear() {
+        invalidateIf(k -> true);
+    }
+
+    public Map<String, Long> getStats() {
+        long size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("misses", misses.get());
+        stats.put("loads", loads.get());
+        stats.put("loadFailures", loadFailures.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private V load(K key, Loader<V> loader) throws AzureCliException {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        runLoad(key, loader, mine);
+        return await(mine);
+    }
+
+    private void refreshInBackground(K key, Loader<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, mine) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> runLoad(key, loader, mine));
+        } catch (RuntimeException e) {
+            loading.remove(key, mine);
+            mine.completeExceptionally(e);
+        }
+    }
+
+    private void runLoad(K key, Loader<V> loader, CompletableFuture<V> future) {
+        loads.incrementAndGet();
+        try {
+            V value = loader.load();
+            if (loading.remove(key, future)) {
+                put(key, value);
+            }
+            future.complete(value);
+        } catch (Exception e) {
+            loading.remove(key, future);
+            loadFailures.incrementAndGet();
+            log.debug("Falha ao carregar cache {} [{}]: {}", name, key, e.getMessage());
+            future.completeExceptionally(e);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) throws AzureCliException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AzureCliException cliException) {
+                throw cliException;
+            }
+            throw new AzureCliException("Erro ao carregar cache " + name + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
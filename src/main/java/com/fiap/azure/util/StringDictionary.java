@@ -0,0 +1,52 @@
+package com.fiap.azure.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dicionário só de inclusão para valores de baixa cardinalidade (tipo de
+ * recurso, região, provisioningState): cada valor distinto é guardado uma vez
+ * e referenciado por um código int. Leituras sem lock; códigos nunca mudam.
+ */
+public final class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    public int code(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = value;
+            // Escrita volátil publica o valor antes de o código ficar visível
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    public String value(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,147 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker por assinatura: após azure.cli.breaker-failure-threshold
+ * falhas seguidas o circuito abre e as chamadas falham na hora durante
+ * azure.cli.breaker-open-duration. Depois disso uma única chamada de teste
+ * (meio-aberto) decide se fecha ou abre de novo.
+ */
+public class SubscriptionCircuitBreaker {
+
+    public static final String CLOSED = "CLOSED";
+    public static final String OPEN = "OPEN";
+    public static final String HALF_OPEN = "HALF_OPEN";
+
+    private final AzureCliConfig azureCliConfig;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public SubscriptionCircuitBreaker(AzureCliConfig azureCliConfig) {
+        this.azureCliConfig = azureCliConfig;
+    }
+
+    public boolean isEnabled() {
+        return azureCliConfig.getBreakerFailureThreshold() > 0;
+    }
+
+    /**
+     * @return false quando a chamada deve ser recusada sem executar
+     */
+    public boolean tryAcquire(String subscriptionId) {
+        return !isEnabled() || circuit(subscriptionId).tryAcquire();
+    }
+
+    public void onSuccess(String subscriptionId) {
+        if (isEnabled()) {
+            circuit(subscriptionId).onSuccess();
+        }
+    }
+
+    public void onFailure(String subscriptionId) {
+        if (isEnabled()) {
+            circuit(subscriptionId).onFailure();
+        }
+    }
+
+    /** Chamada de teste que terminou sem veredito (ex.: cancelada): libera para a próxima. */
+    public void onIgnored(String subscriptionId) {
+        if (isEnabled()) {
+            circuit(subscriptionId).onIgnored();
+        }
+    }
+
+    public String getState(String subscriptionId) {
+        Circuit circuit = circuits.get(subscriptionId);
+        return circuit != null ? circuit.state() : CLOSED;
+    }
+
+    public long getRetryInMs(String subscriptionId) {
+        Circuit circuit = circuits.get(subscriptionId);
+        return circuit != null ? circuit.retryInMs() : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> perSubscription = new TreeMap<>();
+        circuits.forEach((subscriptionId, circuit) -> perSubscription.put(subscriptionId, circuit.view()));
+        return perSubscription;
+    }
+
+    private Circuit circuit(String subscriptionId) {
+        return circuits.computeIfAbsent(subscriptionId, id -> new Circuit());
+    }
+
+    private final class Circuit {
+        private String state = CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probing;
+        private long rejected;
+        private long opened;
+
+        synchronized boolean tryAcquire() {
+            if (OPEN.equals(state)) {
+                if (System.currentTimeMillis() - openedAt < azureCliConfig.getBreakerOpenDuration()) {
+                    rejected++;
+                    return false;
+                }
+                state = HALF_OPEN;
+            }
+            if (HALF_OPEN.equals(state)) {
+                if (probing) {
+                    rejected++;
+                    return false;
+                }
+                probing = true;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            probing = false;
+            state = CLOSED;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (HALF_OPEN.equals(state) || consecutiveFailures >= azureCliConfig.getBreakerFailureThreshold()) {
+                if (!OPEN.equals(state)) {
+                    opened++;
+                }
+                state = OPEN;
+                openedAt = System.currentTimeMillis();
+                probing = false;
+            }
+        }
+
+        synchronized void onIgnored() {
+            probing = false;
+        }
+
+        synchronized String state() {
+            return state;
+        }
+
+        synchronized long retryInMs() {
+            return OPEN.equals(state)
+                    ? Math.max(0, openedAt + azureCliConfig.getBreakerOpenDuration() - System.currentTimeMillis())
+                    : 0;
+        }
+
+        synchronized Map<String, Object> view() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("state", state);
+            view.put("consecutiveFailures", consecutiveFailures);
+            view.put("retryInMs", retryInMs());
+            view.put("opened", opened);
+            view.put("rejected", rejected);
+            return view;
+        }
+    }
+}
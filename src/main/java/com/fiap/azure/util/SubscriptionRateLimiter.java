@@ -0,0 +1,121 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket por assinatura com taxa adaptativa: cada 429 reduz a taxa pela
+ * metade (e pausa a assinatura pelo Retry-After), cada sucesso devolve um pouco
+ * da taxa até o máximo configurado. Assim o fan-out de uma assinatura
+ * estrangulada desacelera sem afetar as demais.
+ */
+public class SubscriptionRateLimiter {
+
+    private final AzureCliConfig azureCliConfig;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public SubscriptionRateLimiter(AzureCliConfig azureCliConfig) {
+        this.azureCliConfig = azureCliConfig;
+    }
+
+    public boolean isEnabled() {
+        return azureCliConfig.getSubscriptionRateLimit() > 0;
+    }
+
+    /**
+     * Bloqueia até haver token para a assinatura.
+     */
+    public void acquire(String subscriptionId) throws InterruptedException {
+        if (!isEnabled()) {
+            return;
+        }
+        long waitNanos = bucket(subscriptionId).reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public void onSuccess(String subscriptionId) {
+        if (isEnabled()) {
+            bucket(subscriptionId).increase();
+        }
+    }
+
+    public void onThrottled(String subscriptionId, Long retryAfterMs) {
+        if (isEnabled()) {
+            bucket(subscriptionId).decrease(retryAfterMs);
+        }
+    }
+
+    public double getRate(String subscriptionId) {
+        Bucket bucket = buckets.get(subscriptionId);
+        return bucket != null ? bucket.rate() : azureCliConfig.getSubscriptionRateLimit();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> perSubscription = new TreeMap<>();
+        buckets.forEach((subscriptionId, bucket) -> perSubscription.put(subscriptionId, bucket.view()));
+        return perSubscription;
+    }
+
+    private Bucket bucket(String subscriptionId) {
+        return buckets.computeIfAbsent(subscriptionId, id -> new Bucket());
+    }
+
+    private final class Bucket {
+        private double rate = azureCliConfig.getSubscriptionRateLimit();
+        private double tokens = azureCliConfig.getSubscriptionBurst();
+        private long refilledAt = System.nanoTime();
+        private long pausedUntil = refilledAt;
+        private long throttled;
+
+        // Reserva um token (o saldo pode ficar negativo) e devolve quanto o chamador deve esperar
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            refill(now);
+            tokens -= 1;
+            long wait = tokens >= 0 ? 0 : (long) (-tokens / rate * 1_000_000_000L);
+            return Math.max(wait, pausedUntil - now);
+        }
+
+        synchronized void increase() {
+            refill(System.nanoTime());
+            rate = Math.min(azureCliConfig.getSubscriptionRateLimit(),
+                    rate + azureCliConfig.getSubscriptionRateLimit() * 0.05);
+        }
+
+        synchronized void decrease(Long retryAfterMs) {
+            long now = System.nanoTime();
+            refill(now);
+            throttled++;
+            rate = Math.max(azureCliConfig.getSubscriptionRateMin(), rate / 2);
+            // Descarta a rajada acumulada: depois de um 429 o ritmo é o da taxa reduzida
+            tokens = Math.min(tokens, 0);
+            if (retryAfterMs != null) {
+                pausedUntil = Math.max(pausedUntil, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+            }
+        }
+
+        synchronized double rate() {
+            return rate;
+        }
+
+        synchronized Map<String, Object> view() {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("rate", Math.round(rate * 100) / 100.0);
+            view.put("throttled", throttled);
+            view.put("pausedMs", Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntil - System.nanoTime())));
+            return view;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(azureCliConfig.getSubscriptionBurst(), tokens + (now - refilledAt) / 1e9 * rate);
+            refilledAt = now;
+        }
+    }
+}
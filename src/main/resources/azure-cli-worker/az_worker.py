@@ -0,0 +1,54 @@
+# Worker persistente da Azure CLI.
+#
+# Protocolo (stdin/stdout):
+#   requisição: uma linha com um array JSON de argumentos ("[]" = ping)
+#   resposta:   "<exitCode> <bytesStdout> <bytesStderr>\n" seguido dos bytes
+#
+# Os módulos da CLI ficam carregados entre comandos, eliminando o custo de
+# inicialização do interpretador e das extensões a cada chamada.
+
+import io
+import json
+import sys
+
+
+def run(args):
+    from azure.cli.core import get_default_cli
+
+    out, err = io.StringIO(), io.StringIO()
+    real_out, real_err = sys.stdout, sys.stderr
+    sys.stdout, sys.stderr = out, err
+    try:
+        code = get_default_cli().invoke(args, out_file=out)
+    except SystemExit as e:
+        code = e.code if isinstance(e.code, int) else 1
+    except Exception as e:  # noqa: BLE001
+        err.write(str(e))
+        code = 1
+    finally:
+        sys.stdout, sys.stderr = real_out, real_err
+    return code or 0, out.getvalue(), err.getvalue()
+
+
+def main():
+    stdin = sys.stdin.buffer
+    stdout = sys.stdout.buffer
+    while True:
+        line = stdin.readline()
+        if not line:
+            break
+        args = json.loads(line)
+        if args:
+            code, out, err = run(args)
+        else:
+            code, out, err = 0, "", ""
+        out_bytes = out.encode("utf-8")
+        err_bytes = err.encode("utf-8")
+        stdout.write(("%d %d %d\n" % (code, len(out_bytes), len(err_bytes))).encode("ascii"))
+        stdout.write(out_bytes)
+        stdout.write(err_bytes)
+        stdout.flush()
+
+
+if __name__ == "__main__":
+    main()
@@ -2,7 +2,8 @@
 // AZURE RESOURCE MANAGER DASHBOARD - JavaScript
 // ════════════════════════════════════════════════════════════════════════════
 
-// Intervalo para verificar status de deleção
+// Stream SSE de status de deleção e intervalo do polling (fallback)
+let statusEventSource = null;
 let statusCheckInterval = null;
 
 // Registro de grupos já notificados (evita toasts duplicados)
@@ -28,6 +29,138 @@ function switchSubscription(element) {
     }, 300);
 }
 
+// ════════════════════════════════════════════════════════════════════════════
+// LISTA DE GRUPOS (PAGINADA)
+// ════════════════════════════════════════════════════════════════════════════
+
+const GROUP_PAGE_SIZE = 50;
+const GROUP_LOADING_RETRY_MS = 2000;
+
+// Estado da listagem: cursor da próxima página e total que corresponde ao filtro
+const groupListing = { cursor: null, done: false, loading: false, matched: 0, generation: 0, retryTimer: null };
+let groupSearchTimer = null;
+let groupObserver = null;
+
+function escapeHtml(value) {
+    return String(value ?? '').replace(/[&<>"']/g, c => ({
+        '&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;', "'": '&#39;'
+    })[c]);
+}
+
+function groupsUrl(subscriptionId) {
+    const [sort, order] = (document.getElementById('group-sort')?.value || 'name:asc').split(':');
+    const params = new URLSearchParams({ limit: GROUP_PAGE_SIZE, sort, order });
+    const query = document.getElementById('group-search')?.value.trim();
+    if (query) params.set('q', query);
+    if (groupListing.cursor) params.set('cursor', groupListing.cursor);
+    return `/api/subscriptions/${encodeURIComponent(subscriptionId)}/groups?${params}`;
+}
+
+function loadNextGroupPage() {
+    const subscriptionId = getCurrentSubscriptionId();
+    if (!subscriptionId || groupListing.loading || groupListing.done || groupListing.retryTimer) return;
+
+    groupListing.loading = true;
+    const generation = groupListing.generation;
+    fetch(groupsUrl(subscriptionId))
+        .then(r => r.json().then(body => ({ ok: r.ok, body })))
+        .then(({ ok, body }) => {
+            // Filtro/ordenação mudou enquanto a página carregava
+            if (generation !== groupListing.generation) return;
+            if (!ok) throw new Error(body.error || 'Erro ao carregar grupos');
+
+            const container = document.getElementById('resource-groups-container');
+            if (body.loading) {
+                // Primeira carga da assinatura rodando no servidor: tenta de novo em instantes
+                container.innerHTML = '<div class="empty-state"><p>Carregando grupos de recursos...</p></div>';
+                groupListing.retryTimer = setTimeout(() => {
+                    groupListing.retryTimer = null;
+                    if (generation === groupListing.generation) loadNextGroupPage();
+                }, GROUP_LOADING_RETRY_MS);
+                return;
+            }
+            if (!groupListing.cursor) container.innerHTML = '';
+            container.insertAdjacentHTML('beforeend', body.items.map(renderGroupCard).join(''));
+            groupListing.cursor = body.nextCursor;
+            groupListing.done = !body.nextCursor;
+            groupListing.matched = body.matched;
+            updateGroupCount();
+
+            if (body.matched === 0) {
+                container.innerHTML = body.total === 0
+                    ? '<div class="empty-state"><p>Nenhum grupo de recursos encontrado nesta assinatura</p></div>'
+                    : '<div class="empty-state"><p>Nenhum grupo corresponde ao filtro</p></div>';
+            }
+            if (body.items.some(group => group.deleting)) {
+                startStatusUpdates();
+            }
+        })
+        .catch(error => {
+            console.error('Erro ao carregar grupos:', error);
+            showToast('Erro ao carregar grupos: ' + error.message, 'error');
+            groupListing.done = true;
+        })
+        .finally(() => {
+            if (generation !== groupListing.generation) return;
+            groupListing.loading = false;
+            const sentinel = document.getElementById('groups-sentinel');
+            if (sentinel) sentinel.style.display = groupListing.done ? 'none' : 'flex';
+            // Página curta para preencher a tela: o sentinela continua visível e o observer não dispara de novo
+            if (!groupListing.done && !groupListing.retryTimer && sentinel
+                    && sentinel.getBoundingClientRect().top < window.innerHeight) {
+                loadNextGroupPage();
+            }
+        });
+}
+
+function reloadGroups() {
+    groupListing.generation++;
+    clearTimeout(groupListing.retryTimer);
+    groupListing.retryTimer = null;
+    groupListing.cursor = null;
+    groupListing.done = false;
+    groupListing.loading = false;
+    document.getElementById('resource-groups-container').innerHTML = '';
+    loadNextGroupPage();
+}
+
+function onGroupSearchInput() {
+    clearTimeout(groupSearchTimer);
+    groupSearchTimer = setTimeout(reloadGroups, 300);
+}
+
+function renderGroupCard(group) {
+    const name = escapeHtml(group.name);
+    const disabled = group.deleting ? 'disabled' : '';
+    const overlay = group.deleting
+        ? '<div class="deleting-overlay"><div class="deleting-spinner"></div><span>Excluindo...</span></div>'
+        : '';
+    return `
+        <div class="resource-group-card resource-group-card-compact${group.deleting ? ' card-deleting' : ''}"
+             data-group-name="${name}" id="group-${name}">
+            ${overlay}
+            <div class="card-header">
+                <input type="checkbox" class="group-checkbox" value="${name}" ${disabled} onchange="updateSelectedCount()">
+                <h4>${name}</h4>
+                <button class="btn-delete-single" data-group-name="${name}" ${disabled}
+                        onclick="deleteGroupFromButton(this)">🗑️</button>
+            </div>
+            <div class="card-body card-body-compact">
+                <div class="info-grid info-grid-compact">
+                    <div class="info-item">
+                        <strong>📍</strong>
+                        <span class="text-small">${escapeHtml(group.location)}</span>
+                    </div>
+                    <div class="info-item" style="cursor: pointer;" onclick="toggleResources(this)">
+                        <strong>📊</strong>
+                        <span class="badge-count resource-count-badge" title="Clique para expandir/recolher recursos">${group.resourceCount}</span>
+                    </div>
+                </div>
+            </div>
+            <div class="resources-list" style="display: none;"></div>
+        </div>`;
+}
+
 // ════════════════════════════════════════════════════════════════════════════
 // EXPANSÃO DE RECURSOS
 // ════════════════════════════════════════════════════════════════════════════
@@ -38,6 +171,9 @@ function toggleResources(element) {
     const badge = element.querySelector('.resource-count-badge');
     
     if (resourcesList.style.display === 'none') {
+        if (!card.dataset.resourcesLoaded) {
+            loadGroupResources(card, resourcesList);
+        }
         resourcesList.style.display = 'block';
         badge.style.backgroundColor = '#ff9500';
         badge.style.color = 'white';
@@ -48,6 +184,34 @@ function toggleResources(element) {
     }
 }
 
+// Recursos buscados só na primeira expansão do card
+function loadGroupResources(card, resourcesList) {
+    card.dataset.resourcesLoaded = 'true';
+    resourcesList.innerHTML = '<div class="empty-resources"><p>Carregando recursos...</p></div>';
+    const groupName = card.getAttribute('data-group-name');
+    fetch(`/api/subscriptions/${encodeURIComponent(getCurrentSubscriptionId())}/groups/${encodeURIComponent(groupName)}/resources`)
+        .then(r => r.json().then(body => ({ ok: r.ok, body })))
+        .then(({ ok, body }) => {
+            if (!ok) throw new Error(body.error || 'Erro ao carregar recursos');
+            resourcesList.innerHTML = body.length === 0
+                ? '<div class="empty-resources"><p>Nenhum recurso neste grupo</p></div>'
+                : '<div class="resources-content">' + body.map(resource => `
+                    <div class="resource-item">
+                        <div class="resource-header">
+                            <span class="resource-icon">📦</span>
+                            <span class="resource-name">${escapeHtml(resource.name)}</span>
+                        </div>
+                        <div class="resource-details">
+                            <p><strong>Tipo:</strong> <span class="resource-type">${escapeHtml(resource.type)}</span></p>
+                        </div>
+                    </div>`).join('') + '</div>';
+        })
+        .catch(error => {
+            delete card.dataset.resourcesLoaded;
+            resourcesList.innerHTML = `<div class="empty-resources"><p>${escapeHtml(error.message)}</p></div>`;
+        });
+}
+
 // ════════════════════════════════════════════════════════════════════════════
 // MODAL DELETAR TUDO COM FILTRO DE EXCLUSÃO
 // ════════════════════════════════════════════════════════════════════════════
@@ -87,6 +251,11 @@ function getMatchMode() {
     return document.querySelector('input[name="match-mode"]:checked').value;
 }
 
+function globToRegExp(glob) {
+    const escaped = glob.replace(/[.+^${}()|[\]\\]/g, '\\$&');
+    return new RegExp('^' + escaped.replace(/\*/g, '.*').replace(/\?/g, '.') + '$');
+}
+
 function shouldExcludeGroup(groupName, patterns, matchMode) {
     const lowerGroupName = groupName.toLowerCase();
     
@@ -103,6 +272,16 @@ function shouldExcludeGroup(groupName, patterns, matchMode) {
             case 'startsWith':
                 if (lowerGroupName.startsWith(lowerPattern)) return true;
                 break;
+            case 'glob':
+                if (globToRegExp(lowerPattern).test(lowerGroupName)) return true;
+                break;
+            case 'regex':
+                try {
+                    if (new RegExp(pattern, 'i').test(groupName)) return true;
+                } catch (e) {
+                    // Expressão inválida: o servidor recusa a requisição
+                }
+                break;
         }
     }
     return false;
@@ -178,7 +357,7 @@ function executeDeleteAll(excludePatterns, matchMode) {
         const name = card.getAttribute('data-group-name');
         if (name && !shouldExcludeGroup(name, excludePatterns, matchMode)) {
             markCardAsDeleting(name);
-            notifiedGroups.delete(name);
+            notifiedGroups.delete(statusKey(getCurrentSubscriptionId(), name));
         }
     });
     
@@ -201,7 +380,7 @@ function executeDeleteAll(excludePatterns, matchMode) {
                 msg = `Deletando grupos (exceto ${excludePatterns.length} filtro(s))...`;
             }
             showToast(msg, 'info');
-            startStatusPolling();
+            startStatusUpdates();
         } else {
             showToast('Erro: ' + d.message, 'error');
         }
@@ -232,7 +411,7 @@ function deleteGroup(groupName) {
 
     if (confirm(`Tem certeza que deseja deletar o grupo "${groupName}"?`)) {
         markCardAsDeleting(groupName);
-        notifiedGroups.delete(groupName);
+        notifiedGroups.delete(statusKey(getCurrentSubscriptionId(), groupName));
         
         fetch('/api/delete-group?groupName=' + encodeURIComponent(groupName) + '&subscriptionId=' + encodeURIComponent(subscriptionId), {
             method: 'POST',
@@ -242,7 +421,7 @@ function deleteGroup(groupName) {
         .then(d => {
             if (d.status === 'started') {
                 showToast(`Deletando "${groupName}" em segundo plano...`, 'info');
-                startStatusPolling();
+                startStatusUpdates();
             } else {
                 showToast('Erro: ' + d.message, 'error');
                 unmarkCardAsDeleting(groupName);
@@ -274,7 +453,7 @@ function deleteSelectedGroups() {
     if (confirm(`Tem certeza que deseja deletar ${groups.length} grupo(s)?`)) {
         groups.forEach(g => {
             markCardAsDeleting(g);
-            notifiedGroups.delete(g);
+            notifiedGroups.delete(statusKey(getCurrentSubscriptionId(), g));
         });
         
         fetch('/api/delete-groups', {
@@ -289,7 +468,7 @@ function deleteSelectedGroups() {
         .then(d => {
             if (d.status === 'started') {
                 showToast(`Deletando ${groups.length} grupo(s) em segundo plano...`, 'info');
-                startStatusPolling();
+                startStatusUpdates();
             } else {
                 showToast('Erro: ' + d.message, 'error');
                 groups.forEach(g => unmarkCardAsDeleting(g));
@@ -315,7 +494,7 @@ function deleteAllSubscription() {
             const name = card.getAttribute('data-group-name');
             if (name) {
                 markCardAsDeleting(name);
-                notifiedGroups.delete(name);
+                notifiedGroups.delete(statusKey(getCurrentSubscriptionId(), name));
             }
         });
         
@@ -327,7 +506,7 @@ function deleteAllSubscription() {
         .then(d => {
             if (d.status === 'started') {
                 showToast('Deletando todos os grupos em segundo plano...', 'info');
-                startStatusPolling();
+                startStatusUpdates();
             } else {
                 showToast('Erro: ' + d.message, 'error');
             }
@@ -382,21 +561,63 @@ function removeCard(groupName) {
         card.style.animation = 'fadeOut 0.5s ease forwards';
         setTimeout(() => {
             card.remove();
+            groupListing.matched = Math.max(0, groupListing.matched - 1);
             updateGroupCount();
         }, 500);
     }
 }
 
+// Total do filtro atual (inclui grupos de páginas ainda não carregadas)
 function updateGroupCount() {
-    const count = document.querySelectorAll('.resource-group-card').length;
-    const badge = document.querySelector('.content-header .badge-count');
-    if (badge) badge.textContent = count;
+    const badge = document.getElementById('group-count');
+    if (badge) badge.textContent = groupListing.matched;
 }
 
 // ════════════════════════════════════════════════════════════════════════════
-// POLLING DE STATUS
+// STATUS DE DELEÇÃO (SSE COM FALLBACK PARA POLLING)
 // ════════════════════════════════════════════════════════════════════════════
 
+// Último status conhecido de cada grupo
+const deletionStatus = new Map();
+
+function startStatusUpdates() {
+    if (statusEventSource || statusCheckInterval) return;
+
+    if (!window.EventSource) {
+        startStatusPolling();
+        return;
+    }
+
+    // Reconexões automáticas reenviam o Last-Event-ID e recebem só o que foi perdido
+    statusEventSource = new EventSource('/api/deletion-events');
+    statusEventSource.addEventListener('snapshot', e => {
+        // Estado inicial: a deleção recém-pedida pode ainda não ter sido enfileirada
+        Object.values(JSON.parse(e.data)).forEach(applyStatus);
+    });
+    statusEventSource.addEventListener('status', e => {
+        applyStatus(JSON.parse(e.data));
+        stopStatusUpdatesIfIdle();
+    });
+    statusEventSource.onerror = () => {
+        if (statusEventSource.readyState === EventSource.CLOSED) {
+            console.warn('Stream de status indisponível, usando polling');
+            statusEventSource = null;
+            startStatusPolling();
+        }
+    };
+}
+
+function stopStatusUpdatesIfIdle() {
+    for (const status of deletionStatus.values()) {
+        if (status.status === 'DELETING') return;
+    }
+    if (statusEventSource) {
+        statusEventSource.close();
+        statusEventSource = null;
+    }
+    stopStatusPolling();
+}
+
 function startStatusPolling() {
     if (statusCheckInterval) return;
     
@@ -417,37 +638,47 @@ function stopStatusPolling() {
 function checkDeletionStatus() {
     fetch('/api/deletion-status')
         .then(r => r.json())
-        .then(statusMap => {
-            let hasDeleting = false;
-            
-            for (const [groupName, status] of Object.entries(statusMap)) {
-                if (status.status === 'DELETING') {
-                    hasDeleting = true;
-                    markCardAsDeleting(groupName);
-                } else if (status.status === 'COMPLETED') {
-                    if (!notifiedGroups.has(groupName)) {
-                        notifiedGroups.add(groupName);
-                        showToast(`✅ "${groupName}" deletado com sucesso!`, 'success');
-                        removeCard(groupName);
-                    }
-                } else if (status.status === 'FAILED') {
-                    if (!notifiedGroups.has(groupName)) {
-                        notifiedGroups.add(groupName);
-                        showToast(`❌ Erro ao deletar "${groupName}": ${status.message}`, 'error');
-                        unmarkCardAsDeleting(groupName);
-                    }
-                }
-            }
-            
-            if (!hasDeleting) {
-                stopStatusPolling();
-            }
-        })
+        .then(statusMap => applyStatusMap(statusMap))
         .catch(e => {
             console.error('Erro ao verificar status:', e);
         });
 }
 
+function applyStatusMap(statusMap) {
+    Object.values(statusMap).forEach(applyStatus);
+    stopStatusUpdatesIfIdle();
+}
+
+// Grupos com o mesmo nome podem existir em assinaturas diferentes
+function statusKey(subscriptionId, groupName) {
+    return `${subscriptionId}/${groupName.toLowerCase()}`;
+}
+
+function applyStatus(status) {
+    const groupName = status.groupName;
+    const key = statusKey(status.subscriptionId, groupName);
+    // Cards exibidos pertencem à assinatura atual
+    const currentSubscriptionId = getCurrentSubscriptionId();
+    const onThisPage = !currentSubscriptionId || currentSubscriptionId === status.subscriptionId;
+
+    deletionStatus.set(key, status);
+    if (status.status === 'DELETING') {
+        if (onThisPage) markCardAsDeleting(groupName);
+    } else if (status.status === 'COMPLETED') {
+        if (!notifiedGroups.has(key)) {
+            notifiedGroups.add(key);
+            showToast(`✅ "${groupName}" deletado com sucesso!`, 'success');
+            if (onThisPage) removeCard(groupName);
+        }
+    } else if (status.status === 'FAILED') {
+        if (!notifiedGroups.has(key)) {
+            notifiedGroups.add(key);
+            showToast(`❌ Erro ao deletar "${groupName}": ${status.message}`, 'error');
+            if (onThisPage) unmarkCardAsDeleting(groupName);
+        }
+    }
+}
+
 // ════════════════════════════════════════════════════════════════════════════
 // TOAST NOTIFICATIONS
 // ════════════════════════════════════════════════════════════════════════════
@@ -501,9 +732,12 @@ function updateSelectedCount() {
 
 function refreshData() {
     showLoading();
-    setTimeout(() => {
-        location.reload();
-    }, 300);
+    // Força a atualização do inventário em memória antes de recarregar a página
+    const subscriptionId = new URLSearchParams(window.location.search).get('subscriptionId');
+    const query = subscriptionId ? '?subscriptionId=' + encodeURIComponent(subscriptionId) : '';
+    fetch('/api/snapshot/refresh' + query, { method: 'POST' })
+        .catch(error => console.error('Erro ao atualizar inventário:', error))
+        .finally(() => location.reload());
 }
 
 function showLoading() {
@@ -526,10 +760,20 @@ function hideLoading() {
 
 document.addEventListener('DOMContentLoaded', function() {
     hideLoading();
+
+    // Assinaturas ainda carregando no servidor: recarrega a página quando devem estar prontas
+    if (document.getElementById('inventory-loading')) {
+        setTimeout(() => window.location.reload(), 3000);
+    }
     
-    const deletingCards = document.querySelectorAll('.card-deleting');
-    if (deletingCards.length > 0) {
-        startStatusPolling();
+    // Próxima página quando o fim da lista entra na tela
+    const sentinel = document.getElementById('groups-sentinel');
+    if (sentinel && getCurrentSubscriptionId()) {
+        groupObserver = new IntersectionObserver(entries => {
+            if (entries.some(entry => entry.isIntersecting)) loadNextGroupPage();
+        }, { rootMargin: '400px' });
+        groupObserver.observe(sentinel);
+        loadNextGroupPage();
     }
     
     // Fechar modal ao clicar fora
@@ -0,0 +1,81 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureCliWorkerPool;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.StubAzWorker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processo avulso por comando vs. pool de workers persistentes.
+ * O stub simula o custo de inicialização do interpretador com startupMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AzureCliWorkerPoolBenchmark {
+
+    @Param({"0", "300"})
+    public long startupMs;
+
+    private AzureCommandExecutor oneShot;
+    private AzureCommandExecutor pooled;
+    private AzureCliWorkerPool pool;
+    private Path script;
+
+    @Setup
+    public void setUp() throws Exception {
+        script = Files.createTempFile("fake-az", ".sh");
+        Files.writeString(script, "#!/bin/sh\nsleep " + (startupMs / 1000.0) + "\necho '[]'\n");
+        script.toFile().setExecutable(true);
+
+        AzureCliConfig oneShotConfig = new AzureCliConfig();
+        oneShotConfig.setPath(script.toString());
+        oneShot = new AzureCommandExecutor(oneShotConfig, new AzureCliWorkerPool(oneShotConfig),
+                new AzureCallGate(oneShotConfig));
+
+        AzureCliConfig pooledConfig = new AzureCliConfig();
+        pooledConfig.setWorkerEnabled(true);
+        pooledConfig.setWorkerPoolSize(1);
+        pooledConfig.setWorkerMaxCommands(Integer.MAX_VALUE);
+        pooledConfig.setWorkerCommand(StubAzWorker.command(startupMs));
+        pool = new AzureCliWorkerPool(pooledConfig);
+        pooled = new AzureCommandExecutor(pooledConfig, pool, new AzureCallGate(pooledConfig));
+        pooled.execute("account", "show");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        pool.shutdown();
+        Files.deleteIfExists(script);
+    }
+
+    @Benchmark
+    public String oneShotProcess() throws Exception {
+        return oneShot.execute("group", "list", "--output", "json");
+    }
+
+    @Benchmark
+    public String pooledWorker() throws Exception {
+        return pooled.execute("group", "list", "--output", "json");
+    }
+}
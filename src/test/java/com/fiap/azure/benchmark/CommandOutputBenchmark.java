@@ -0,0 +1,82 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureCliWorkerPool;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura linha a linha com StringBuilder (implementação anterior) vs. buffer
+ * de bytes entregue direto ao Jackson. Rodar com "-prof gc" para comparar
+ * gc.alloc.rate.norm (bytes alocados por chamada). O stub é "cat" de um JSON
+ * de vários MB no formato de "az resource list".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandOutputBenchmark {
+
+    @Param({"5000", "20000"})
+    public int resources;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AzureCommandExecutor executor;
+    private Path payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = Files.createTempFile("az-resource-list", ".json");
+        Files.writeString(payload, SyntheticPayloads.resourceList(resources, "rg-bench"));
+
+        AzureCliConfig config = new AzureCliConfig();
+        config.setPath("/bin/cat");
+        executor = new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(payload);
+    }
+
+    @Benchmark
+    public JsonNode legacyLineReader() throws Exception {
+        Process process = new ProcessBuilder("/bin/cat", payload.toString()).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append("\n");
+            }
+        }
+        process.waitFor();
+        return objectMapper.readTree(output.toString());
+    }
+
+    @Benchmark
+    public JsonNode byteBufferToJackson() throws Exception {
+        return objectMapper.readTree(executor.executeRaw(payload.toString()).asInputStream());
+    }
+}
@@ -0,0 +1,176 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.AzureResourceManagerApplication;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.config.AzureSnapshotConfig;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.service.InventorySnapshotService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo até o primeiro byte do dashboard com uma assinatura sintética de 1.000
+ * grupos (10 recursos cada), servida pela aplicação real numa porta local com
+ * o inventário em memória no lugar do Azure. Página + primeira página de
+ * grupos é o que o usuário espera até ver os primeiros cards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardTtfbBenchmark {
+
+    private static final String SUBSCRIPTION = "sub-bench";
+
+    @Param({"1000"})
+    public int groups;
+
+    @Param({"10"})
+    public int resourcesPerGroup;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ResourceGroup> inventory = syntheticGroups(groups, resourcesPerGroup);
+        context = new SpringApplicationBuilder(AzureResourceManagerApplication.class)
+                .properties("server.port=0", "azure.snapshot.enabled=false", "azure.deletion.journal-enabled=false",
+                        "azure.deletion.exclusion-policies-path=", "logging.level.com.fiap.azure=WARN")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("syntheticInventory",
+                        InventorySnapshotService.class, () -> new SyntheticInventory(inventory),
+                        definition -> definition.setPrimary(true)))
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /** Casca da página (sem os grupos). Antes da paginação era a página inteira renderizada. */
+    @Benchmark
+    public int dashboardFirstByte() throws Exception {
+        return firstByte("/?subscriptionId=" + SUBSCRIPTION);
+    }
+
+    @Benchmark
+    public int dashboardComplete() throws Exception {
+        return complete("/?subscriptionId=" + SUBSCRIPTION);
+    }
+
+    @Benchmark
+    public int firstGroupPageComplete() throws Exception {
+        return complete("/api/subscriptions/" + SUBSCRIPTION + "/groups?limit=50");
+    }
+
+    @Benchmark
+    public int expandGroupComplete() throws Exception {
+        return complete("/api/subscriptions/" + SUBSCRIPTION + "/groups/rg-aluno-500/resources");
+    }
+
+    private int firstByte(String path) throws Exception {
+        HttpResponse<InputStream> response = client.send(request(path), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            int first = body.read();
+            body.transferTo(OutputStreamSink.INSTANCE);
+            return first;
+        }
+    }
+
+    private int complete(String path) throws Exception {
+        return client.send(request(path), HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    private HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    static List<ResourceGroup> syntheticGroups(int groups, int resourcesPerGroup) {
+        List<ResourceGroup> result = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            String name = "rg-aluno-" + g;
+            String groupId = "/subscriptions/" + SUBSCRIPTION + "/resourceGroups/" + name;
+            List<Resource> resources = new ArrayList<>(resourcesPerGroup);
+            for (int r = 0; r < resourcesPerGroup; r++) {
+                resources.add(new Resource(groupId + "/providers/Microsoft.Compute/virtualMachines/vm-" + r,
+                        "vm-" + r, "Microsoft.Compute/virtualMachines", "eastus", name));
+            }
+            result.add(new ResourceGroup(groupId, name, g % 3 == 0 ? "westeurope" : "eastus", "Succeeded", resources));
+        }
+        return result;
+    }
+
+    static final class SyntheticInventory extends InventorySnapshotService {
+        private final List<ResourceGroup> inventory;
+
+        SyntheticInventory(List<ResourceGroup> inventory) {
+            super(null, null, null, new AzureInventoryConfig(), disabledSnapshot());
+            this.inventory = inventory;
+        }
+
+        private static AzureSnapshotConfig disabledSnapshot() {
+            AzureSnapshotConfig config = new AzureSnapshotConfig();
+            config.setEnabled(false);
+            return config;
+        }
+
+        @Override
+        public List<Subscription> getSubscriptions() {
+            return List.of(new Subscription(SUBSCRIPTION, SUBSCRIPTION, "Enabled", "Assinatura sintética"));
+        }
+
+        @Override
+        public List<ResourceGroup> getResourceGroups(String subscriptionId) {
+            return inventory;
+        }
+
+        @Override
+        public Long getAgeMs(String subscriptionId) {
+            return 1000L;
+        }
+    }
+
+    // Descarta o restante do corpo sem alocar: a conexão volta limpa para o pool
+    private static final class OutputStreamSink extends java.io.OutputStream {
+        static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
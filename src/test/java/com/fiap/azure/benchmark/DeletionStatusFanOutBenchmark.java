@@ -0,0 +1,84 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.service.DeletionStatusService.DeletionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trabalho do servidor em uma janela de 3s (intervalo do polling do dashboard)
+ * durante uma limpeza: N clientes fazendo polling de /api/deletion-status
+ * (cópia + serialização do mapa inteiro por cliente) vs. N clientes no stream
+ * SSE (cada transição serializada uma vez e escrita para cada cliente).
+ * Tempo por janela / 3s = fração de um core ocupada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeletionStatusFanOutBenchmark {
+
+    @Param({"30", "300"})
+    public int clients;
+
+    @Param({"500"})
+    public int groups;
+
+    // Transições (DELETING -> COMPLETED) que ocorrem em uma janela de 3s
+    @Param({"20"})
+    public int transitionsPerWindow;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<String, DeletionStatus> statusMap = new ConcurrentHashMap<>();
+    private DeletionStatus[] transitions;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < groups; i++) {
+            String name = "rg-aluno-" + i;
+            statusMap.put(name, new DeletionStatus(name, "sub-1", "DELETING", null, now));
+        }
+        transitions = new DeletionStatus[transitionsPerWindow];
+        for (int i = 0; i < transitionsPerWindow; i++) {
+            transitions[i] = new DeletionStatus("rg-aluno-" + i, "sub-1", "COMPLETED", "Deletado com sucesso", now);
+        }
+    }
+
+    @Benchmark
+    public void pollers(Blackhole bh) throws Exception {
+        for (int c = 0; c < clients; c++) {
+            Map<String, DeletionStatus> copy = Map.copyOf(statusMap);
+            bh.consume(objectMapper.writeValueAsBytes(copy));
+        }
+    }
+
+    @Benchmark
+    public void sseSubscribers(Blackhole bh) throws Exception {
+        for (DeletionStatus transition : transitions) {
+            String json = objectMapper.writeValueAsString(transition);
+            for (int c = 0; c < clients; c++) {
+                byte[] frame = ("id:1\nevent:status\ndata:" + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+                bh.consume(frame);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.service.DeletionEventService;
+import com.fiap.azure.service.DeletionStatusService;
+import com.fiap.azure.service.DeletionStatusService.DeletionStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * "Grupos deletando na assinatura X" (feito a cada render do dashboard) com
+ * 50k status rastreados: índice por assinatura/estado vs. varredura do mapa
+ * inteiro, como no getDeletingGroups anterior.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeletionStatusIndexBenchmark {
+
+    @Param({"50000"})
+    public int entries;
+
+    @Param({"500"})
+    public int subscriptions;
+
+    private DeletionEventService events;
+    private DeletionStatusService indexed;
+    private final Map<String, DeletionStatus> flat = new ConcurrentHashMap<>();
+    private String target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setStatusMaxEntries(entries * 2);
+        config.setStatusCompletedRetention(TimeUnit.HOURS.toMillis(1));
+        events = new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config);
+        indexed = new DeletionStatusService(events, config);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < entries; i++) {
+            String subscriptionId = "sub-" + (i % subscriptions);
+            String groupName = "rg-" + i;
+            indexed.markAsDeleting(groupName, subscriptionId);
+            String status = "DELETING";
+            // 90% já concluídos, como no fim de uma limpeza
+            if (i % 10 != 0) {
+                indexed.markAsCompleted(groupName, subscriptionId, true, "ok");
+                status = "COMPLETED";
+            }
+            flat.put(subscriptionId + "/" + groupName, new DeletionStatus(groupName, subscriptionId, status, null, now));
+        }
+        target = "sub-" + (subscriptions / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        indexed.shutdown();
+        events.shutdown();
+    }
+
+    @Benchmark
+    public Set<String> indexedDeletingGroups() {
+        return indexed.getDeletingGroups(target);
+    }
+
+    @Benchmark
+    public Set<String> scanDeletingGroups() {
+        return flat.values().stream()
+                .filter(s -> target.equals(s.subscriptionId()) && "DELETING".equals(s.status()))
+                .map(DeletionStatus::groupName)
+                .collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Map<String, DeletionStatus> indexedStatusForSubscription() {
+        return indexed.getAllStatus(target);
+    }
+}
@@ -0,0 +1,105 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.util.GroupNameMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de exclusão de um "deletar tudo": milhares de grupos contra centenas
+ * de padrões protegidos. Laço linear do ResourceController (minúsculas de
+ * nome e padrão a cada comparação) vs. matcher compilado uma vez por requisição
+ * (compilação incluída na medida).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupNameMatcherBenchmark {
+
+    @Param({"exact", "startsWith", "contains"})
+    public String matchMode;
+
+    @Param({"500"})
+    public int patterns;
+
+    @Param({"5000"})
+    public int groups;
+
+    private List<String> patternList;
+    private List<String> groupNames;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        patternList = new ArrayList<>();
+        for (int i = 0; i < patterns; i++) {
+            patternList.add("Proj-" + Integer.toString(random.nextInt(1_000_000), 36));
+        }
+        groupNames = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            // ~10% dos grupos protegidos
+            groupNames.add(i % 10 == 0
+                    ? patternList.get(random.nextInt(patterns)) + (matchMode.equals("exact") ? "" : "-rg")
+                    : "rg-aluno-" + Integer.toString(random.nextInt(1_000_000), 36) + "-lab");
+        }
+    }
+
+    @Benchmark
+    public int linearLoop() {
+        int preserved = 0;
+        for (String name : groupNames) {
+            if (shouldExcludeGroup(name, patternList, matchMode)) {
+                preserved++;
+            }
+        }
+        return preserved;
+    }
+
+    @Benchmark
+    public int compiledMatcher() {
+        GroupNameMatcher matcher = GroupNameMatcher.of(matchMode, patternList);
+        int preserved = 0;
+        for (String name : groupNames) {
+            if (matcher.matches(name)) {
+                preserved++;
+            }
+        }
+        return preserved;
+    }
+
+    private static boolean shouldExcludeGroup(String groupName, List<String> patterns, String matchMode) {
+        String lowerGroupName = groupName.toLowerCase();
+        for (String pattern : patterns) {
+            String lowerPattern = pattern.toLowerCase().trim();
+            if (lowerPattern.isEmpty()) continue;
+            switch (matchMode) {
+                case "exact":
+                    if (lowerGroupName.equals(lowerPattern)) return true;
+                    break;
+                case "contains":
+                    if (lowerGroupName.contains(lowerPattern)) return true;
+                    break;
+                case "startsWith":
+                    if (lowerGroupName.startsWith(lowerPattern)) return true;
+                    break;
+            }
+        }
+        return false;
+    }
+}
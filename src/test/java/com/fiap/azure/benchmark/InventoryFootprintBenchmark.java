@@ -0,0 +1,152 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.util.CompactInventory;
+import com.fiap.azure.util.StringDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventário sintético de 200k recursos (20 assinaturas x 1.000 grupos x 10
+ * recursos) como objetos Resource/ResourceGroup, no formato em que o parser
+ * os cria (uma String por campo), vs. {@link CompactInventory}.
+ *
+ * Heap retido (heap usado após GC, com e sem a estrutura):
+ *   java -cp target/test-classes:target/classes:... com.fiap.azure.benchmark.InventoryFootprintBenchmark
+ * Custo de leitura (percorrer uma assinatura, como na montagem da lista de grupos):
+ *   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=InventoryFootprintBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryFootprintBenchmark {
+
+    private static final String[] TYPES = {
+            "Microsoft.Web/sites", "Microsoft.Web/serverFarms", "Microsoft.Storage/storageAccounts",
+            "Microsoft.Sql/servers", "Microsoft.Sql/servers/databases", "Microsoft.Network/virtualNetworks",
+            "Microsoft.Network/networkInterfaces", "Microsoft.Network/publicIPAddresses",
+            "Microsoft.Compute/virtualMachines", "Microsoft.Compute/disks", "Microsoft.KeyVault/vaults",
+            "Microsoft.Insights/components"
+    };
+    private static final String[] LOCATIONS = {"eastus", "eastus2", "brazilsouth", "westeurope", "centralus"};
+    private static final String[] STATES = {"Succeeded", "Succeeded", "Succeeded", "Deleting"};
+
+    @Param({"1000"})
+    public int groups;
+
+    @Param({"10"})
+    public int resourcesPerGroup;
+
+    private List<ResourceGroup> objects;
+    private List<ResourceGroup> compact;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objects = subscription("00000000-0000-0000-0000-000000000000", groups, resourcesPerGroup);
+        compact = CompactInventory.of("00000000-0000-0000-0000-000000000000", objects, new StringDictionary()).groups();
+    }
+
+    @Benchmark
+    public long scanObjects() {
+        return scan(objects);
+    }
+
+    @Benchmark
+    public long scanCompact() {
+        return scan(compact);
+    }
+
+    // Nome, região e contagem de cada grupo + tipo de cada recurso
+    private static long scan(List<ResourceGroup> groups) {
+        long hash = 0;
+        for (ResourceGroup group : groups) {
+            hash += group.getName().length() + group.getLocation().length() + group.getResources().size();
+            for (Resource resource : group.getResources()) {
+                hash += resource.getType().length();
+            }
+        }
+        return hash;
+    }
+
+    static List<ResourceGroup> subscription(String subscriptionId, int groups, int resourcesPerGroup) {
+        List<ResourceGroup> result = new ArrayList<>(groups);
+        for (int g = 0; g < groups; g++) {
+            String name = "rg-aluno-" + g;
+            String groupId = "/subscriptions/" + subscriptionId + "/resourceGroups/" + name;
+            List<Resource> resources = new ArrayList<>(resourcesPerGroup);
+            for (int r = 0; r < resourcesPerGroup; r++) {
+                String type = TYPES[(g + r) % TYPES.length];
+                String resourceName = type.endsWith("/databases") ? "sql-" + g + "/db-" + r : "res-" + g + "-" + r;
+                String id = type.endsWith("/databases")
+                        ? groupId + "/providers/Microsoft.Sql/servers/sql-" + g + "/databases/db-" + r
+                        : groupId + "/providers/" + type + "/" + resourceName;
+                // Cópias como as que o parser JSON cria a cada recurso
+                resources.add(new Resource(id, resourceName, new String(type),
+                        new String(LOCATIONS[(g + r) % LOCATIONS.length]), new String(name)));
+            }
+            result.add(new ResourceGroup(groupId, name, new String(LOCATIONS[g % LOCATIONS.length]),
+                    new String(STATES[g % STATES.length]), resources));
+        }
+        return result;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int subscriptions = 20;
+        int groups = 1000;
+        int resourcesPerGroup = 10;
+
+        long baseline = usedHeap();
+        List<List<ResourceGroup>> objectGraph = new ArrayList<>();
+        for (int s = 0; s < subscriptions; s++) {
+            objectGraph.add(subscription(String.format("00000000-0000-0000-0000-%012d", s), groups, resourcesPerGroup));
+        }
+        long objectBytes = usedHeap() - baseline;
+
+        StringDictionary dictionary = new StringDictionary();
+        List<CompactInventory> compact = new ArrayList<>();
+        for (int s = 0; s < subscriptions; s++) {
+            compact.add(CompactInventory.of(String.format("00000000-0000-0000-0000-%012d", s), objectGraph.get(s),
+                    dictionary));
+        }
+        objectGraph = null;
+        long compactBytes = usedHeap() - baseline;
+
+        long resources = compact.stream().mapToLong(CompactInventory::resourceCount).sum();
+        System.out.printf("Recursos: %d (%d assinaturas x %d grupos x %d)%n", resources, subscriptions, groups,
+                resourcesPerGroup);
+        System.out.printf("Objetos:  %,d bytes (%d bytes/recurso)%n", objectBytes, objectBytes / resources);
+        System.out.printf("Compacto: %,d bytes (%d bytes/recurso), dicionário com %d entradas%n", compactBytes,
+                compactBytes / resources, dictionary.size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.fiap.azure.benchmark;
+
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.service.ResourceParserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * readTree + percurso do JsonNode (caminho anterior) vs. JsonParser em streaming.
+ * Rodar com "-prof gc" para ver a diferença de alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceParserBenchmark {
+
+    @Param({"10000"})
+    public int resources;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ResourceParserService parserService = new ResourceParserService();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = SyntheticPayloads.resourceList(resources, "rg-bench").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Resource> readTree() throws Exception {
+        JsonNode node = objectMapper.readTree(new ByteArrayInputStream(payload));
+        List<Resource> result = new ArrayList<>();
+        node.forEach(item -> result.add(new Resource(
+                item.has("id") ? item.get("id").asText() : "unknown",
+                item.has("name") ? item.get("name").asText() : "N/A",
+                item.has("type") ? item.get("type").asText() : "Unknown",
+                item.has("location") ? item.get("location").asText() : "N/A",
+                "rg-bench")));
+        return result;
+    }
+
+    @Benchmark
+    public List<Resource> streaming() throws Exception {
+        return parserService.parseResources(new ByteArrayInputStream(payload), "rg-bench");
+    }
+}
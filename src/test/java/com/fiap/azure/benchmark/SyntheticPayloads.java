@@ -0,0 +1,53 @@
+package com.fiap.azure.benchmark;
+
+/**
+ * JSON sintético no formato da Azure CLI, com tags e properties volumosas
+ * como nas respostas reais de "az resource list".
+ */
+public final class SyntheticPayloads {
+
+    private static final String[] TYPES = {
+            "Microsoft.Web/sites",
+            "Microsoft.Storage/storageAccounts",
+            "Microsoft.Sql/servers",
+            "Microsoft.Network/virtualNetworks",
+            "Microsoft.Compute/virtualMachines"
+    };
+
+    private static final String[] LOCATIONS = {"eastus", "eastus2", "brazilsouth", "westeurope"};
+
+    private SyntheticPayloads() {
+    }
+
+    public static String resourceList(int count, String groupName) {
+        StringBuilder json = new StringBuilder(count * 700);
+        json.append("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            String type = TYPES[i % TYPES.length];
+            String name = "res-" + i;
+            json.append("  {\n")
+                .append("    \"changedTime\": \"2024-03-01T12:00:00.000000+00:00\",\n")
+                .append("    \"createdTime\": \"2024-02-01T12:00:00.000000+00:00\",\n")
+                .append("    \"extendedLocation\": null,\n")
+                .append("    \"id\": \"/subscriptions/00000000-0000-0000-0000-000000000000/resourceGroups/")
+                .append(groupName).append("/providers/").append(type).append('/').append(name).append("\",\n")
+                .append("    \"identity\": null,\n")
+                .append("    \"kind\": \"StorageV2\",\n")
+                .append("    \"location\": \"").append(LOCATIONS[i % LOCATIONS.length]).append("\",\n")
+                .append("    \"managedBy\": null,\n")
+                .append("    \"name\": \"").append(name).append("\",\n")
+                .append("    \"plan\": null,\n")
+                .append("    \"properties\": {\"provisioningState\": \"Succeeded\", \"nested\": {\"a\": [1, 2, 3], \"b\": \"texto\"}},\n")
+                .append("    \"resourceGroup\": \"").append(groupName).append("\",\n")
+                .append("    \"sku\": {\"name\": \"Standard_LRS\", \"tier\": \"Standard\"},\n")
+                .append("    \"tags\": {\"curso\": \"cloud\", \"turma\": \"2TDS\", \"aluno\": \"rm").append(i).append("\"},\n")
+                .append("    \"type\": \"").append(type).append("\"\n")
+                .append("  }");
+        }
+        json.append("\n]\n");
+        return json.toString();
+    }
+}
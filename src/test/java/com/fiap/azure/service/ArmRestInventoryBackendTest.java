@@ -0,0 +1,219 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureCliWorkerPool;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.CommandOutput;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ARM simulado num HttpServer local: cada "MÉTODO caminho?query" tem uma fila
+ * de respostas (a última se repete). O token vem de um az falso que conta as
+ * chamadas a get-access-token.
+ */
+class ArmRestInventoryBackendTest {
+
+    private static final String RG_API = "?api-version=2021-04-01";
+
+    private record Fixture(int status, String body, Map<String, String> headers) {}
+
+    private final Map<String, Deque<Fixture>> fixtures = new ConcurrentHashMap<>();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    private HttpServer server;
+    private String baseUrl;
+    private AzureAuthService authService;
+    private AzureCommandExecutor executor;
+    private ArmRestInventoryBackend backend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String key = exchange.getRequestMethod() + " " + exchange.getRequestURI();
+            requests.add(key);
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            Deque<Fixture> queue = fixtures.get(key);
+            Fixture fixture;
+            if (queue == null) {
+                fixture = new Fixture(404, "{\"error\":{\"code\":\"NotFound\",\"message\":\"" + key + "\"}}", Map.of());
+            } else {
+                synchronized (queue) {
+                    fixture = queue.size() > 1 ? queue.poll() : queue.peek();
+                }
+            }
+            fixture.headers().forEach((name, value) -> exchange.getResponseHeaders().add(name, value));
+            byte[] body = fixture.body().getBytes(StandardCharsets.UTF_8);
+            boolean noBody = body.length == 0 || "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(fixture.status(), noBody ? -1 : body.length);
+            if (!noBody) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        AzureCliConfig cliConfig = new AzureCliConfig();
+        cliConfig.setRetryBaseDelay(10L);
+        cliConfig.setRetryMaxDelay(50L);
+        cliConfig.setBreakerFailureThreshold(2);
+        AzureCallGate gate = new AzureCallGate(cliConfig);
+        executor = new AzureCommandExecutor(cliConfig, new AzureCliWorkerPool(cliConfig), gate) {
+            @Override
+            public CommandOutput executeRaw(String... args) {
+                int n = tokenRequests.incrementAndGet();
+                long expiresOn = System.currentTimeMillis() / 1000 + 3600;
+                return CommandOutput.of(("{\"accessToken\":\"token-" + n + "\",\"expires_on\":" + expiresOn
+                        + ",\"subscription\":\"sub-1\",\"tenant\":\"t-1\"}").getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        authService = new AzureAuthService(executor, cliConfig);
+        AzureInventoryConfig inventoryConfig = new AzureInventoryConfig();
+        inventoryConfig.setArmEndpoint(baseUrl + "/");
+        inventoryConfig.setArmTimeout(5000L);
+        backend = new ArmRestInventoryBackend(authService, new ObjectMapper(), inventoryConfig, gate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        authService.shutdown();
+        server.stop(0);
+    }
+
+    private void respond(String key, Fixture... responses) {
+        fixtures.put(key, new ArrayDeque<>(List.of(responses)));
+    }
+
+    private static Fixture ok(String body) {
+        return new Fixture(200, body, Map.of());
+    }
+
+    @Test
+    void followsNextLinkAndSharesOneTokenAcrossConcurrentCalls() throws Exception {
+        respond("GET /subscriptions?api-version=2022-12-01", ok("{\"value\":[{\"id\":\"/subscriptions/sub-1\","
+                + "\"subscriptionId\":\"sub-1\",\"displayName\":\"Aluno 1\",\"state\":\"Enabled\"}],"
+                + "\"nextLink\":\"" + baseUrl + "/subscriptions?api-version=2022-12-01&%24skiptoken=2\"}"));
+        respond("GET /subscriptions?api-version=2022-12-01&%24skiptoken=2", ok("{\"value\":[{\"subscriptionId\":"
+                + "\"sub-2\",\"displayName\":\"Aluno 2\",\"state\":\"Disabled\"}]}"));
+        respond("GET /subscriptions/sub-1/resourcegroups" + RG_API, ok("{\"value\":["
+                + "{\"id\":\"/subscriptions/sub-1/resourceGroups/rg-a\",\"name\":\"rg-a\",\"location\":\"eastus\","
+                + "\"properties\":{\"provisioningState\":\"Succeeded\"}},"
+                + "{\"id\":\"/subscriptions/sub-1/resourceGroups/rg b\",\"name\":\"rg b\",\"location\":\"brazilsouth\","
+                + "\"properties\":{\"provisioningState\":\"Deleting\"}}]}"));
+        respond("GET /subscriptions/sub-1/resourceGroups/rg-a/resources" + RG_API, ok("{\"value\":["
+                + "{\"id\":\"/x/vm-1\",\"name\":\"vm-1\",\"type\":\"Microsoft.Compute/virtualMachines\",\"location\":\"eastus\","
+                + "\"tags\":{\"curso\":\"fiap\"}},{\"id\":\"/x/ip-1\",\"name\":\"ip-1\",\"type\":\"Microsoft.Network/publicIPAddresses\"}]}"));
+
+        List<Subscription> subscriptions = backend.listSubscriptions();
+        assertEquals(List.of("sub-1", "sub-2"), subscriptions.stream().map(Subscription::getId).toList());
+        assertEquals("Aluno 1", subscriptions.get(0).getDisplayName());
+        assertEquals("Disabled", subscriptions.get(1).getState());
+
+        // Sem assinatura: usa a padrão da sessão do az
+        List<ResourceGroup> groups = backend.listResourceGroups(null);
+        assertEquals("rg b", groups.get(1).getName());
+        assertEquals("Deleting", groups.get(1).getProvisioningState());
+
+        List<Future<List<Resource>>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(callers.submit(() -> backend.listResources("sub-1", "rg-a")));
+        }
+        for (Future<List<Resource>> call : calls) {
+            List<Resource> resources = call.get(10, TimeUnit.SECONDS);
+            assertEquals(2, resources.size());
+            assertEquals("rg-a", resources.get(0).getResourceGroup());
+            assertEquals("N/A", resources.get(1).getLocation());
+        }
+
+        assertEquals(1, tokenRequests.get());
+        assertTrue(authorizations.stream().allMatch("Bearer token-1"::equals));
+    }
+
+    @Test
+    void renewsTokenOnUnauthorizedAndRetriesThrottling() throws Exception {
+        respond("GET /subscriptions/sub-1/resourceGroups/rg-a/resources" + RG_API,
+                new Fixture(401, "{\"error\":{\"code\":\"ExpiredAuthenticationToken\"}}", Map.of()),
+                new Fixture(429, "{\"error\":{\"code\":\"TooManyRequests\"}}", Map.of("Retry-After", "0")),
+                ok("{\"value\":[]}"));
+
+        assertEquals(List.of(), backend.listResources("sub-1", "rg-a"));
+
+        assertEquals(2, tokenRequests.get());
+        assertEquals(List.of("Bearer token-1", "Bearer token-2", "Bearer token-2"), authorizations);
+    }
+
+    @Test
+    void restFailuresOpenTheSameCircuitAsTheCli() {
+        respond("GET /subscriptions/sub-2/resourcegroups" + RG_API,
+                new Fixture(503, "{\"error\":{\"code\":\"ServiceUnavailable\"}}", Map.of()));
+
+        for (int i = 0; i < 2; i++) {
+            AzureCliException error = assertThrows(AzureCliException.class, () -> backend.listResourceGroups("sub-2"));
+            assertEquals(AzureErrorType.TRANSIENT, error.getType());
+        }
+        int sent = requests.size();
+        AzureCliException rejected = assertThrows(AzureCliException.class, () -> backend.listResourceGroups("sub-2"));
+
+        assertEquals(AzureErrorType.CIRCUIT_OPEN, rejected.getType());
+        assertEquals(sent, requests.size());
+        // Estado que a barra lateral mostra
+        assertEquals("OPEN", executor.getCircuitState("sub-2"));
+        assertEquals("CLOSED", executor.getCircuitState("sub-1"));
+    }
+
+    @Test
+    void mapsNotFoundAndWaitsForDeletion() throws Exception {
+        AzureCliException missing = assertThrows(AzureCliException.class,
+                () -> backend.listResources("sub-1", "rg-sumiu"));
+        assertEquals(AzureErrorType.NOT_FOUND, missing.getType());
+
+        respond("HEAD /subscriptions/sub-1/resourceGroups/rg-a" + RG_API, new Fixture(204, "", Map.of()));
+        assertTrue(backend.resourceGroupExists("sub-1", "rg-a"));
+        assertFalse(backend.resourceGroupExists("sub-1", "rg-sumiu"));
+
+        respond("DELETE /subscriptions/sub-1/resourceGroups/rg-a" + RG_API, new Fixture(202, "",
+                Map.of("Location", baseUrl + "/operations/1", "Retry-After", "0")));
+        respond("GET /operations/1", new Fixture(202, "", Map.of("Retry-After", "0")), new Fixture(200, "", Map.of()));
+        backend.deleteResourceGroup("sub-1", "rg-a", true);
+
+        assertEquals(List.of("DELETE /subscriptions/sub-1/resourceGroups/rg-a" + RG_API, "GET /operations/1",
+                "GET /operations/1"), requests.subList(requests.size() - 3, requests.size()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureCliWorkerPool;
+import com.fiap.azure.util.AzureCommandExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * az falso: get-access-token devolve um token que vence em "ttl" segundos;
+ * com o arquivo "expired" presente, todo comando falha com sessão expirada.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class AzureAuthServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AzureCliConfig config;
+    private AzureCommandExecutor executor;
+    private AzureAuthService authService;
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path az = tempDir.resolve("az");
+        Files.writeString(az, "#!/bin/sh\n"
+                + "echo \"$2\" >> '" + tempDir.resolve("calls") + "'\n"
+                + "if [ -f '" + tempDir.resolve("expired") + "' ]; then\n"
+                + "  echo \"ERROR: AADSTS70043: The refresh token has expired. Please run 'az login'\" >&2; exit 1\n"
+                + "fi\n"
+                + "if [ \"$2\" = get-access-token ]; then\n"
+                + "  sleep 0.2\n"
+                + "  echo \"{\\\"tenant\\\":\\\"t-1\\\",\\\"subscription\\\":\\\"s-1\\\","
+                + "\\\"expires_on\\\":$(( $(date +%s) + $(cat '" + tempDir.resolve("ttl") + "') ))}\"\n"
+                + "  exit 0\n"
+                + "fi\n"
+                + "echo '[]'\n");
+        az.toFile().setExecutable(true);
+        Files.writeString(tempDir.resolve("ttl"), "3600");
+
+        config = new AzureCliConfig();
+        config.setPath(az.toString());
+        // Sem coalescência no executor: a validação única tem que vir do AzureAuthService
+        config.setCoalesceReads(false);
+        executor = new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config));
+        authService = new AzureAuthService(executor, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        authService.shutdown();
+    }
+
+    private long tokenRequests() throws Exception {
+        Path calls = tempDir.resolve("calls");
+        return Files.exists(calls) ? Files.readAllLines(calls).stream().filter("get-access-token"::equals).count() : 0;
+    }
+
+    @Test
+    void concurrentCallersShareOneValidation() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(callers.submit(() -> {
+                authService.ensureAuthenticated();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        authService.ensureAuthenticated();
+
+        assertEquals(1, tokenRequests());
+        assertEquals(true, authService.getStatus().get("authenticated"));
+        assertEquals("t-1", authService.getStatus().get("tenantId"));
+    }
+
+    @Test
+    void renewsTheTokenBeforeItExpires() throws Exception {
+        Files.writeString(tempDir.resolve("ttl"), "2");
+        authService.ensureAuthenticated();
+
+        // Margem limitada a metade da vida do token: renovação em ~1s, sem nenhuma chamada no meio
+        Thread.sleep(1800);
+
+        assertTrue(tokenRequests() >= 2, "renovações: " + tokenRequests());
+        assertEquals(true, authService.getStatus().get("authenticated"));
+    }
+
+    @Test
+    void expiredSessionOnAnyCommandResetsAuthentication() throws Exception {
+        authService.ensureAuthenticated();
+        Files.createFile(tempDir.resolve("expired"));
+
+        AzureCliException failure = assertThrows(AzureCliException.class,
+                () -> executor.execute("group", "list", "--subscription", "sub-1"));
+        assertEquals(AzureErrorType.AUTH_EXPIRED, failure.getType());
+        assertEquals(false, authService.getStatus().get("authenticated"));
+
+        AzureCliException login = assertThrows(AzureCliException.class, authService::ensureAuthenticated);
+        assertTrue(login.getMessage().contains("az login"));
+        assertEquals(2, tokenRequests());
+    }
+}
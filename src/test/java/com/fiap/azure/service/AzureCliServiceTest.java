@@ -5,7 +5,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
-@SpringBootTest
+@SpringBootTest(properties = {"azure.snapshot.enabled=false", "azure.deletion.journal-enabled=false"})
 class AzureCliServiceTest {
 
     @Test
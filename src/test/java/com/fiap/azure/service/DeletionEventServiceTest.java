@@ -0,0 +1,182 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeletionEventServiceTest {
+
+    private DeletionEventService events;
+
+    private DeletionEventService events(int bufferSize) {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setEventBufferSize(bufferSize);
+        events = new DeletionEventService(new ObjectMapper(), config);
+        return events;
+    }
+
+    @AfterEach
+    void tearDown() {
+        events.shutdown();
+    }
+
+    private static void publish(DeletionEventService events, String groupName, String status) {
+        events.publish("sub-1", Map.of("groupName", groupName, "status", status));
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, list.size(), "eventos: " + list);
+    }
+
+    @Test
+    void newClientGetsSnapshotThenLiveEvents() throws Exception {
+        DeletionEventService events = events(10);
+        publish(events, "rg-1", "DELETING");
+
+        RecordingSink sink = new RecordingSink();
+        events.attachSink(sink, null, null, () -> Map.of("rg-1", Map.of("status", "DELETING")));
+        awaitSize(sink.received, 1);
+        publish(events, "rg-1", "COMPLETED");
+        awaitSize(sink.received, 2);
+
+        assertEquals(DeletionEventService.EVENT_SNAPSHOT, sink.received.get(0).name());
+        assertEquals(1, sink.received.get(0).id());
+        assertEquals(DeletionEventService.EVENT_STATUS, sink.received.get(1).name());
+        assertTrue(sink.received.get(1).data().contains("COMPLETED"));
+    }
+
+    @Test
+    void reconnectingClientReceivesOnlyMissedEvents() throws Exception {
+        DeletionEventService events = events(10);
+        for (int i = 1; i <= 5; i++) {
+            publish(events, "rg-" + i, "DELETING");
+        }
+
+        RecordingSink sink = new RecordingSink();
+        events.attachSink(sink, 3L, null, Map::of);
+        awaitSize(sink.received, 2);
+
+        assertEquals(List.of(4L, 5L), sink.received.stream().map(DeletionEventService.Event::id).toList());
+    }
+
+    @Test
+    void clientBehindTheBufferGetsAFullSnapshot() throws Exception {
+        DeletionEventService events = events(3);
+        for (int i = 1; i <= 10; i++) {
+            publish(events, "rg-" + i, "DELETING");
+        }
+
+        RecordingSink sink = new RecordingSink();
+        events.attachSink(sink, 2L, null, () -> Map.of("total", 10));
+        awaitSize(sink.received, 1);
+
+        assertEquals(DeletionEventService.EVENT_SNAPSHOT, sink.received.get(0).name());
+        assertEquals(10, sink.received.get(0).id());
+    }
+
+    @Test
+    void brokenClientIsDroppedWithoutAffectingOthers() throws Exception {
+        DeletionEventService events = events(10);
+        RecordingSink healthy = new RecordingSink();
+        RecordingSink broken = new RecordingSink();
+        broken.fail = true;
+        events.attachSink(healthy, 0L, null, Map::of);
+        events.attachSink(broken, 0L, null, Map::of);
+        Thread.sleep(100);
+        assertEquals(2, events.getSubscriberCount());
+
+        publish(events, "rg-1", "DELETING");
+        publish(events, "rg-2", "DELETING");
+        awaitSize(healthy.received, 2);
+
+        assertEquals(1, events.getSubscriberCount());
+        assertTrue(broken.closed);
+    }
+
+    @Test
+    void slowClientDoesNotDelayOthers() throws Exception {
+        DeletionEventService events = events(10);
+        RecordingSink healthy = new RecordingSink();
+        RecordingSink slow = new RecordingSink();
+        slow.blocked = new CountDownLatch(1);
+        events.attachSink(slow, 0L, null, Map::of);
+        events.attachSink(healthy, 0L, null, Map::of);
+        Thread.sleep(100);
+
+        publish(events, "rg-1", "DELETING");
+        publish(events, "rg-2", "DELETING");
+        awaitSize(healthy.received, 2);
+        assertEquals(0, slow.received.size());
+
+        slow.blocked.countDown();
+        awaitSize(slow.received, 2);
+        assertEquals(List.of(1L, 2L), slow.received.stream().map(DeletionEventService.Event::id).toList());
+    }
+
+    @Test
+    void clientThatFallsBehindTheBufferIsDropped() throws Exception {
+        DeletionEventService events = events(3);
+        RecordingSink slow = new RecordingSink();
+        slow.blocked = new CountDownLatch(1);
+        events.attachSink(slow, 0L, null, Map::of);
+        Thread.sleep(100);
+
+        for (int i = 1; i <= 10; i++) {
+            publish(events, "rg-" + i, "DELETING");
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!slow.closed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        slow.blocked.countDown();
+
+        assertTrue(slow.closed);
+        assertEquals(0, events.getSubscriberCount());
+    }
+
+    private static class RecordingSink implements DeletionEventService.Sink {
+        final List<DeletionEventService.Event> received = new CopyOnWriteArrayList<>();
+        volatile boolean fail;
+        volatile boolean closed;
+        volatile CountDownLatch blocked;
+
+        @Override
+        public void send(DeletionEventService.Event event) throws IOException {
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("envio interrompido");
+                }
+            }
+            if (fail) {
+                throw new IOException("conexão encerrada");
+            }
+            received.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
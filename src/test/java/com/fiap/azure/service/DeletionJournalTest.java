@@ -0,0 +1,197 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeletionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<DeletionJournal> journals = new ArrayList<>();
+
+    private DeletionJournal journal(int compactThreshold) {
+        AzureDeletionConfig config = config(compactThreshold);
+        DeletionJournal journal = new DeletionJournal(new ObjectMapper(), config);
+        journals.add(journal);
+        return journal;
+    }
+
+    private AzureDeletionConfig config(int compactThreshold) {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setJournalEnabled(true);
+        config.setJournalPath(dir.resolve("deletion-journal.log").toString());
+        config.setJournalCompactThreshold(compactThreshold);
+        return config;
+    }
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(DeletionJournal::shutdown);
+    }
+
+    private static Map<String, DeletionJournal.Type> lastStates(DeletionJournal journal) {
+        return journal.getRecovered().stream()
+                .collect(Collectors.toMap(DeletionJournal.Entry::groupName, DeletionJournal.Entry::type));
+    }
+
+    @Test
+    void restartRecoversLastStateOfEachGroup() throws Exception {
+        DeletionJournal journal = journal(1000);
+        journal.queued("lote-1", "sub-1", "rg-1");
+        journal.queued("lote-1", "sub-1", "rg-2");
+        journal.queued("lote-1", "sub-1", "rg-3");
+        journal.submitted("lote-1", "sub-1", "rg-2");
+        journal.finished("lote-1", "sub-1", "rg-1", true, "ok");
+        journal.finished("lote-1", "sub-1", "rg-3", false, "falhou");
+        journal.queued("lote-1", "sub-1", "rg-4");
+        assertTrue(journal.awaitDurable(5000));
+        journal.shutdown();
+
+        DeletionJournal reopened = journal(1000);
+
+        assertEquals(Map.of(
+                "rg-1", DeletionJournal.Type.COMPLETED,
+                "rg-2", DeletionJournal.Type.SUBMITTED,
+                "rg-3", DeletionJournal.Type.FAILED,
+                "rg-4", DeletionJournal.Type.QUEUED), lastStates(reopened));
+    }
+
+    @Test
+    void truncatedLastLineIsIgnored() throws Exception {
+        DeletionJournal journal = journal(1000);
+        journal.queued("lote-1", "sub-1", "rg-1");
+        assertTrue(journal.awaitDurable(5000));
+        journal.shutdown();
+        Files.writeString(dir.resolve("deletion-journal.log"), "{\"type\":\"QUEUED\",\"batchId\":\"lo",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        DeletionJournal reopened = journal(1000);
+
+        assertEquals(Map.of("rg-1", DeletionJournal.Type.QUEUED), lastStates(reopened));
+    }
+
+    @Test
+    void appendsFromManyThreadsAreBatchedAndCompacted() throws Exception {
+        DeletionJournal journal = journal(5000);
+        int threads = 4;
+        int perThread = 10_000;
+
+        long start = System.nanoTime();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String subscriptionId = "sub-" + t;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    journal.queued("lote", subscriptionId, "rg-" + (i % 100));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long appendMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(journal.awaitDurable(30000));
+
+        Map<String, Object> stats = journal.getStats();
+        assertEquals((long) threads * perThread, stats.get("durable"));
+        // Bem menos fsyncs que eventos, e o arquivo não cresce sem limite
+        assertTrue((Long) stats.get("batches") < threads * perThread / 10, stats.toString());
+        assertTrue((Long) stats.get("compactions") > 0, stats.toString());
+        assertTrue(Files.readAllLines(dir.resolve("deletion-journal.log")).size() <= 5000 + 4096);
+        assertTrue(appendMs < 2000, "enfileirar 40k eventos levou " + appendMs + "ms");
+        journal.shutdown();
+
+        assertEquals(threads * 100, journal(5000).getRecovered().size());
+    }
+
+    @Test
+    void failedCompactionKeepsJournalWritable() throws Exception {
+        // Diretório no lugar do arquivo temporário: toda compactação falha
+        Path blocker = Files.createDirectories(dir.resolve("deletion-journal.log.tmp"));
+        Files.writeString(blocker.resolve("ocupado"), "x");
+        DeletionJournal journal = journal(10);
+        for (int i = 0; i < 50; i++) {
+            journal.queued("lote-1", "sub-1", "rg-1");
+            assertTrue(journal.awaitDurable(5000));
+        }
+        assertEquals(0L, journal.getStats().get("compactions"));
+
+        Files.delete(blocker.resolve("ocupado"));
+        Files.delete(blocker);
+        journal.finished("lote-1", "sub-1", "rg-1", true, "ok");
+        journal.queued("lote-1", "sub-1", "rg-2");
+        assertTrue(journal.awaitDurable(5000));
+        assertTrue((Long) journal.getStats().get("compactions") > 0);
+        journal.queued("lote-1", "sub-1", "rg-3");
+        assertTrue(journal.awaitDurable(5000));
+        journal.shutdown();
+
+        assertEquals(Map.of(
+                "rg-1", DeletionJournal.Type.COMPLETED,
+                "rg-2", DeletionJournal.Type.QUEUED,
+                "rg-3", DeletionJournal.Type.QUEUED), lastStates(journal(1000)));
+    }
+
+    @Test
+    void schedulerResumesUnfinishedDeletionsAfterRestart() throws Exception {
+        DeletionJournal previous = journal(1000);
+        previous.queued("lote-1", "sub-1", "rg-na-fila");
+        previous.queued("lote-1", "sub-1", "rg-concluido");
+        previous.finished("lote-1", "sub-1", "rg-concluido", true, "ok");
+        assertTrue(previous.awaitDurable(5000));
+        previous.shutdown();
+
+        AzureDeletionConfig config = config(1000);
+        config.setNoWait(false);
+        List<String> deleted = new CopyOnWriteArrayList<>();
+        AzureCliService cli = new AzureCliService(null, null, null, null, null, null) {
+            @Override
+            public void deleteResourceGroup(String resourceGroupName, String subscriptionId) {
+                deleted.add(resourceGroupName);
+            }
+        };
+        DeletionEventService events = new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config);
+        DeletionStatusService statusService = new DeletionStatusService(events, config);
+        DeletionJournal journal = new DeletionJournal(new ObjectMapper(), config);
+        journals.add(journal);
+        DeletionSchedulerService scheduler = new DeletionSchedulerService(cli, statusService, config, journal,
+                new DeletionJobService(config));
+        try {
+            scheduler.recover();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            // A vaga é liberada antes do status ser gravado: espera o status, não só a fila
+            while ((scheduler.hasPendingWork() || !DeletionStatusService.COMPLETED.equals(
+                    statusService.getStatus("sub-1", "rg-na-fila").status()))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(List.of("rg-na-fila"), deleted);
+            assertEquals(DeletionStatusService.COMPLETED, statusService.getStatus("sub-1", "rg-na-fila").status());
+            assertEquals(DeletionStatusService.COMPLETED, statusService.getStatus("sub-1", "rg-concluido").status());
+        } finally {
+            scheduler.shutdown();
+            statusService.shutdown();
+            events.shutdown();
+        }
+    }
+}
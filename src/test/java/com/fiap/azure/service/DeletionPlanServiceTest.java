@@ -0,0 +1,127 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.config.AzureSnapshotConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeletionPlanServiceTest {
+
+    private final Map<String, List<ResourceGroup>> inventory = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> submitted = new ConcurrentHashMap<>();
+    private DeletionSchedulerService scheduler;
+    private InventorySnapshotService snapshot;
+    private DeletionPlanService plans;
+    private DeletionJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setJournalEnabled(false);
+        jobs = new DeletionJobService(config);
+        scheduler = new DeletionSchedulerService(null, null, config, new DeletionJournal(null, config), jobs) {
+            @Override
+            public void submit(String batchId, String subscriptionId, Collection<String> groupNames) {
+                submitted.put(subscriptionId, List.copyOf(groupNames));
+            }
+        };
+        snapshot = new InventorySnapshotService(null, scheduler, null, new AzureInventoryConfig(), new AzureSnapshotConfig()) {
+            @Override
+            public List<ResourceGroup> getResourceGroups(String subscriptionId) throws AzureCliException {
+                List<ResourceGroup> groups = inventory.get(subscriptionId);
+                if (groups == null) {
+                    throw new AzureCliException("assinatura inacessível");
+                }
+                return groups;
+            }
+
+            @Override
+            public Long getAgeMs(String subscriptionId) {
+                return 1000L;
+            }
+        };
+        plans = new DeletionPlanService(snapshot, new ExclusionPolicyService(new ObjectMapper(), config),
+                scheduler, jobs, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.shutdown();
+        scheduler.shutdown();
+    }
+
+    private static ResourceGroup group(String name, int resources) {
+        List<Resource> list = new ArrayList<>();
+        for (int i = 0; i < resources; i++) {
+            list.add(new Resource("/" + name + "/" + i, "r" + i, "vm", "eastus", name));
+        }
+        return new ResourceGroup("/" + name, name, "eastus", "Succeeded", list);
+    }
+
+    @Test
+    void planSplitsGroupsAndIsExecutedOnceWithoutListingAgain() {
+        inventory.put("sub-1", List.of(group("rg-aluno-1", 3), group("prod-web", 5), group("rg-aluno-2", 1)));
+        inventory.put("sub-2", List.of(group("rg-aluno-3", 2)));
+
+        DeletionPlanService.Plan plan = plans.createPlan(List.of("sub-1", "sub-2", "sub-x"),
+                List.of("prod-"), "startsWith", null);
+        Map<String, Object> view = plan.toView();
+
+        assertEquals(3, view.get("toDelete"));
+        assertEquals(1, view.get("preserved"));
+        assertEquals(6, view.get("resources"));
+        assertEquals("assinatura inacessível", plan.subscriptions().get(2).error());
+        assertTrue((Long) view.get("estimatedDurationMs") > 0);
+
+        // A partir daqui o inventário some: a execução usa só o plano
+        inventory.clear();
+        String jobId = plans.execute(plan.id());
+
+        assertNotNull(jobId);
+        assertEquals(List.of("rg-aluno-1", "rg-aluno-2"), submitted.get("sub-1"));
+        assertEquals(List.of("rg-aluno-3"), submitted.get("sub-2"));
+        assertThrows(IllegalStateException.class, () -> plans.execute(plan.id()));
+        // A execução recusada não cria job
+        assertEquals(1, jobs.size());
+        assertEquals(jobId, plan.toView().get("jobId"));
+        assertThrows(IllegalArgumentException.class, () -> plans.execute("inexistente"));
+    }
+
+    @Test
+    void planForThousandsOfGroupsIsFast() {
+        List<ResourceGroup> groups = new ArrayList<>();
+        List<String> protectedNames = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            groups.add(group("rg-" + i, 2));
+            if (i % 10 == 0) {
+                protectedNames.add("rg-" + i);
+            }
+        }
+        inventory.put("sub-1", groups);
+
+        long start = System.nanoTime();
+        DeletionPlanService.Plan plan = plans.createPlan(List.of("sub-1"), protectedNames, "exact", null);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(4500, plan.countToDelete());
+        assertEquals(500, plan.countPreserved());
+        assertTrue(elapsedMs < 1000, "plano levou " + elapsedMs + "ms");
+    }
+}
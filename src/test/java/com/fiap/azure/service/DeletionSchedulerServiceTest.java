@@ -0,0 +1,272 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.ResourceGroup;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeletionSchedulerServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Map<String, AtomicInteger> runningBySubscription = new ConcurrentHashMap<>();
+    private final Map<String, Integer> maxBySubscription = new ConcurrentHashMap<>();
+
+    private DeletionSchedulerService scheduler;
+    private DeletionJobService jobs;
+
+    private DeletionSchedulerService scheduler(int global, int perSubscription) {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setJournalEnabled(false);
+        config.setGlobalConcurrency(global);
+        config.setPerSubscriptionConcurrency(perSubscription);
+        config.setNoWait(false);
+
+        AzureCliService cli = new AzureCliService(null, null, null, null, null, null) {
+            @Override
+            public void deleteResourceGroup(String resourceGroupName, String subscriptionId) throws AzureCliException {
+                started.add(subscriptionId + "/" + resourceGroupName);
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                int perSub = runningBySubscription.computeIfAbsent(subscriptionId, k -> new AtomicInteger()).incrementAndGet();
+                maxBySubscription.merge(subscriptionId, perSub, Math::max);
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // Como o executor faz com o processo az ao ser interrompido
+                    throw new AzureCliException("Execução do comando Azure CLI interrompida", e);
+                } finally {
+                    runningBySubscription.get(subscriptionId).decrementAndGet();
+                    running.decrementAndGet();
+                }
+            }
+        };
+        scheduler = new DeletionSchedulerService(cli, new DeletionStatusService(
+                new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config), config), config,
+                new DeletionJournal(new ObjectMapper(), config), jobs = new DeletionJobService(config));
+        return scheduler;
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void respectsGlobalAndPerSubscriptionLimits() throws Exception {
+        DeletionSchedulerService scheduler = scheduler(5, 2);
+
+        scheduler.submit("lote-1", "sub-a", List.of("a1", "a2", "a3", "a4"));
+        scheduler.submit("lote-1", "sub-b", List.of("b1", "b2", "b3", "b4"));
+        scheduler.submit("lote-1", "sub-c", List.of("c1", "c2", "c3", "c4"));
+        waitFor(() -> started.size() == 5);
+
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(5, stats.get("inFlight"));
+        assertEquals(7, stats.get("queued"));
+        assertTrue(maxBySubscription.values().stream().allMatch(max -> max <= 2));
+
+        release.countDown();
+        waitFor(() -> ((Number) scheduler.getStats().get("completed")).intValue() == 12);
+        assertTrue(maxRunning.get() <= 5);
+        assertEquals(0, scheduler.getStats().get("inFlight"));
+    }
+
+    @Test
+    void interleavesRequestsFairly() throws Exception {
+        // Um worker só: a ordem de início é a ordem de despacho
+        DeletionSchedulerService scheduler = scheduler(1, 10);
+
+        scheduler.submit("bulk", "sub-a", List.of("g1", "g2", "g3", "g4", "g5", "g6"));
+        scheduler.submit("single", "sub-b", List.of("urgente"));
+        release.countDown();
+
+        waitFor(() -> started.size() == 7);
+        // A deleção individual não espera o lote inteiro terminar
+        assertTrue(started.indexOf("sub-b/urgente") <= 3, started.toString());
+    }
+
+    @Test
+    void jobTracksProgressAndCancelStopsQueuedAndRunningWork() throws Exception {
+        DeletionSchedulerService scheduler = scheduler(2, 2);
+        String jobId = jobs.create("limpeza").getId();
+        String otherId = jobs.create("outro").getId();
+
+        scheduler.submit(jobId, "sub-a", List.of("a1", "a2", "a3", "a4", "a5"));
+        waitFor(() -> started.size() == 2);
+        scheduler.submit(otherId, "sub-b", List.of("b1"));
+
+        Map<String, Object> view = jobs.get(jobId).toView(false);
+        assertEquals(DeletionJobService.RUNNING, view.get("state"));
+        assertEquals(3, view.get("queued"));
+        assertEquals(2, view.get("inFlight"));
+
+        assertTrue(scheduler.cancel(jobId));
+        waitFor(() -> !jobs.get(jobId).isActive());
+
+        view = jobs.get(jobId).toView(false);
+        assertEquals(DeletionJobService.CANCELLED, view.get("state"));
+        assertEquals(5, view.get("skipped"));
+        assertEquals(0, view.get("done"));
+        // O outro job segue normalmente
+        release.countDown();
+        waitFor(() -> !jobs.get(otherId).isActive());
+        assertEquals(1, jobs.get(otherId).toView(false).get("done"));
+        assertEquals(Set.of("sub-a/a1", "sub-a/a2", "sub-b/b1"), Set.copyOf(started));
+    }
+
+    @Test
+    void lateEventsDoNotRecreateJobsAndAzureFailuresOnCancelledJobsCountAsFailed() {
+        scheduler(1, 1);
+        jobs.onQueued("removido", "sub-a", List.of("g1"));
+        jobs.onFinished("removido", "sub-a", "g1", true, "ok");
+        assertNull(jobs.get("removido"));
+
+        String jobId = jobs.create("limpeza").getId();
+        jobs.onQueued(jobId, "sub-a", List.of("g1", "g2"));
+        jobs.onStarted(jobId, "sub-a", "g1");
+        jobs.onStarted(jobId, "sub-a", "g2");
+        jobs.cancel(jobId);
+        jobs.onFinished(jobId, "sub-a", "g1", false, "ScopeLocked");
+        jobs.onCancelled(jobId, "sub-a", "g2", "Cancelado");
+
+        Map<String, Object> view = jobs.get(jobId).toView(false);
+        assertEquals(1, view.get("failed"));
+        assertEquals(1, view.get("skipped"));
+        assertEquals(0, view.get("inFlight"));
+    }
+
+    @Test
+    void failedListingMarksTheJobFailedAndFinishedJobsCannotBeCancelled() throws Exception {
+        DeletionSchedulerService scheduler = scheduler(1, 1);
+        String failedId = jobs.create("falha").getId();
+        scheduler.submitListed(failedId, "sub-a", () -> {
+            throw new AzureCliException("assinatura inacessível");
+        });
+        waitFor(() -> !jobs.get(failedId).isActive());
+
+        Map<String, Object> view = jobs.get(failedId).toView(false);
+        assertEquals(DeletionJobService.FAILED, view.get("state"));
+        assertEquals(Map.of("sub-a", "assinatura inacessível"), view.get("errors"));
+
+        String doneId = jobs.create("ok").getId();
+        release.countDown();
+        scheduler.submit(doneId, "sub-b", List.of("b1"));
+        waitFor(() -> !jobs.get(doneId).isActive());
+        assertFalse(scheduler.cancel(doneId));
+        assertEquals(DeletionJobService.COMPLETED, jobs.get(doneId).getState());
+    }
+
+    @Test
+    void noWaitReleasesSlotsAndTracksCompletionWithOneListPerSubscription() throws Exception {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setJournalEnabled(false);
+        config.setGlobalConcurrency(2);
+        config.setPerSubscriptionConcurrency(1);
+        config.setPollInterval(50);
+        Map<String, String> remote = new ConcurrentHashMap<>(
+                Map.of("rg-1", "Succeeded", "rg-2", "Succeeded", "rg-3", "Succeeded"));
+        AtomicInteger listCalls = new AtomicInteger();
+
+        AzureCliService cli = new AzureCliService(null, null, null, null, null, null) {
+            @Override
+            public void submitResourceGroupDeletion(String resourceGroupName, String subscriptionId) {
+                started.add(subscriptionId + "/" + resourceGroupName);
+                remote.put(resourceGroupName, "Deleting");
+            }
+
+            @Override
+            public List<ResourceGroup> refreshResourceGroups(String subscriptionId) {
+                listCalls.incrementAndGet();
+                return remote.entrySet().stream()
+                        .map(e -> new ResourceGroup("/" + e.getKey(), e.getKey(), "eastus", e.getValue(), new ArrayList<>()))
+                        .toList();
+            }
+
+            @Override
+            public boolean resourceGroupExists(String resourceGroupName, String subscriptionId) {
+                throw new AssertionError("verificação por grupo não deveria ser usada");
+            }
+        };
+        DeletionStatusService statusService = new DeletionStatusService(
+                new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config), config);
+        scheduler = new DeletionSchedulerService(cli, statusService, config,
+                new DeletionJournal(new ObjectMapper(), config), new DeletionJobService(config));
+
+        scheduler.submit("lote", "sub-a", List.of("rg-1", "rg-2", "rg-3"));
+        // Uma vaga por assinatura, mas nenhum envio espera a deleção anterior terminar
+        waitFor(() -> started.size() == 3);
+        int callsAfterSubmit = listCalls.get();
+        waitFor(() -> listCalls.get() >= callsAfterSubmit + 2);
+
+        remote.remove("rg-1");
+        remote.remove("rg-2");
+        remote.put("rg-3", "Succeeded");
+        waitFor(() -> ((Number) scheduler.getStats().get("completed")).intValue()
+                + ((Number) scheduler.getStats().get("failed")).intValue() == 3);
+
+        assertEquals(2L, scheduler.getStats().get("completed"));
+        assertEquals(1L, scheduler.getStats().get("failed"));
+        assertEquals(DeletionStatusService.COMPLETED, statusService.getStatus("sub-a", "rg-1").status());
+        assertEquals(DeletionStatusService.FAILED, statusService.getStatus("sub-a", "rg-3").status());
+        statusService.shutdown();
+    }
+
+    @Test
+    void pollTimeoutAppliesWhileGroupStaysDeletingOrListingFails() throws Exception {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setJournalEnabled(false);
+        config.setPollInterval(20);
+        config.setPollTimeout(300);
+        AzureCliService cli = new AzureCliService(null, null, null, null, null, null) {
+            @Override
+            public void submitResourceGroupDeletion(String resourceGroupName, String subscriptionId) {
+                started.add(subscriptionId + "/" + resourceGroupName);
+            }
+
+            @Override
+            public List<ResourceGroup> refreshResourceGroups(String subscriptionId) throws AzureCliException {
+                if (subscriptionId.equals("sub-fora")) {
+                    throw new AzureCliException("assinatura inacessível");
+                }
+                return List.of(new ResourceGroup("/preso", "preso", "eastus", "Deleting", new ArrayList<>()));
+            }
+        };
+        scheduler = new DeletionSchedulerService(cli, new DeletionStatusService(
+                new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config), config), config,
+                new DeletionJournal(new ObjectMapper(), config), new DeletionJobService(config));
+
+        scheduler.submit("lote", "sub-a", List.of("preso"));
+        scheduler.submit("lote", "sub-fora", List.of("qualquer"));
+
+        waitFor(() -> ((Number) scheduler.getStats().get("failed")).intValue() == 2);
+        assertFalse(scheduler.hasPendingWork());
+    }
+
+    private void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condição não atingida a tempo");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeletionStatusServiceTest {
+
+    private DeletionEventService events;
+    private DeletionStatusService statusService;
+
+    private DeletionStatusService statusService(long completedRetention, long failedRetention, int maxEntries) {
+        AzureDeletionConfig config = new AzureDeletionConfig();
+        config.setStatusCompletedRetention(completedRetention);
+        config.setStatusFailedRetention(failedRetention);
+        config.setStatusMaxEntries(maxEntries);
+        config.setStatusSweepInterval(50);
+        events = new DeletionEventService(new ObjectMapper().findAndRegisterModules(), config);
+        statusService = new DeletionStatusService(events, config);
+        return statusService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        statusService.shutdown();
+        events.shutdown();
+    }
+
+    @Test
+    void tenThousandCompletionsDoNotStartThreads() {
+        DeletionStatusService service = statusService(60000, 60000, 20000);
+        int threadsBefore = Thread.activeCount();
+
+        for (int i = 0; i < 10_000; i++) {
+            service.markAsDeleting("rg-" + i, "sub-1");
+            service.markAsCompleted("rg-" + i, "sub-1", true, "Deletado com sucesso");
+        }
+
+        assertTrue(Thread.activeCount() <= threadsBefore + 2,
+                "threads antes: " + threadsBefore + ", depois: " + Thread.activeCount());
+        assertEquals(10_000, service.size());
+    }
+
+    @Test
+    void completedAndFailedEntriesExpireWithTheirOwnRetention() throws Exception {
+        DeletionStatusService service = statusService(100, 60000, 100);
+        service.markAsDeleting("rg-ok", "sub-1");
+        service.markAsCompleted("rg-ok", "sub-1", true, "ok");
+        service.markAsDeleting("rg-erro", "sub-1");
+        service.markAsCompleted("rg-erro", "sub-1", false, "falhou");
+
+        Thread.sleep(400);
+        service.removeExpired();
+
+        assertNull(service.getStatus("sub-1", "rg-ok"));
+        assertEquals("FAILED", service.getStatus("sub-1", "rg-erro").status());
+    }
+
+    @Test
+    void groupMarkedAgainBeforeExpiryIsKept() throws Exception {
+        DeletionStatusService service = statusService(100, 100, 100);
+        service.markAsDeleting("rg-1", "sub-1");
+        service.markAsCompleted("rg-1", "sub-1", false, "falhou");
+        // Nova tentativa antes da expiração do status anterior
+        service.markAsDeleting("rg-1", "sub-1");
+
+        Thread.sleep(400);
+        service.removeExpired();
+
+        assertEquals("DELETING", service.getStatus("sub-1", "rg-1").status());
+    }
+
+    @Test
+    void hardCapDropsOldestFinishedEntriesButKeepsInProgress() {
+        DeletionStatusService service = statusService(60000, 60000, 100);
+        for (int i = 0; i < 50; i++) {
+            service.markAsDeleting("rg-ativo-" + i, "sub-1");
+        }
+        for (int i = 0; i < 200; i++) {
+            service.markAsDeleting("rg-" + i, "sub-1");
+            service.markAsCompleted("rg-" + i, "sub-1", true, "ok");
+        }
+
+        assertEquals(100, service.size());
+        assertEquals(50, service.getDeletingGroups("sub-1").size());
+        assertNull(service.getStatus("sub-1", "rg-0"));
+        assertEquals("COMPLETED", service.getStatus("sub-1", "rg-199").status());
+    }
+
+    @Test
+    void sameGroupNameInTwoSubscriptionsIsTrackedSeparately() {
+        DeletionStatusService service = statusService(60000, 60000, 100);
+        service.markAsDeleting("rg-aula", "sub-1");
+        service.markAsDeleting("rg-aula", "sub-2");
+        service.markAsCompleted("RG-AULA", "sub-1", true, "ok");
+
+        assertEquals("COMPLETED", service.getStatus("sub-1", "rg-aula").status());
+        assertEquals("DELETING", service.getStatus("sub-2", "rg-aula").status());
+        assertEquals(Set.of(), service.getDeletingGroups("sub-1"));
+        assertEquals(Set.of("rg-aula"), service.getDeletingGroups("sub-2"));
+        assertEquals(1, service.countByState(DeletionStatusService.DELETING));
+        assertEquals(1, service.countByState(DeletionStatusService.COMPLETED));
+        assertEquals(2, service.findByGroupName("rg-aula").size());
+        assertEquals(Set.of("sub-2/rg-aula"), service.getAllStatus("sub-2").keySet());
+    }
+}
@@ -0,0 +1,31 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.util.GroupNameMatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExclusionPolicyServiceTest {
+
+    private final ExclusionPolicyService policies = new ExclusionPolicyService(new ObjectMapper(),
+            new AzureDeletionConfig());
+
+    @Test
+    void ruleWithoutPatternsIsAcceptedAlongsideRequestPatterns() {
+        policies.save("infra", Arrays.asList(
+                new ExclusionPolicyService.ExclusionRule("exact", null),
+                new ExclusionPolicyService.ExclusionRule("startsWith", List.of("rg-infra"))));
+
+        GroupNameMatcher matcher = policies.matcherFor("infra", List.of("aluno1"), "contains");
+
+        assertTrue(matcher.matches("rg-infra-dns"));
+        assertTrue(matcher.matches("rg-aluno1"));
+        assertFalse(matcher.matches("rg-aluno2"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.CliCallScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tenant simulado: 2 assinaturas ativas (uma desabilitada) com 50 grupos de 3
+ * recursos; "rg-vazio" não tem recursos e "rg-quebrado" falha ao listar.
+ */
+class InventoryExportServiceTest {
+
+    private static final int GROUPS = 50;
+
+    private final AzureCliConfig cliConfig = new AzureCliConfig();
+    private final CliCallScheduler scheduler = new CliCallScheduler(cliConfig);
+    private final AtomicInteger loadsStarted = new AtomicInteger();
+
+    private final AzureCliService azureCliService = new AzureCliService(null, null, null, null, null, null) {
+        @Override
+        public List<Subscription> listSubscriptions() {
+            return List.of(new Subscription("sub-1", "sub-1", "Enabled", "Assinatura, \"um\""),
+                    new Subscription("sub-2", "sub-2", "Enabled", "Assinatura dois"),
+                    new Subscription("sub-3", "sub-3", "Disabled", "Desabilitada"));
+        }
+
+        @Override
+        public List<ResourceGroup> listResourceGroups(String subscriptionId) {
+            List<ResourceGroup> groups = new ArrayList<>();
+            for (int i = 0; i < GROUPS; i++) {
+                groups.add(new ResourceGroup("/" + subscriptionId + "/rg-" + i, "rg-" + i, "eastus", "Succeeded", null));
+            }
+            groups.add(new ResourceGroup("/rg-vazio", "rg-vazio", "eastus", "Succeeded", null));
+            groups.add(new ResourceGroup("/rg-quebrado", "rg-quebrado", "eastus", "Succeeded", null));
+            return groups;
+        }
+
+        @Override
+        public List<Resource> loadResourcesInGroup(String subscriptionId, String group) throws AzureCliException {
+            loadsStarted.incrementAndGet();
+            if (group.equals("rg-quebrado")) {
+                throw new AzureCliException("falha simulada");
+            }
+            List<Resource> resources = new ArrayList<>();
+            for (int i = 0; !group.equals("rg-vazio") && i < 3; i++) {
+                resources.add(new Resource("/" + group + "/vm-" + i, "vm-" + i, "Microsoft.Compute/virtualMachines",
+                        "eastus", group));
+            }
+            return resources;
+        }
+    };
+
+    private InventoryExportService service(int prefetch) {
+        AzureInventoryConfig inventoryConfig = new AzureInventoryConfig();
+        inventoryConfig.setExportPrefetch(prefetch);
+        return new InventoryExportService(azureCliService, scheduler, new ObjectMapper(), inventoryConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void ndjsonHasOneLinePerResourceEmptyGroupAndFailure() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = service(4).export(out, InventoryExportService.NDJSON, false, null);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        // Por assinatura ativa: 50 grupos x 3 recursos + 1 grupo vazio + 1 erro
+        assertEquals(2 * (GROUPS * 3 + 2), rows);
+        assertEquals(rows, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals("Assinatura, \"um\"", first.get("subscriptionName").asText());
+        assertEquals("/rg-0/vm-0", first.get("resourceId").asText());
+        JsonNode failed = mapper.readTree(lines[GROUPS * 3 + 1]);
+        assertEquals("rg-quebrado", failed.get("resourceGroup").asText());
+        assertEquals("falha simulada", failed.get("error").asText());
+        assertTrue(out.toString(StandardCharsets.UTF_8).lines().noneMatch(line -> line.contains("sub-3")));
+    }
+
+    @Test
+    void gzipCsvRoundTripsWithQuoting() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service(8).export(out, InventoryExportService.CSV, true, List.of("sub-1"));
+
+        List<String> lines;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        assertEquals(1 + GROUPS * 3 + 2, lines.size());
+        assertTrue(lines.get(0).startsWith("subscriptionId,subscriptionName,resourceGroup"));
+        assertEquals("sub-1,\"Assinatura, \"\"um\"\"\",rg-0,eastus,Succeeded,/rg-0/vm-0,vm-0,"
+                + "Microsoft.Compute/virtualMachines,eastus,", lines.get(1));
+        assertEquals("sub-1,\"Assinatura, \"\"um\"\"\",rg-vazio,eastus,Succeeded,,,,,", lines.get(GROUPS * 3 + 1));
+    }
+
+    @Test
+    void disconnectedClientStopsQueriesWithinThePrefetchWindow() {
+        // Cliente "some" depois de ~2 KB: só a janela de prefetch pode ter sido consultada além do escrito
+        OutputStream disconnecting = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 2048) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThrows(IOException.class, () -> service(4).export(disconnecting, InventoryExportService.NDJSON, false, null));
+        // ~2 KB são poucos grupos (3 linhas de ~200 bytes cada) e nada da segunda assinatura
+        assertTrue(loadsStarted.get() <= 10, "grupos consultados: " + loadsStarted.get());
+    }
+}
@@ -0,0 +1,215 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.config.AzureSnapshotConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.CliCallScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Atualizador do inventário com AzureCliService falso: conta as chamadas para
+ * verificar a atualização incremental e a pausa durante deleções.
+ */
+class InventorySnapshotServiceTest {
+
+    private final Map<String, String> groupStates = new ConcurrentHashMap<>();
+    private final List<String> resourceCalls = new CopyOnWriteArrayList<>();
+    private final List<String> groupCalls = new CopyOnWriteArrayList<>();
+    private final Set<String> failingGroups = ConcurrentHashMap.newKeySet();
+    // Recursos por grupo informados pela contagem da assinatura (padrão: 1, o que refreshResourcesInGroup devolve)
+    private final Map<String, Integer> resourceCounts = new ConcurrentHashMap<>();
+    private volatile boolean deleting;
+
+    private CliCallScheduler scheduler;
+    private DeletionSchedulerService deletionScheduler;
+    private InventorySnapshotService snapshot;
+
+    @BeforeEach
+    void setUp() {
+        groupStates.put("rg-a", "Succeeded");
+        groupStates.put("rg-b", "Succeeded");
+
+        AzureCliService cli = new AzureCliService(null, null, null, null, null, null) {
+            @Override
+            public List<Subscription> listSubscriptionsWithResources() {
+                return List.of(new Subscription("sub-1", "Sub 1", "Enabled", "Sub 1"));
+            }
+
+            @Override
+            public List<ResourceGroup> refreshResourceGroups(String subscriptionId) {
+                groupCalls.add(subscriptionId);
+                List<ResourceGroup> groups = new ArrayList<>();
+                groupStates.forEach((name, state) ->
+                        groups.add(new ResourceGroup("/" + name, name, "eastus", state, new ArrayList<>())));
+                return groups;
+            }
+
+            @Override
+            public Map<String, Integer> countResourcesByGroup(String subscriptionId) {
+                Map<String, Integer> counts = new HashMap<>();
+                groupStates.keySet().forEach(name -> counts.put(name, resourceCounts.getOrDefault(name, 1)));
+                return counts;
+            }
+
+            @Override
+            public List<Resource> refreshResourcesInGroup(String subscriptionId, String resourceGroupName)
+                    throws AzureCliException {
+                resourceCalls.add(resourceGroupName);
+                if (failingGroups.contains(resourceGroupName)) {
+                    throw new AzureCliException("recursos indisponíveis", AzureErrorType.TRANSIENT, null);
+                }
+                return List.of(new Resource("/" + resourceGroupName + "/vm", "vm", "vm", "eastus", resourceGroupName));
+            }
+        };
+
+        AzureCliConfig cliConfig = new AzureCliConfig();
+        cliConfig.setVirtualThreads(false);
+        scheduler = new CliCallScheduler(cliConfig);
+        AzureDeletionConfig deletionConfig = new AzureDeletionConfig();
+        deletionConfig.setJournalEnabled(false);
+        deletionScheduler = new DeletionSchedulerService(null, null, deletionConfig,
+                new DeletionJournal(null, deletionConfig), new DeletionJobService(deletionConfig)) {
+            @Override
+            public synchronized boolean hasPendingWork() {
+                return deleting;
+            }
+        };
+
+        AzureSnapshotConfig snapshotConfig = new AzureSnapshotConfig();
+        // Intervalo zero: toda assinatura está vencida a cada ciclo
+        snapshotConfig.setSubscriptionInterval(0);
+        snapshot = new InventorySnapshotService(cli, deletionScheduler, scheduler,
+                new AzureInventoryConfig(), snapshotConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshot.shutdown();
+        deletionScheduler.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void servesFromSnapshotAfterFirstLoad() throws Exception {
+        List<ResourceGroup> first = snapshot.getResourceGroups("sub-1");
+        List<ResourceGroup> second = snapshot.getResourceGroups("sub-1");
+
+        assertEquals(2, first.size());
+        assertEquals(1, first.get(0).getResources().size());
+        assertEquals(first, second);
+        assertEquals(1, groupCalls.size());
+        assertEquals(2, resourceCalls.size());
+    }
+
+    @Test
+    void onlyChangedOrNewGroupsAreReloaded() throws Exception {
+        snapshot.getResourceGroups("sub-1");
+        resourceCalls.clear();
+
+        groupStates.put("rg-b", "Deleting");
+        groupStates.put("rg-c", "Succeeded");
+        snapshot.tick();
+
+        assertEquals(List.of("rg-b", "rg-c"), resourceCalls.stream().sorted().toList());
+        List<ResourceGroup> groups = snapshot.getResourceGroups("sub-1");
+        assertEquals(3, groups.size());
+        assertTrue(groups.stream().allMatch(rg -> rg.getResources().size() == 1));
+    }
+
+    @Test
+    void groupsWhoseResourceCountChangedAreReloaded() throws Exception {
+        snapshot.getResourceGroups("sub-1");
+        resourceCalls.clear();
+
+        // Recurso criado em rg-a: o estado do grupo continua "Succeeded"
+        resourceCounts.put("rg-a", 2);
+        snapshot.tick();
+
+        assertEquals(List.of("rg-a"), resourceCalls);
+    }
+
+    @Test
+    void failedGroupKeepsThePreviousSnapshotInsteadOfShowingEmpty() throws Exception {
+        List<ResourceGroup> before = snapshot.getResourceGroups("sub-1");
+
+        groupStates.put("rg-b", "Deleting");
+        groupStates.put("rg-c", "Succeeded");
+        failingGroups.add("rg-c");
+        snapshot.tick();
+
+        assertEquals(before, snapshot.getResourceGroups("sub-1"));
+        assertEquals("Succeeded", snapshot.getResourceGroups("sub-1").stream()
+                .filter(rg -> rg.getName().equals("rg-b")).findFirst().orElseThrow().getProvisioningState());
+        assertNotNull(snapshot.getStatus().get("lastError"));
+    }
+
+    @Test
+    void removedGroupsDisappearWithoutReloadingOthers() throws Exception {
+        snapshot.getResourceGroups("sub-1");
+        resourceCalls.clear();
+
+        groupStates.remove("rg-a");
+        snapshot.tick();
+
+        assertEquals(List.of(), resourceCalls);
+        assertEquals(List.of("rg-b"), snapshot.getResourceGroups("sub-1").stream().map(ResourceGroup::getName).toList());
+    }
+
+    @Test
+    void pausesWhileDeletionsArePending() throws Exception {
+        snapshot.getResourceGroups("sub-1");
+        int before = groupCalls.size();
+
+        deleting = true;
+        snapshot.tick();
+        snapshot.tick();
+        assertEquals(before, groupCalls.size());
+        assertEquals(true, snapshot.getStatus().get("paused"));
+
+        // Pausado: a idade continua sendo a real
+        assertNotNull(snapshot.getAgeMs("sub-1"));
+
+        deleting = false;
+        snapshot.tick();
+        assertEquals(before + 1, groupCalls.size());
+        assertEquals(false, snapshot.getStatus().get("paused"));
+        assertEquals(List.of(), snapshot.getStatus().get("dueSubscriptions"));
+    }
+
+    @Test
+    void coldSubscriptionLoadsInBackgroundWithoutBlocking() throws Exception {
+        assertNull(snapshot.findResourceGroups("sub-1"));
+
+        List<ResourceGroup> groups = null;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (groups == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            groups = snapshot.findResourceGroups("sub-1");
+        }
+
+        assertNotNull(groups);
+        assertEquals(2, groups.size());
+        assertEquals(1, groupCalls.size());
+    }
+}
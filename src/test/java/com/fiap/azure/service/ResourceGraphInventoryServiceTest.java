@@ -0,0 +1,101 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import com.fiap.azure.util.FakeAzCli;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)
+class ResourceGraphInventoryServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeAzCli fakeAz;
+    private ResourceGraphInventoryService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeAz = FakeAzCli.install("fake-az", tempDir,
+                "graph-groups-page1.json", "graph-groups-page2.json",
+                "graph-resources-page1.json", "graph-resources-page2.json",
+                "graph-counts-page1.json");
+        AzureInventoryConfig inventoryConfig = new AzureInventoryConfig();
+        inventoryConfig.setMode(AzureInventoryConfig.MODE_GRAPH);
+        inventoryConfig.setGraphPageSize(2);
+        service = new ResourceGraphInventoryService(fakeAz.executor(), new ObjectMapper(), inventoryConfig);
+    }
+
+    @Test
+    void followsSkipTokensAndMapsGroupsAndResources() throws Exception {
+        Map<String, List<ResourceGroup>> result =
+                service.listResourceGroupsBySubscriptions(List.of("sub-a", "sub-b"));
+
+        List<ResourceGroup> groupsA = result.get("sub-a");
+        assertEquals(2, groupsA.size());
+        assertEquals("rg-aluno1", groupsA.get(0).getName());
+        assertEquals("eastus", groupsA.get(0).getLocation());
+        assertEquals(2, groupsA.get(0).getResources().size());
+        assertTrue(groupsA.get(1).getResources().isEmpty());
+
+        Resource app = groupsA.get(0).getResources().get(0);
+        assertEquals("app1", app.getName());
+        assertEquals("microsoft.web/sites", app.getType());
+        assertEquals("rg-aluno1", app.getResourceGroup());
+
+        // resourceGroup em minúsculas no Resource Graph é associado ao grupo original
+        ResourceGroup aula = result.get("sub-b").get(0);
+        assertEquals("RG-Aula", aula.getName());
+        assertEquals("Deleting", aula.getProvisioningState());
+        assertEquals(1, aula.getResources().size());
+        assertEquals("RG-Aula", aula.getResources().get(0).getResourceGroup());
+
+        // Recursos de assinaturas não solicitadas são ignorados
+        assertFalse(result.containsKey("sub-c"));
+
+        List<String> invocations = fakeAz.invocations();
+        assertEquals(4, invocations.size());
+        assertFalse(invocations.get(0).contains("--skip-token"));
+        assertTrue(invocations.get(1).contains("--skip-token page2"));
+        assertTrue(invocations.get(0).contains("--first 2"));
+        assertTrue(invocations.get(0).contains("--subscriptions sub-a sub-b"));
+    }
+
+    @Test
+    void countsResourceGroupsPerSubscription() throws Exception {
+        Map<String, Long> counts = service.countResourceGroups(List.of("sub-a", "sub-b", "sub-vazia"));
+
+        assertEquals(2L, counts.get("sub-a"));
+        assertEquals(1L, counts.get("sub-b"));
+        assertEquals(0L, counts.get("sub-vazia"));
+        assertEquals(1, fakeAz.invocations().size());
+    }
+
+    @Test
+    void batchesSubscriptionsAcrossQueries() throws Exception {
+        AzureInventoryConfig inventoryConfig = new AzureInventoryConfig();
+        inventoryConfig.setGraphSubscriptionBatchSize(1);
+        service = new ResourceGraphInventoryService(fakeAz.executor(), new ObjectMapper(), inventoryConfig);
+
+        service.countResourceGroups(List.of("sub-a", "sub-b"));
+
+        List<String> invocations = fakeAz.invocations();
+        assertEquals(2, invocations.size());
+        assertTrue(invocations.get(0).endsWith("--subscriptions sub-a --output json"));
+        assertTrue(invocations.get(1).endsWith("--subscriptions sub-b --output json"));
+    }
+}
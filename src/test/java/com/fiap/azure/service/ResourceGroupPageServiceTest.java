@@ -0,0 +1,102 @@
+package com.fiap.azure.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fiap.azure.config.AzureDeletionConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.config.AzureSnapshotConfig;
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceGroupPageServiceTest {
+
+    private volatile List<ResourceGroup> inventory = new ArrayList<>();
+    private DeletionStatusService deletionStatus;
+    private ResourceGroupPageService pages;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 1000; i++) {
+            inventory.add(group(String.format("rg-%04d", i), i % 7, i % 2 == 0 ? "eastus" : "brazilsouth"));
+        }
+        AzureSnapshotConfig snapshotConfig = new AzureSnapshotConfig();
+        snapshotConfig.setEnabled(false);
+        InventorySnapshotService snapshot = new InventorySnapshotService(null, null, null,
+                new AzureInventoryConfig(), snapshotConfig) {
+            @Override
+            public List<ResourceGroup> getResourceGroups(String subscriptionId) {
+                return inventory;
+            }
+        };
+        AzureDeletionConfig deletionConfig = new AzureDeletionConfig();
+        deletionStatus = new DeletionStatusService(new DeletionEventService(new ObjectMapper(), deletionConfig),
+                deletionConfig);
+        pages = new ResourceGroupPageService(snapshot, deletionStatus, new AzureInventoryConfig());
+    }
+
+    private static ResourceGroup group(String name, int resources, String location) {
+        List<Resource> list = new ArrayList<>();
+        for (int i = 0; i < resources; i++) {
+            list.add(new Resource("/" + name + "/" + i, "r" + i, "vm", location, name));
+        }
+        return new ResourceGroup("/" + name, name, location, "Succeeded", list);
+    }
+
+    @Test
+    void walksAllPagesWithoutResourcesInThePayload() throws Exception {
+        deletionStatus.markAsDeleting("rg-0001", "sub-1");
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int requests = 0;
+        do {
+            ResourceGroupPageService.GroupPage page = pages.page("sub-1", cursor, 300, "name", "desc", null, null);
+            page.items().forEach(item -> seen.add(item.name()));
+            if (requests == 3) {
+                assertTrue(page.items().stream().anyMatch(ResourceGroupPageService.GroupSummary::deleting));
+            }
+            assertEquals(1000, page.matched());
+            cursor = page.nextCursor();
+            requests++;
+        } while (cursor != null);
+
+        assertEquals(4, requests);
+        assertEquals(1000, seen.size());
+        assertEquals("rg-0999", seen.get(0));
+        assertEquals("rg-0000", seen.get(999));
+        assertEquals(6, pages.resources("sub-1", "RG-0006").size());
+        assertNull(pages.resources("sub-1", "rg-inexistente"));
+    }
+
+    @Test
+    void cursorSurvivesInventoryChangesAndFiltersApply() throws Exception {
+        ResourceGroupPageService.GroupPage first = pages.page("sub-1", null, 10, "resources", "desc", "rg-00", "eastus");
+        assertEquals(50, first.matched());
+        assertTrue(first.items().stream().allMatch(item -> "eastus".equals(item.location())));
+        assertEquals(6, first.items().get(0).resourceCount());
+        assertTrue(first.items().get(9).resourceCount() < 6);
+
+        // Snapshot atualizado entre as páginas: some um grupo já exibido
+        List<ResourceGroup> refreshed = new ArrayList<>(inventory);
+        refreshed.removeIf(group -> group.getName().equals(first.items().get(0).name()));
+        inventory = refreshed;
+
+        List<String> next = pages.page("sub-1", first.nextCursor(), 10, "resources", "desc", "rg-00", "eastus")
+                .items().stream().map(ResourceGroupPageService.GroupSummary::name).toList();
+        assertEquals(10, next.size());
+        assertTrue(first.items().stream().noneMatch(item -> next.contains(item.name())));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> pages.page("sub-1", first.nextCursor(), 10, "name", "asc", null, null));
+        assertThrows(IllegalArgumentException.class, () -> pages.page("sub-1", "%%%", 10, "name", "asc", null, null));
+        assertThrows(IllegalArgumentException.class, () -> pages.page("sub-1", null, 10, "idade", "asc", null, null));
+    }
+}
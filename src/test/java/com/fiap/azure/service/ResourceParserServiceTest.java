@@ -0,0 +1,67 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceParserServiceTest {
+
+    private final ResourceParserService parser = new ResourceParserService();
+
+    private InputStream fixture(String name) {
+        return getClass().getResourceAsStream("/fixtures/" + name);
+    }
+
+    @Test
+    void streamingResourcesSkipsUnusedFieldsAndAppliesDefaults() throws Exception {
+        List<Resource> resources = parser.parseResources(fixture("resource-list.json"), "rg-aluno1");
+
+        assertEquals(3, resources.size());
+        assertEquals(new Resource(
+                "/subscriptions/sub-a/resourceGroups/rg-aluno1/providers/Microsoft.Web/sites/app1",
+                "app1", "Microsoft.Web/sites", "eastus", "rg-aluno1"), resources.get(0));
+        assertEquals("N/A", resources.get(1).getLocation());
+        assertEquals(new Resource("unknown", "N/A", "Unknown", "N/A", "rg-aluno1"), resources.get(2));
+    }
+
+    @Test
+    void streamingResourceGroupsReadsOnlyUsedFields() throws Exception {
+        List<ResourceGroup> streamed = parser.parseResourceGroups(fixture("group-list.json"));
+
+        assertEquals(3, streamed.size());
+        assertEquals(new ResourceGroup("/subscriptions/sub-a/resourceGroups/rg-aluno1", "rg-aluno1", "eastus",
+                "Succeeded", new ArrayList<>()), streamed.get(0));
+        assertEquals("Deleting", streamed.get(1).getProvisioningState());
+        assertEquals("Unknown", streamed.get(2).getLocation());
+        assertEquals("Unknown", streamed.get(2).getProvisioningState());
+    }
+
+    @Test
+    void emitsResourcesIncrementally() throws Exception {
+        String json = "[{\"name\":\"a\"},{\"name\":\"b\"}";
+        int[] seen = {0};
+        try {
+            parser.streamResources(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "rg",
+                    r -> seen[0]++);
+        } catch (Exception expected) {
+            // JSON truncado: os recursos completos já foram entregues antes do erro
+        }
+        assertEquals(2, seen[0]);
+    }
+
+    @Test
+    void nonArrayPayloadYieldsNothing() throws Exception {
+        List<Resource> resources = parser.parseResources(
+                new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)), "rg");
+        assertTrue(resources.isEmpty());
+    }
+}
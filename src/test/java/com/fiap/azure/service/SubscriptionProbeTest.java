@@ -0,0 +1,134 @@
+package com.fiap.azure.service;
+
+import com.fiap.azure.config.AzureCacheConfig;
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.config.AzureInventoryConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.model.Subscription;
+import com.fiap.azure.util.AzureCallGate;
+import com.fiap.azure.util.AzureCliWorkerPool;
+import com.fiap.azure.util.AzureCommandExecutor;
+import com.fiap.azure.util.CliCallScheduler;
+import com.fiap.azure.util.CommandOutput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verificação de assinaturas com executor falso e latências injetadas: o tempo
+ * total deve acompanhar o limite de paralelismo, não o número de assinaturas.
+ */
+class SubscriptionProbeTest {
+
+    private static final long LATENCY_MS = 200;
+
+    private final String prefix = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Integer> groupCounts = new ConcurrentHashMap<>();
+    private CliCallScheduler scheduler;
+
+    private AzureCliService service(int subscriptions, int concurrency, long probeTimeout) {
+        StringBuilder accounts = new StringBuilder("[");
+        for (int i = 0; i < subscriptions; i++) {
+            String id = prefix + "-sub-" + i;
+            latencies.putIfAbsent(id, LATENCY_MS);
+            groupCounts.putIfAbsent(id, 1);
+            accounts.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"").append(id).append("\",\"name\":\"Sub ").append(i)
+                    .append("\",\"state\":\"Enabled\"}");
+        }
+        String accountList = accounts.append("]").toString();
+
+        AzureCliConfig cliConfig = new AzureCliConfig();
+        cliConfig.setMaxConcurrentCommands(64);
+        cliConfig.setVirtualThreads(false);
+        cliConfig.setSchedulerThreads(64);
+        AzureCommandExecutor executor = new AzureCommandExecutor(cliConfig, new AzureCliWorkerPool(cliConfig),
+                new AzureCallGate(cliConfig)) {
+            @Override
+            public CommandOutput executeRaw(String... args) throws AzureCliException {
+                if (args[0].equals("account")) {
+                    return output(args[1].equals("list") ? accountList : "{}");
+                }
+                String subscriptionId = args[3];
+                try {
+                    Thread.sleep(latencies.get(subscriptionId));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AzureCliException("interrompido", e);
+                }
+                StringBuilder groups = new StringBuilder("[");
+                for (int g = 0; g < groupCounts.get(subscriptionId); g++) {
+                    groups.append(g > 0 ? "," : "").append("{\"name\":\"rg-").append(g).append("\"}");
+                }
+                return output(groups.append("]").toString());
+            }
+        };
+
+        AzureInventoryConfig inventoryConfig = new AzureInventoryConfig();
+        inventoryConfig.setProbeConcurrency(concurrency);
+        inventoryConfig.setProbeTimeout(probeTimeout);
+        scheduler = new CliCallScheduler(cliConfig);
+        return new AzureCliService(new CliInventoryBackend(executor, new ObjectMapper(), new ResourceParserService()),
+                new AzureAuthService(executor, cliConfig), inventoryConfig, null, scheduler,
+                new InventoryCacheService(new AzureCacheConfig(), scheduler));
+    }
+
+    private static CommandOutput output(String json) {
+        return CommandOutput.of(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void wallTimeScalesWithConcurrencyLimitNotSubscriptionCount() throws Exception {
+        AzureCliService service = service(16, 4, 5000);
+
+        long start = System.currentTimeMillis();
+        List<Subscription> result = service.listSubscriptionsWithResources();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(16, result.size());
+        // 16 assinaturas / 4 em paralelo = 4 rodadas de 200ms (sequencial seria 3200ms)
+        assertTrue(elapsed >= 4 * LATENCY_MS - 50, "tempo: " + elapsed);
+        assertTrue(elapsed < 4 * LATENCY_MS + 1000, "tempo: " + elapsed);
+    }
+
+    @Test
+    void keepsOriginalOrderAndSkipsEmptySubscriptions() throws Exception {
+        latencies.put(prefix + "-sub-0", 400L);
+        groupCounts.put(prefix + "-sub-2", 0);
+        AzureCliService service = service(5, 5, 5000);
+
+        List<String> ids = service.listSubscriptionsWithResources().stream().map(Subscription::getId).toList();
+
+        assertEquals(List.of(prefix + "-sub-0", prefix + "-sub-1", prefix + "-sub-3", prefix + "-sub-4"), ids);
+    }
+
+    @Test
+    void slowSubscriptionIsMarkedUnknownInsteadOfStallingThePage() throws Exception {
+        latencies.put(prefix + "-sub-1", 30000L);
+        AzureCliService service = service(3, 3, 500);
+
+        long start = System.currentTimeMillis();
+        List<Subscription> result = service.listSubscriptionsWithResources();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(3, result.size());
+        assertEquals(Subscription.PROBE_OK, result.get(0).getProbeStatus());
+        assertEquals(Subscription.PROBE_UNKNOWN, result.get(1).getProbeStatus());
+        assertTrue(elapsed < 3000, "tempo: " + elapsed);
+    }
+}
@@ -0,0 +1,131 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AzureCliWorkerPoolTest {
+
+    private AzureCliConfig config;
+    private AzureCliWorkerPool pool;
+
+    @BeforeEach
+    void setUp() {
+        config = new AzureCliConfig();
+        config.setWorkerEnabled(true);
+        config.setWorkerPoolSize(2);
+        config.setWorkerAcquireTimeout(10000L);
+        config.setWorkerCommand(StubAzWorker.command(0));
+        pool = new AzureCliWorkerPool(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void multiplexesConcurrentCallsOntoBoundedWorkers() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String arg = "item-" + i;
+                results.add(threads.submit(() -> pool.execute("group", "show", "--name", arg).asString()));
+            }
+            for (int i = 0; i < 40; i++) {
+                assertEquals("[\"group\",\"show\",\"--name\",\"item-" + i + "\"]", results.get(i).get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertTrue(pool.getStats().get("workersStarted") <= 2);
+        assertEquals(40L, pool.getStats().get("commandsExecuted"));
+    }
+
+    @Test
+    void recyclesWorkerAfterMaxCommands() throws Exception {
+        config.setWorkerPoolSize(1);
+        config.setWorkerMaxCommands(3);
+
+        Set<String> pids = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            pids.add(pool.execute("pid").asString());
+        }
+
+        assertEquals(3, pids.size());
+        assertEquals(2L, pool.getStats().get("workersRecycled"));
+    }
+
+    @Test
+    void keepsWorkerAfterCommandFailure() throws Exception {
+        AzureCliException error = assertThrows(AzureCliException.class, () -> pool.execute("fail"));
+        assertTrue(error.getMessage().contains("falha simulada"));
+
+        pool.execute("account", "show");
+        assertEquals(1L, pool.getStats().get("workersStarted"));
+    }
+
+    @Test
+    void healthCheckPingsIdleWorkers() throws Exception {
+        config.setWorkerHealthCheckInterval(0L);
+
+        String first = pool.execute("pid").asString();
+        String second = pool.execute("pid").asString();
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void replacesCrashedWorker() throws Exception {
+        config.setWorkerPoolSize(1);
+
+        // Comando já entregue: a falha sai classificada, não como worker indisponível
+        AzureCliException error = assertThrows(AzureCliException.class, () -> pool.execute("crash"));
+        assertEquals(AzureErrorType.TRANSIENT, error.getType());
+        assertEquals("[\"account\",\"show\"]", pool.execute("account", "show").asString());
+        assertEquals(2L, pool.getStats().get("workersStarted"));
+    }
+
+    @Test
+    void reportsTimeoutAfterDelivery() {
+        AzureCliException error = assertThrows(AzureCliException.class, () -> pool.execute(300L, "sleep", "5000"));
+        assertEquals(AzureErrorType.TIMEOUT, error.getType());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void executorFallsBackToOneShotOnlyWhenCommandWasNotDelivered() throws Exception {
+        config.setPath("/bin/echo");
+        AzureCommandExecutor executor = new AzureCommandExecutor(config, pool, new AzureCallGate(config));
+
+        assertEquals("[\"group\",\"list\"]", executor.execute("group", "list"));
+        // Worker morreu com o comando na mão: não roda de novo em processo avulso
+        assertThrows(AzureCliException.class, () -> executor.execute("crash", "list"));
+        // Comandos que alteram recursos nunca passam pelo worker
+        assertEquals("group delete --name rg-1\n", executor.execute("group", "delete", "--name", "rg-1"));
+
+        config.setWorkerCommand(List.of("/caminho/inexistente/az-worker"));
+        AzureCommandExecutor withoutWorker = new AzureCommandExecutor(config, new AzureCliWorkerPool(config),
+                new AzureCallGate(config));
+        assertEquals("group list\n", withoutWorker.execute("group", "list"));
+    }
+}
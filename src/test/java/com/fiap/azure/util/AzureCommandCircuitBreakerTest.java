@@ -0,0 +1,159 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executor com o processo az simulado: assinaturas em "broken" falham como
+ * timeout, as em "locked" com erro do próprio comando; as demais respondem
+ * depois de "delayMs".
+ */
+class AzureCommandCircuitBreakerTest {
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private final Set<String> broken = ConcurrentHashMap.newKeySet();
+    private final Set<String> locked = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+    private volatile long delayMs;
+
+    private AzureCommandExecutor executor(AzureCliConfig config) {
+        config.setMaxRetries(0);
+        return new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config)) {
+            @Override
+            CommandOutput executeWithSlot(String... args) throws AzureCliException {
+                String subscriptionId = subscriptionOf(args);
+                executions.computeIfAbsent(subscriptionId, k -> new AtomicInteger()).incrementAndGet();
+                int now = running.computeIfAbsent(subscriptionId, k -> new AtomicInteger()).incrementAndGet();
+                maxRunning.computeIfAbsent(subscriptionId, k -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(delayMs);
+                    if (broken.contains(subscriptionId)) {
+                        throw new AzureCliException("Azure CLI excedeu o tempo limite", AzureErrorType.TIMEOUT, null);
+                    }
+                    if (locked.contains(subscriptionId)) {
+                        throw new AzureCliException("(ScopeLocked) The scope is locked", AzureErrorType.UNKNOWN, null);
+                    }
+                    return CommandOutput.of("[]".getBytes(StandardCharsets.UTF_8));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AzureCliException("interrompido", e);
+                } finally {
+                    running.get(subscriptionId).decrementAndGet();
+                }
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterSuccessfulProbe() throws Exception {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setBreakerFailureThreshold(3);
+        config.setBreakerOpenDuration(200L);
+        AzureCommandExecutor executor = executor(config);
+        broken.add("sub-ruim");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(AzureCliException.class, () -> executor.execute("group", "list", "--subscription", "sub-ruim"));
+        }
+        AzureCliException rejected = assertThrows(AzureCliException.class,
+                () -> executor.execute("group", "list", "--subscription", "sub-ruim"));
+
+        assertEquals(AzureErrorType.CIRCUIT_OPEN, rejected.getType());
+        assertEquals(3, executions.get("sub-ruim").get());
+        assertEquals(SubscriptionCircuitBreaker.OPEN, executor.getCircuitState("sub-ruim"));
+        assertEquals("[]", executor.execute("group", "list", "--subscription", "sub-boa"));
+
+        // Passado o tempo aberto, uma chamada de teste fecha o circuito
+        broken.clear();
+        Thread.sleep(250);
+        assertEquals("[]", executor.execute("group", "list", "--subscription", "sub-ruim"));
+        assertEquals(SubscriptionCircuitBreaker.CLOSED, executor.getCircuitState("sub-ruim"));
+        assertEquals(1, executor.getShortCircuitedCommands());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() throws Exception {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setBreakerFailureThreshold(1);
+        config.setBreakerOpenDuration(100L);
+        AzureCommandExecutor executor = executor(config);
+        broken.add("sub-ruim");
+
+        assertThrows(AzureCliException.class, () -> executor.execute("group", "list", "--subscription", "sub-ruim"));
+        Thread.sleep(150);
+        AzureCliException probe = assertThrows(AzureCliException.class,
+                () -> executor.execute("group", "list", "--subscription", "sub-ruim"));
+
+        assertEquals(AzureErrorType.TIMEOUT, probe.getType());
+        assertEquals(SubscriptionCircuitBreaker.OPEN, executor.getCircuitState("sub-ruim"));
+        assertEquals(2, executions.get("sub-ruim").get());
+    }
+
+    @Test
+    void commandErrorsDoNotOpenTheCircuit() {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setBreakerFailureThreshold(2);
+        AzureCommandExecutor executor = executor(config);
+        locked.add("sub-travada");
+
+        for (int i = 0; i < 4; i++) {
+            AzureCliException error = assertThrows(AzureCliException.class,
+                    () -> executor.execute("group", "delete", "--name", "rg", "--subscription", "sub-travada"));
+            assertEquals(AzureErrorType.UNKNOWN, error.getType());
+        }
+
+        assertEquals(SubscriptionCircuitBreaker.CLOSED, executor.getCircuitState("sub-travada"));
+        assertEquals(4, executions.get("sub-travada").get());
+    }
+
+    @Test
+    void slowSubscriptionCannotTakeEverySlot() throws Exception {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setMaxConcurrentCommands(4);
+        config.setSubscriptionMaxConcurrentCommands(2);
+        config.setCoalesceReads(false);
+        AzureCommandExecutor executor = executor(config);
+        delayMs = 200;
+
+        List<Future<String>> slow = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            slow.add(callers.submit(() -> executor.execute("group", "list", "--subscription", "sub-lenta")));
+        }
+        Thread.sleep(50);
+        long start = System.currentTimeMillis();
+        executor.execute("group", "list", "--subscription", "sub-rapida");
+        long elapsed = System.currentTimeMillis() - start;
+
+        for (Future<String> future : slow) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(2, maxRunning.get("sub-lenta").get());
+        assertTrue(elapsed < 400, "assinatura rápida esperou " + elapsed + "ms");
+    }
+}
@@ -0,0 +1,154 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Executor com contagem de execuções no lugar do processo az: chamadas de
+ * leitura idênticas e simultâneas devem resultar em uma única execução.
+ */
+class AzureCommandCoalescingTest {
+
+    private static final int CALLERS = 16;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean fail;
+
+    private AzureCommandExecutor executor(boolean coalesce) {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setMaxConcurrentCommands(CALLERS);
+        config.setCoalesceReads(coalesce);
+        return new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config)) {
+            @Override
+            CommandOutput executeWithSlot(String... args) throws AzureCliException {
+                executions.computeIfAbsent(String.join(" ", args), k -> new AtomicInteger()).incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AzureCliException("interrompido", e);
+                }
+                if (fail) {
+                    throw new AzureCliException("falha simulada");
+                }
+                return CommandOutput.of("[]".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private List<Future<CommandOutput>> runConcurrently(AzureCommandExecutor executor, String... args)
+            throws InterruptedException {
+        List<Future<CommandOutput>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> executor.executeRaw(args)));
+        }
+        // Dá tempo para todas as chamadas chegarem antes de liberar a execução
+        Thread.sleep(200);
+        release.countDown();
+        return results;
+    }
+
+    private int executionsOf(String command) {
+        AtomicInteger count = executions.get(command);
+        return count != null ? count.get() : 0;
+    }
+
+    @Test
+    void identicalConcurrentReadsShareOneExecution() throws Exception {
+        AzureCommandExecutor executor = executor(true);
+
+        List<Future<CommandOutput>> results = runConcurrently(executor, "group", "list", "--subscription", "sub-1");
+
+        CommandOutput first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<CommandOutput> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executionsOf("group list --subscription sub-1"));
+        assertEquals(CALLERS - 1, executor.getCoalescedCommands());
+    }
+
+    @Test
+    void deletesAreNeverCoalesced() throws Exception {
+        AzureCommandExecutor executor = executor(true);
+
+        List<Future<CommandOutput>> results = runConcurrently(executor,
+                "group", "delete", "--name", "rg-1", "--subscription", "sub-1", "--yes");
+        for (Future<CommandOutput> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(CALLERS, executionsOf("group delete --name rg-1 --subscription sub-1 --yes"));
+        assertEquals(0, executor.getCoalescedCommands());
+    }
+
+    @Test
+    void differentArgumentsAreNotCoalesced() throws Exception {
+        AzureCommandExecutor executor = executor(true);
+
+        Future<CommandOutput> a = callers.submit(() -> executor.executeRaw("group", "list", "--subscription", "sub-1"));
+        Future<CommandOutput> b = callers.submit(() -> executor.executeRaw("group", "list", "--subscription", "sub-2"));
+        Thread.sleep(200);
+        release.countDown();
+        a.get(5, TimeUnit.SECONDS);
+        b.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, executionsOf("group list --subscription sub-1"));
+        assertEquals(1, executionsOf("group list --subscription sub-2"));
+    }
+
+    @Test
+    void failureIsSharedAndNotRemembered() throws Exception {
+        AzureCommandExecutor executor = executor(true);
+        fail = true;
+
+        List<Future<CommandOutput>> results = runConcurrently(executor, "account", "list");
+        for (Future<CommandOutput> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AzureCliException);
+        }
+        assertEquals(1, executionsOf("account list"));
+
+        // Depois de concluída, a próxima chamada executa de novo
+        fail = false;
+        executor.executeRaw("account", "list");
+        assertEquals(2, executionsOf("account list"));
+    }
+
+    @Test
+    void coalescingCanBeDisabled() throws Exception {
+        AzureCommandExecutor executor = executor(false);
+
+        List<Future<CommandOutput>> results = runConcurrently(executor, "account", "list");
+        for (Future<CommandOutput> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(CALLERS, executionsOf("account list"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)
+class AzureCommandExecutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AzureCommandExecutor executorFor(String script, long timeoutMs) throws Exception {
+        Path az = tempDir.resolve("az");
+        Files.writeString(az, "#!/bin/sh\n" + script + "\n");
+        az.toFile().setExecutable(true);
+
+        AzureCliConfig config = new AzureCliConfig();
+        config.setPath(az.toString());
+        config.setTimeout(timeoutMs);
+        config.setMaxConcurrentCommands(1);
+        config.setBackgroundMaxConcurrentCommands(1);
+        return new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config));
+    }
+
+    @Test
+    void drainsChattyStderrWithoutDeadlock() throws Exception {
+        // 2MB no stderr antes do stdout: com leitura sequencial o pipe enche e o processo trava
+        AzureCommandExecutor executor = executorFor(
+                "head -c 2097152 /dev/zero | tr '\\0' 'w' >&2\necho '[1,2,3]'", 10000L);
+
+        CommandOutput output = assertTimeoutPreemptively(java.time.Duration.ofSeconds(10),
+                () -> executor.executeRaw("resource", "list"));
+
+        assertEquals("[1,2,3]\n", output.asString());
+    }
+
+    @Test
+    void keepsLargeStdoutBytesIntact() throws Exception {
+        AzureCommandExecutor executor = executorFor("head -c 5000000 /dev/zero | tr '\\0' 'x'", 10000L);
+
+        CommandOutput output = executor.executeRaw("resource", "list");
+
+        assertEquals(5_000_000, output.size());
+        assertEquals(5_000_000, output.asInputStream().readAllBytes().length);
+    }
+
+    @Test
+    void reportsStderrOnNonZeroExit() throws Exception {
+        AzureCommandExecutor executor = executorFor("echo 'ERROR: grupo inexistente' >&2\nexit 3", 10000L);
+
+        AzureCliException error = assertThrows(AzureCliException.class, () -> executor.execute("group", "show"));
+
+        assertTrue(error.getMessage().contains("código 3"));
+        assertTrue(error.getMessage().contains("grupo inexistente"));
+    }
+
+    @Test
+    void destroysProcessAfterTimeout() throws Exception {
+        AzureCommandExecutor executor = executorFor("exec sleep 30", 300L);
+
+        long start = System.currentTimeMillis();
+        AzureCliException error = assertThrows(AzureCliException.class, () -> executor.execute("group", "list"));
+
+        assertTrue(error.getMessage().contains("tempo limite"));
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    void waitingDeleteIsNotBoundByReadTimeout() throws Exception {
+        AzureCommandExecutor executor = executorFor("sleep 1\necho ok", 300L);
+
+        assertEquals("ok\n", executor.execute("group", "delete", "--name", "rg-1", "--yes"));
+    }
+
+    @Test
+    void longDeletesDoNotTakeReadSlots() throws Exception {
+        AzureCommandExecutor executor = executorFor("[ \"$2\" = delete ] && sleep 2\necho ok", 10000L);
+        Thread delete = new Thread(() -> {
+            try {
+                executor.execute("group", "delete", "--name", "rg-1", "--yes");
+            } catch (AzureCliException ignored) {
+                // só ocupa a vaga de segundo plano
+            }
+        });
+        delete.start();
+        Thread.sleep(200);
+
+        long start = System.currentTimeMillis();
+        assertEquals("ok\n", executor.execute("group", "list"));
+        assertTrue(System.currentTimeMillis() - start < 1500);
+        delete.join();
+    }
+}
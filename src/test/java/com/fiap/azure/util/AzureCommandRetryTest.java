@@ -0,0 +1,123 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import com.fiap.azure.exception.AzureErrorType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * az falso que falha as primeiras chamadas com o stderr informado (contando
+ * as execuções num arquivo) e depois responde "[]".
+ */
+@DisabledOnOs(OS.WINDOWS)
+class AzureCommandRetryTest {
+
+    private static final String THROTTLED = "ERROR: (TooManyRequests) Number of requests exceeded the limit.";
+
+    @TempDir
+    Path tempDir;
+
+    private AzureCliConfig config;
+
+    private AzureCommandExecutor executorFailing(int failures, String stderr) throws Exception {
+        Path az = tempDir.resolve("az");
+        Path count = tempDir.resolve("count");
+        Files.writeString(az, "#!/bin/sh\n"
+                + "n=$(cat '" + count + "' 2>/dev/null || echo 0)\n"
+                + "n=$((n+1))\n"
+                + "echo $n > '" + count + "'\n"
+                + "if [ $n -le " + failures + " ]; then echo \"" + stderr + "\" >&2; exit 1; fi\n"
+                + "echo '[]'\n");
+        az.toFile().setExecutable(true);
+
+        config = new AzureCliConfig();
+        config.setPath(az.toString());
+        config.setRetryBaseDelay(10L);
+        config.setRetryMaxDelay(50L);
+        return new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config));
+    }
+
+    private int executions() throws Exception {
+        return Integer.parseInt(Files.readString(tempDir.resolve("count")).trim());
+    }
+
+    @Test
+    void retriesThrottledCommandAndSlowsDownTheSubscription() throws Exception {
+        AzureCommandExecutor executor = executorFailing(2, THROTTLED);
+
+        String output = executor.execute("group", "list", "--subscription", "sub-1");
+
+        assertEquals("[]\n", output);
+        assertEquals(3, executions());
+        assertEquals(2, executor.getRetriedCommands());
+        assertEquals(2, executor.getThrottledCommands());
+        assertTrue(executor.getSubscriptionRate("sub-1") < config.getSubscriptionRateLimit());
+        assertEquals(config.getSubscriptionRateLimit(), executor.getSubscriptionRate("sub-2"));
+    }
+
+    @Test
+    void givesUpAfterMaxRetriesKeepingTheClassification() throws Exception {
+        AzureCommandExecutor executor = executorFailing(100, THROTTLED);
+        config.setMaxRetries(2);
+
+        AzureCliException error = assertThrows(AzureCliException.class,
+                () -> executor.execute("resource", "list", "--subscription", "sub-1"));
+
+        assertEquals(AzureErrorType.THROTTLED, error.getType());
+        assertEquals(3, executions());
+    }
+
+    @Test
+    void doesNotRetryNotFoundNorTransientWrites() throws Exception {
+        AzureCommandExecutor executor = executorFailing(100,
+                "ERROR: (ResourceGroupNotFound) Resource group 'rg-x' could not be found.");
+
+        AzureCliException notFound = assertThrows(AzureCliException.class,
+                () -> executor.execute("group", "show", "--name", "rg-x"));
+        assertEquals(AzureErrorType.NOT_FOUND, notFound.getType());
+        assertEquals(1, executions());
+
+        AzureCommandExecutor writer = executorFailing(100, "ERROR: (InternalServerError) Encountered internal server error.");
+        Files.delete(tempDir.resolve("count"));
+        AzureCliException transientWrite = assertThrows(AzureCliException.class,
+                () -> writer.execute("group", "delete", "--name", "rg-x", "--yes"));
+        assertEquals(AzureErrorType.TRANSIENT, transientWrite.getType());
+        assertEquals(1, executions());
+    }
+
+    @Test
+    void honoursRetryAfterHint() throws Exception {
+        AzureCommandExecutor executor = executorFailing(1, THROTTLED + " Please retry after '1' seconds.");
+
+        long start = System.currentTimeMillis();
+        executor.execute("group", "list", "--subscription", "sub-1");
+
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(2, executions());
+    }
+
+    @Test
+    void classifiesAzureErrors() {
+        assertEquals(AzureErrorType.THROTTLED, AzureErrorClassifier.classify(THROTTLED));
+        assertEquals(AzureErrorType.AUTH_EXPIRED, AzureErrorClassifier.classify(
+                "ERROR: AADSTS70043: The refresh token has expired. Please run 'az login' to setup account."));
+        assertEquals(AzureErrorType.NOT_FOUND, AzureErrorClassifier.classify(
+                "ERROR: (SubscriptionNotFound) The subscription 'x' could not be found."));
+        assertEquals(AzureErrorType.TRANSIENT, AzureErrorClassifier.classify(
+                "ERROR: ('Connection aborted.', RemoteDisconnected('Remote end closed connection'))"));
+        assertEquals(AzureErrorType.UNKNOWN, AzureErrorClassifier.classify("ERROR: argument --name: expected one"));
+        assertEquals(17000L, AzureErrorClassifier.retryAfterMs("Retry-After: 17"));
+        assertNull(AzureErrorClassifier.retryAfterMs(THROTTLED));
+    }
+}
@@ -0,0 +1,100 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+import com.fiap.azure.exception.AzureCliException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CliCallSchedulerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CliCallScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void returnsResultsInSubmissionOrder() throws Exception {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setVirtualThreads(false);
+        config.setSchedulerThreads(4);
+        scheduler = new CliCallScheduler(config);
+
+        List<Callable<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            calls.add(() -> {
+                Thread.sleep(20 - value);
+                return value;
+            });
+        }
+
+        List<Integer> results = scheduler.invokeAll(calls);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i));
+        }
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void limitsConcurrentProcessesAndKillsThemOnTimeout() throws Exception {
+        Path az = tempDir.resolve("az");
+        Files.writeString(az, "#!/bin/sh\nexec sleep 30\n");
+        az.toFile().setExecutable(true);
+
+        AzureCliConfig config = new AzureCliConfig();
+        config.setPath(az.toString());
+        config.setMaxConcurrentCommands(3);
+        config.setFanOutTimeout(500L);
+        config.setVirtualThreads(false);
+        config.setSchedulerThreads(10);
+        scheduler = new CliCallScheduler(config);
+        AzureCommandExecutor executor = new AzureCommandExecutor(config, new AzureCliWorkerPool(config),
+                new AzureCallGate(config));
+
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            calls.add(() -> {
+                maxRunning.accumulateAndGet(childCount(), Math::max);
+                return executor.execute("resource", "list");
+            });
+        }
+
+        long start = System.currentTimeMillis();
+        assertThrows(AzureCliException.class, () -> scheduler.invokeAll(calls));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (childCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, childCount());
+        assertEquals(3, executor.getAvailableCommandSlots());
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    private static int childCount() {
+        return (int) ProcessHandle.current().children()
+                .filter(p -> p.info().command().map(c -> c.endsWith("sleep")).orElse(false))
+                .count();
+    }
+}
@@ -0,0 +1,72 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.model.Resource;
+import com.fiap.azure.model.ResourceGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompactInventoryTest {
+
+    private static final String SUB = "00000000-0000-0000-0000-000000000001";
+
+    private static String groupId(String group) {
+        return "/subscriptions/" + SUB + "/resourceGroups/" + group;
+    }
+
+    private static List<ResourceGroup> inventory() {
+        List<Resource> web = new ArrayList<>(List.of(
+                new Resource(groupId("rg-web") + "/providers/Microsoft.Web/sites/app-1", "app-1",
+                        "Microsoft.Web/sites", "eastus", "rg-web"),
+                // Recurso filho: tipo e nome com vários segmentos
+                new Resource(groupId("rg-web") + "/providers/Microsoft.Sql/servers/sql-1/databases/db-1", "sql-1/db-1",
+                        "Microsoft.Sql/servers/databases", "eastus", "rg-web"),
+                // Id com o grupo em maiúsculas e resourceGroup em minúsculas, como o Azure às vezes devolve
+                new Resource("/subscriptions/" + SUB + "/resourceGroups/RG-WEB/providers/Microsoft.Web/sites/app-2",
+                        "app-2", "Microsoft.Web/sites", "brazilsouth", "rg-web-lower"),
+                new Resource("unknown", "N/A", "Unknown", "N/A", "rg-web")));
+        return List.of(
+                new ResourceGroup(groupId("rg-web"), "rg-web", "eastus", "Succeeded", web),
+                new ResourceGroup(groupId("rg-vazio"), "rg-vazio", "brazilsouth", "Deleting", new ArrayList<>()),
+                new ResourceGroup("/subscriptions/" + SUB + "/resourcegroups/rg-id-diferente", "rg-id-diferente",
+                        null, "Succeeded", new ArrayList<>(List.of(new Resource(null, "vm-1",
+                        "Microsoft.Compute/virtualMachines", "eastus", "rg-id-diferente")))));
+    }
+
+    @Test
+    void roundTripsGroupsAndResourcesExactly() {
+        List<ResourceGroup> original = inventory();
+        CompactInventory compact = CompactInventory.of(SUB, original, new StringDictionary());
+
+        assertEquals(original, compact.groups());
+        assertEquals(3, compact.groupCount());
+        assertEquals(5, compact.resourceCount());
+        assertSame(compact.groups(), compact.groups());
+        assertEquals(0, compact.groups().get(1).getResources().size());
+    }
+
+    @Test
+    void sharesDictionaryCodesAndIgnoresChangesToMaterializedObjects() {
+        StringDictionary dictionary = new StringDictionary();
+        CompactInventory first = CompactInventory.of(SUB, inventory(), dictionary);
+        int entries = dictionary.size();
+        CompactInventory second = CompactInventory.of("outra", inventory(), dictionary);
+
+        // Tipos, regiões e estados já conhecidos não criam entradas novas
+        assertEquals(entries, dictionary.size());
+        assertSame(first.groups().get(0).getResources().get(0).getType(),
+                second.groups().get(0).getResources().get(0).getType());
+        // Ids de outra assinatura não batem com o remontado e são guardados como vieram
+        assertEquals(inventory(), second.groups());
+
+        ResourceGroup copy = first.groups().get(0);
+        copy.setName("alterado");
+        copy.getResources().get(0).setName("alterado");
+        assertEquals("rg-web", first.groups().get(0).getName());
+        assertEquals("app-1", first.groups().get(0).getResources().get(0).getName());
+    }
+}
@@ -0,0 +1,57 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.config.AzureCliConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Copia um fixture de src/test/resources (script "az" + respostas) para um
+ * diretório temporário e monta um executor apontando para ele.
+ */
+public class FakeAzCli {
+
+    private final Path directory;
+
+    private FakeAzCli(Path directory) {
+        this.directory = directory;
+    }
+
+    public static FakeAzCli install(String fixture, Path targetDir, String... files) throws IOException {
+        copy(fixture, "az", targetDir);
+        for (String file : files) {
+            copy(fixture, file, targetDir);
+        }
+        targetDir.resolve("az").toFile().setExecutable(true);
+        return new FakeAzCli(targetDir);
+    }
+
+    private static void copy(String fixture, String file, Path targetDir) throws IOException {
+        try (InputStream in = FakeAzCli.class.getResourceAsStream("/" + fixture + "/" + file)) {
+            if (in == null) {
+                throw new IOException("Fixture não encontrado: " + fixture + "/" + file);
+            }
+            Files.copy(in, targetDir.resolve(file), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public AzureCliConfig config() {
+        AzureCliConfig config = new AzureCliConfig();
+        config.setPath(directory.resolve("az").toString());
+        return config;
+    }
+
+    public AzureCommandExecutor executor() {
+        AzureCliConfig config = config();
+        return new AzureCommandExecutor(config, new AzureCliWorkerPool(config), new AzureCallGate(config));
+    }
+
+    public List<String> invocations() throws IOException {
+        Path log = directory.resolve("invocations.log");
+        return Files.exists(log) ? Files.readAllLines(log) : List.of();
+    }
+}
@@ -0,0 +1,109 @@
+package com.fiap.azure.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupNameMatcherTest {
+
+    // Mesmo comportamento do laço que ficava no ResourceController
+    private static boolean naive(String groupName, List<String> patterns, String matchMode) {
+        String lowerGroupName = groupName.toLowerCase();
+        for (String pattern : patterns) {
+            String lowerPattern = pattern.toLowerCase().trim();
+            if (lowerPattern.isEmpty()) continue;
+            switch (matchMode) {
+                case "exact" -> { if (lowerGroupName.equals(lowerPattern)) return true; }
+                case "contains" -> { if (lowerGroupName.contains(lowerPattern)) return true; }
+                case "startsWith" -> { if (lowerGroupName.startsWith(lowerPattern)) return true; }
+                default -> throw new IllegalStateException();
+            }
+        }
+        return false;
+    }
+
+    private static String randomName(Random random, int maxLength) {
+        // Alfabeto pequeno para forçar sobreposições entre padrões (caso difícil do Aho-Corasick)
+        String alphabet = "abAB-";
+        StringBuilder name = new StringBuilder();
+        int length = 1 + random.nextInt(maxLength);
+        for (int i = 0; i < length; i++) {
+            name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return name.toString();
+    }
+
+    @Test
+    void agreesWithTheLinearLoopForEveryLegacyMode() {
+        Random random = new Random(42);
+        for (String mode : List.of("exact", "contains", "startsWith")) {
+            for (int round = 0; round < 50; round++) {
+                List<String> patterns = new ArrayList<>();
+                for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                    patterns.add(randomName(random, 4));
+                }
+                GroupNameMatcher matcher = GroupNameMatcher.of(mode, patterns);
+                for (int i = 0; i < 200; i++) {
+                    String name = randomName(random, 10);
+                    assertEquals(naive(name, patterns, mode), matcher.matches(name),
+                            mode + " " + patterns + " vs " + name);
+                }
+            }
+        }
+    }
+
+    @Test
+    void globAndRegexModes() {
+        GroupNameMatcher matcher = GroupNameMatcher.builder()
+                .add(GroupNameMatcher.GLOB, List.of("rg-*-prod", "backup-??"))
+                .add(GroupNameMatcher.REGEX, List.of("^infra-\\d+$"))
+                .build();
+
+        assertTrue(matcher.matches("RG-Loja-Prod"));
+        assertTrue(matcher.matches("backup-01"));
+        assertTrue(matcher.matches("INFRA-42"));
+        assertFalse(matcher.matches("rg-loja-dev"));
+        assertFalse(matcher.matches("backup-001"));
+        assertFalse(matcher.matches("infra-x"));
+        // Pontos no glob são literais
+        assertFalse(GroupNameMatcher.of(GroupNameMatcher.GLOB, List.of("a.b")).matches("axb"));
+        assertEquals(3, matcher.getPatternCount());
+    }
+
+    @Test
+    void regexBackreferencesKeepTheirOwnGroupNumbers() {
+        GroupNameMatcher matcher = GroupNameMatcher.of(GroupNameMatcher.REGEX,
+                List.of("^(tmp)-\\d+$", "^(\\w)\\1-", "^(?<ano>\\d{4})-\\k<ano>$"));
+
+        assertTrue(matcher.matches("tmp-42"));
+        assertTrue(matcher.matches("aa-lab"));
+        assertTrue(matcher.matches("2024-2024"));
+        assertFalse(matcher.matches("ab-lab"));
+        assertFalse(matcher.matches("2024-2025"));
+        assertEquals(3, matcher.getPatternCount());
+    }
+
+    @Test
+    void mixedRulesAndInvalidInput() {
+        GroupNameMatcher matcher = GroupNameMatcher.builder()
+                .add(GroupNameMatcher.EXACT, List.of("rg-aula", " "))
+                .add(GroupNameMatcher.STARTS_WITH, List.of("prod-"))
+                .add(GroupNameMatcher.CONTAINS, List.of("shared"))
+                .build();
+
+        assertTrue(matcher.matches("RG-AULA"));
+        assertTrue(matcher.matches("prod-web"));
+        assertTrue(matcher.matches("x-shared-y"));
+        assertFalse(matcher.matches("rg-aula-2"));
+        assertFalse(GroupNameMatcher.none().matches("qualquer"));
+        assertThrows(IllegalArgumentException.class, () -> GroupNameMatcher.of("fuzzy", List.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> GroupNameMatcher.of(GroupNameMatcher.REGEX, List.of("(")));
+    }
+}
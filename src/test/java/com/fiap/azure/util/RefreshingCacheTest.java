@@ -0,0 +1,120 @@
+package com.fiap.azure.util;
+
+import com.fiap.azure.exception.AzureCliException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshingCacheTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void servesFreshEntriesWithoutReloading() throws Exception {
+        RefreshingCache<String, Integer> cache = new RefreshingCache<>("test", 60000, 0, 10, executor);
+
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, cache.getStats().get("hits"));
+        assertEquals(1L, cache.getStats().get("misses"));
+    }
+
+    @Test
+    void concurrentMissesShareASingleLoad() throws Exception {
+        RefreshingCache<String, Integer> cache = new RefreshingCache<>("test", 60000, 0, 10, executor);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> cache.get("a", () -> {
+                await(release);
+                return loads.incrementAndGet();
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Integer> caller : callers) {
+            assertEquals(1, caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7L, cache.getStats().get("coalesced"));
+    }
+
+    @Test
+    void staleEntryIsServedWhileRefreshingInBackground() throws Exception {
+        RefreshingCache<String, Integer> cache = new RefreshingCache<>("test", 50, 60000, 10, executor);
+        cache.put("a", 0);
+        Thread.sleep(100);
+        CountDownLatch release = new CountDownLatch(1);
+
+        long start = System.currentTimeMillis();
+        assertEquals(0, cache.get("a", () -> {
+            await(release);
+            return loads.incrementAndGet();
+        }));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Integer.valueOf(1).equals(cache.getIfPresent("a")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.getIfPresent("a"));
+        assertEquals(1L, cache.getStats().get("staleHits"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() throws Exception {
+        RefreshingCache<String, Integer> cache = new RefreshingCache<>("test", 60000, 0, 2, executor);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a", () -> 0);
+        cache.put("c", 3);
+
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getIfPresent("a"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        RefreshingCache<String, Integer> cache = new RefreshingCache<>("test", 60000, 0, 10, executor);
+
+        assertThrows(AzureCliException.class, () -> cache.get("a", () -> {
+            throw new AzureCliException("falhou");
+        }));
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(1L, cache.getStats().get("loadFailures"));
+    }
+
+    private static void await(CountDownLatch latch) throws AzureCliException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new AzureCliException("interrompido", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fiap.azure.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Worker falso que fala o mesmo protocolo do az_worker.py, para testes e benchmarks.
+ *
+ * Comandos: "pid" devolve o pid do processo, "fail" sai com código 1, "crash"
+ * encerra o processo sem responder, "sleep <ms>" atrasa a resposta; qualquer
+ * outro comando devolve os próprios argumentos em JSON.
+ */
+public class StubAzWorker {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            // Simula o custo de inicialização do interpretador, pago uma única vez
+            Thread.sleep(Long.parseLong(args[0]));
+        }
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        OutputStream out = System.out;
+        String line;
+        while ((line = in.readLine()) != null) {
+            List<String> command = List.of(JSON.readValue(line, String[].class));
+            int exitCode = 0;
+            String stdout = "";
+            String stderr = "";
+
+            if (!command.isEmpty()) {
+                switch (command.get(0)) {
+                    case "pid" -> stdout = String.valueOf(ProcessHandle.current().pid());
+                    case "fail" -> {
+                        exitCode = 1;
+                        stderr = "ERROR: falha simulada";
+                    }
+                    case "crash" -> System.exit(3);
+                    case "sleep" -> {
+                        Thread.sleep(Long.parseLong(command.get(1)));
+                        stdout = JSON.writeValueAsString(command);
+                    }
+                    default -> stdout = JSON.writeValueAsString(command);
+                }
+            }
+            write(out, exitCode, stdout, stderr);
+        }
+    }
+
+    private static void write(OutputStream out, int exitCode, String stdout, String stderr) throws IOException {
+        byte[] o = stdout.getBytes(StandardCharsets.UTF_8);
+        byte[] e = stderr.getBytes(StandardCharsets.UTF_8);
+        out.write((exitCode + " " + o.length + " " + e.length + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(o);
+        out.write(e);
+        out.flush();
+    }
+
+    /** Linha de comando para subir este worker com o classpath de teste atual. */
+    public static List<String> command(long startupMs) {
+        String java = System.getProperty("java.home") + "/bin/java";
+        return List.of(java, "-cp", System.getProperty("java.class.path"),
+                StubAzWorker.class.getName(), String.valueOf(startupMs));
+    }
+}